@@ -0,0 +1,46 @@
+package com.box.androidsdk.browse.adapters;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.box.androidsdk.browse.benchmark.BenchmarkItems;
+import com.box.androidsdk.content.models.BoxItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks the diff {@link BoxItemAdapter#updateTo(ArrayList)} computes when a folder is refreshed, with a few items
+ * added, removed and changed.
+ */
+@State(Scope.Thread)
+public class BoxItemDiffBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private BoxItemSnapshot mOldSnapshot;
+    private ArrayList<BoxItem> mNewItems;
+
+    @Setup
+    public void setUp() {
+        ArrayList<BoxItem> oldItems = BenchmarkItems.createFiles(0, size);
+        mOldSnapshot = new BoxItemSnapshot(oldItems);
+        mNewItems = new ArrayList<BoxItem>(size);
+        mNewItems.addAll(BenchmarkItems.createFiles(size, 10));
+        for (int i = 10; i < size; i++) {
+            // Every hundredth item changed, the first ten were removed.
+            mNewItems.add(i % 100 == 0 ? BenchmarkItems.createFile(i, "1") : oldItems.get(i));
+        }
+    }
+
+    @Benchmark
+    public DiffUtil.DiffResult calculateDiff() {
+        return DiffUtil.calculateDiff(new BoxItemDiffCallback(mOldSnapshot.getItems(), mNewItems),
+                mNewItems.size() <= BoxItemAdapter.MOVE_DETECTION_LIMIT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.browse.benchmark.BenchmarkItems;
+import com.box.androidsdk.content.models.BoxItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks the snapshots a {@link BoxItemAdapter} publishes on every change, and the de-duplication of search result
+ * pages against the items shown.
+ */
+@State(Scope.Thread)
+public class BoxItemSnapshotBenchmark {
+
+    private static final int PAGE_SIZE = 200;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<BoxItem> mItems;
+    private BoxItemSnapshot mSnapshot;
+    private List<BoxItem> mPage;
+    private List<BoxItem> mOverlappingPage;
+    private BoxItem mReplacement;
+    private String[] mLookupIds;
+    private int mLookup;
+
+    @Setup
+    public void setUp() {
+        mItems = BenchmarkItems.createFiles(0, size);
+        mSnapshot = new BoxItemSnapshot(mItems);
+        mPage = BenchmarkItems.createFiles(size, PAGE_SIZE);
+        // Half of the page is shown already, as when the server returns results that moved between pages.
+        mOverlappingPage = BenchmarkItems.createFiles(size - PAGE_SIZE / 2, PAGE_SIZE);
+        mReplacement = BenchmarkItems.createFile(size / 2, "1");
+        mLookupIds = new String[LOOKUPS];
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            mLookupIds[i] = mItems.get(random.nextInt(size)).getId();
+        }
+        // Lookups build the position index once, as the adapter does on its first lookup.
+        mSnapshot.indexOf(mLookupIds[0]);
+    }
+
+    @Benchmark
+    public BoxItemSnapshot create() {
+        return new BoxItemSnapshot(mItems);
+    }
+
+    @Benchmark
+    public int indexOf() {
+        mLookup = (mLookup + 1) & (LOOKUPS - 1);
+        return mSnapshot.indexOf(mLookupIds[mLookup]);
+    }
+
+    @Benchmark
+    public BoxItemSnapshot replace() {
+        return mSnapshot.replace(size / 2, mReplacement);
+    }
+
+    @Benchmark
+    public BoxItemSnapshot appendPageAndTruncate() {
+        // Adding and removing the load more item, or a page, leaves the shared index as it was.
+        return mSnapshot.append(mPage).truncate(size);
+    }
+
+    @Benchmark
+    public List<BoxItem> dedupePage() {
+        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>(mOverlappingPage.size());
+        for (BoxItem item : mOverlappingPage) {
+            if (!mSnapshot.contains(item.getId())) {
+                filteredItems.add(item);
+            }
+        }
+        return filteredItems;
+    }
+}
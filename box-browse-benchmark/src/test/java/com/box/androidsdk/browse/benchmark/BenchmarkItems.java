@@ -0,0 +1,53 @@
+package com.box.androidsdk.browse.benchmark;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Items used as benchmark input. Names are made of a few common words so that name lookups find many candidates, as
+ * they do in real folders.
+ */
+public final class BenchmarkItems {
+
+    private static final String[] WORDS = {"report", "draft", "budget", "photo", "meeting", "notes", "design", "invoice"};
+
+    private BenchmarkItems() {
+    }
+
+    /**
+     * Creates files with consecutive ids.
+     *
+     * @param firstId the id of the first file
+     * @param count   the number of files
+     * @return the files
+     */
+    public static ArrayList<BoxItem> createFiles(int firstId, int count) {
+        ArrayList<BoxItem> items = new ArrayList<BoxItem>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(createFile(firstId + i, "0"));
+        }
+        return items;
+    }
+
+    /**
+     * Creates a file with all fields a list row shows.
+     *
+     * @param id   the id of the file
+     * @param etag the etag of the file
+     * @return the file
+     */
+    public static BoxFile createFile(int id, String etag) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, Integer.toString(id));
+        object.add(BoxItem.FIELD_TYPE, BoxFile.TYPE);
+        object.add(BoxItem.FIELD_NAME, WORDS[id % WORDS.length] + " " + WORDS[(id / WORDS.length) % WORDS.length]
+                + " " + id + ".pdf");
+        object.add(BoxItem.FIELD_ETAG, etag);
+        object.add(BoxFile.FIELD_SHA1, String.format(Locale.ENGLISH, "%040x", id));
+        return new BoxFile(object);
+    }
+}
@@ -0,0 +1,134 @@
+package com.box.androidsdk.browse.benchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the JMH benchmarks and fails if one of them regressed against the baseline.
+ *
+ * Scores are the average time of an operation in the fastest measured iteration, divided by the score of
+ * {@link CalibrationBenchmark} so that they do not depend on the speed of the machine. A benchmark regressed when its score exceeds its baseline score times the
+ * threshold. Benchmarks without a baseline score are reported but do not fail, record a new baseline to add them.
+ *
+ * The benchmarks run in the test JVM rather than in forked JVMs, as the Gradle test worker does not expose its
+ * classpath to forks. The threshold leaves room for the noise this adds.
+ */
+public class BenchmarkRegressionTest {
+
+    private static final String CALIBRATION = CalibrationBenchmark.class.getSimpleName() + ".sort";
+
+    @Test
+    public void benchmarksDoNotRegress() throws Exception {
+        Options options = new OptionsBuilder()
+                .include("com\\.box\\.androidsdk\\.browse\\..*Benchmark\\.")
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.milliseconds(300))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.milliseconds(200))
+                .forks(0)
+                .build();
+        TreeMap<String, Double> scores = getScores(new Runner(options).run());
+        Double calibration = scores.remove(CALIBRATION);
+        Assert.assertNotNull("Calibration benchmark did not run", calibration);
+
+        TreeMap<String, Double> results = new TreeMap<String, Double>();
+        for (String name : scores.keySet()) {
+            results.put(name, scores.get(name) / calibration);
+        }
+        store(results, System.getProperty("benchmark.results"));
+        if (Boolean.getBoolean("benchmark.record")) {
+            store(results, System.getProperty("benchmark.baseline"));
+            return;
+        }
+
+        Properties baseline = load(System.getProperty("benchmark.baseline"));
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "1.5"));
+        List<String> regressions = new ArrayList<String>();
+        for (String name : results.keySet()) {
+            String expected = baseline.getProperty(name);
+            double score = results.get(name);
+            if (expected == null) {
+                System.out.println("No baseline for " + name + ", score " + format(score));
+            } else if (score > Double.parseDouble(expected) * threshold) {
+                regressions.add(name + " scored " + format(score) + ", baseline " + expected);
+            }
+        }
+        Assert.assertTrue("Benchmarks regressed by more than " + threshold + "x: " + regressions, regressions.isEmpty());
+    }
+
+    /**
+     * Gets the score of every benchmark, the average time per operation of its fastest iteration, keyed by the simple
+     * class name, method name and size parameter.
+     */
+    private static TreeMap<String, Double> getScores(Collection<RunResult> runResults) {
+        TreeMap<String, Double> scores = new TreeMap<String, Double>();
+        for (RunResult runResult : runResults) {
+            String benchmark = runResult.getParams().getBenchmark();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            String size = runResult.getParams().getParam("size");
+            if (size != null) {
+                name += "[" + size + "]";
+            }
+            // Noise from other processes only ever slows an iteration down, the fastest one is the most repeatable.
+            scores.put(name, runResult.getPrimaryResult().getStatistics().getMin());
+        }
+        return scores;
+    }
+
+    private static String format(double score) {
+        return String.format(Locale.ENGLISH, "%.6g", score);
+    }
+
+    private static Properties load(String path) throws IOException {
+        Properties properties = new Properties();
+        if (path != null && new File(path).exists()) {
+            InputStream input = new FileInputStream(path);
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
+        }
+        return properties;
+    }
+
+    private static void store(TreeMap<String, Double> results, String path) throws IOException {
+        if (path == null) {
+            return;
+        }
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1");
+        try {
+            writer.write("# Average time per operation divided by the time of " + CALIBRATION + "\n");
+            for (String name : results.keySet()) {
+                writer.write(name + "=" + format(results.get(name)) + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.box.androidsdk.browse.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fixed workload that measures how fast the machine running the benchmarks is. Scores are divided by its score
+ * before they are compared with the baseline, so that a baseline recorded on one machine holds on another.
+ */
+@State(Scope.Thread)
+public class CalibrationBenchmark {
+
+    private int[] mValues;
+
+    @Setup
+    public void setUp() {
+        mValues = new int[10000];
+        Random random = new Random(42);
+        for (int i = 0; i < mValues.length; i++) {
+            mValues[i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int[] sort() {
+        int[] values = mValues.clone();
+        Arrays.sort(values);
+        return values;
+    }
+}
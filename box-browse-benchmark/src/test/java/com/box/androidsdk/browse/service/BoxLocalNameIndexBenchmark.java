@@ -0,0 +1,49 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.browse.benchmark.BenchmarkItems;
+import com.box.androidsdk.content.models.BoxItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks indexing a folder listing and matching a query typed into search against it.
+ */
+@State(Scope.Thread)
+public class BoxLocalNameIndexBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ArrayList<BoxItem> mItems;
+    private BoxLocalNameIndex mIndex;
+
+    @Setup
+    public void setUp() {
+        mItems = BenchmarkItems.createFiles(0, size);
+        mIndex = new BoxLocalNameIndex(BoxLocalNameIndex.DEFAULT_MAX_FOLDERS);
+        mIndex.putFolder("0", mItems);
+    }
+
+    @Benchmark
+    public BoxLocalNameIndex putFolder() {
+        BoxLocalNameIndex index = new BoxLocalNameIndex(BoxLocalNameIndex.DEFAULT_MAX_FOLDERS);
+        index.putFolder("0", mItems);
+        return index;
+    }
+
+    @Benchmark
+    public ArrayList<BoxItem> searchPrefix() {
+        return mIndex.search("rep dra", null, 100);
+    }
+
+    @Benchmark
+    public ArrayList<BoxItem> searchInFolder() {
+        return mIndex.search("Budget Notes", "0", 100);
+    }
+}
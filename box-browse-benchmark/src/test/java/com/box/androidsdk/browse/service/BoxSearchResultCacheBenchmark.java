@@ -0,0 +1,20 @@
+package com.box.androidsdk.browse.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks creating the key of a search, which is done for every query typed and every page requested. It does not
+ * depend on the number of items.
+ */
+@State(Scope.Thread)
+public class BoxSearchResultCacheBenchmark {
+
+    private final String mQuery = "  Quarterly   Budget Report  2019 ";
+
+    @Benchmark
+    public String createKey() {
+        return BoxSearchResultCache.createKey(mQuery, null, "0", 100);
+    }
+}
@@ -0,0 +1,53 @@
+package com.box.androidsdk.browse.uidata;
+
+import com.box.androidsdk.browse.benchmark.BenchmarkItems;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxItem;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks what {@link ThumbnailManager} computes for every bound row: the cache name of the thumbnail and the
+ * default icon. An operation binds every item once.
+ */
+@State(Scope.Thread)
+public class ThumbnailManagerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ThumbnailManager mManager;
+    private ArrayList<BoxItem> mItems;
+
+    @Setup
+    public void setUp() {
+        // Only methods that do not touch the controller or the file system are measured.
+        mManager = Mockito.mock(ThumbnailManager.class, Mockito.CALLS_REAL_METHODS);
+        mItems = BenchmarkItems.createFiles(0, size);
+    }
+
+    @Benchmark
+    public int getCacheName() {
+        int length = 0;
+        for (BoxItem item : mItems) {
+            length += mManager.getCacheName((BoxFile) item).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int getDefaultIconResource() {
+        int resources = 0;
+        for (BoxItem item : mItems) {
+            resources += mManager.getDefaultIconResource(item);
+        }
+        return resources;
+    }
+}
@@ -3,9 +3,12 @@ package com.box.androidsdk.browse.activities;
 import android.app.Application;
 import android.content.Context;
 import android.content.Intent;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -21,6 +24,7 @@ import com.box.androidsdk.browse.fragments.BoxBrowseFragment;
 import com.box.androidsdk.browse.fragments.BoxSearchFragment;
 import com.box.androidsdk.browse.fragments.OnUpdateListener;
 import com.box.androidsdk.browse.service.BoxBrowseController;
+import com.box.androidsdk.browse.service.BoxFieldProfile;
 import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.browse.uidata.BoxSearchView;
 import com.box.androidsdk.content.BoxApiFile;
@@ -30,6 +34,7 @@ import com.box.androidsdk.content.BoxConstants;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequest;
 import com.box.androidsdk.content.requests.BoxResponse;
 import com.box.androidsdk.content.utils.SdkUtils;
 
@@ -55,6 +60,7 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
     private static final ConcurrentLinkedQueue<BoxResponse> RESPONSE_QUEUE = new ConcurrentLinkedQueue<BoxResponse>();
     private static final String RESTORE_SEARCH = "restoreSearch";
     private static final String SEARCH_QUERY = "searchQuery";
+    private static final String HYDRATING_ITEM = "hydratingItem";
     private static ThreadPoolExecutor mApiExecutor;
     private MenuItem mSearchViewMenuItem;
     private BrowseController mController;
@@ -68,6 +74,8 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
     private View mRecentSearchesFooter;
 
     private BoxFolder mCurrentBoxFolder;
+    // Item selected by the user whose fields are being fetched, null if no request is in flight
+    private BoxItem mHydratingItem;
 
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -77,6 +85,7 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
 
         if (savedInstanceState != null) {
             mCurrentBoxFolder = (BoxFolder) savedInstanceState.getSerializable(EXTRA_ITEM);
+            mHydratingItem = (BoxItem) savedInstanceState.getSerializable(HYDRATING_ITEM);
         } else if (getIntent() != null) {
             mCurrentBoxFolder = (BoxFolder) getIntent().getSerializableExtra(EXTRA_ITEM);
         }
@@ -130,6 +139,84 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
 
     }
 
+    /**
+     * Gets the controller used by this activity.
+     *
+     * @return the browse controller
+     */
+    protected BrowseController getController() {
+        return mController;
+    }
+
+    /**
+     * Fetches the fields of an item that were left out by the field profile of the controller, showing the spinner
+     * until they arrive. The response is delivered to {@link #handleBoxResponse(BoxResponse)}, which should pass it
+     * to {@link #onItemHydrated(BoxResponse)}. Selecting an item again while the request is in flight is ignored.
+     *
+     * @param item the item that was selected
+     * @return true if a request was submitted or is already in flight, false if the item should be used as it is,
+     * i.e. it already contains all of its fields or the device is offline
+     */
+    protected boolean hydrateItem(BoxItem item) {
+        if (mHydratingItem != null) {
+            return true;
+        }
+        if (mController.getFieldProfile().containsAll(BoxFieldProfile.DETAIL) || !isConnected()) {
+            return false;
+        }
+        BoxRequest request = mController.getItemDetailsRequest(item);
+        if (request == null) {
+            return false;
+        }
+        mHydratingItem = item;
+        showSpinner();
+        getApiExecutor(getApplication()).execute(request.toTask());
+        return true;
+    }
+
+    /**
+     * Whether the fields of a selected item are being fetched.
+     *
+     * @return true if a request submitted by {@link #hydrateItem(BoxItem)} is in flight
+     */
+    protected boolean isHydrating() {
+        return mHydratingItem != null;
+    }
+
+    /**
+     * Gets the item a request submitted by {@link #hydrateItem(BoxItem)} was made for. If the request failed the
+     * item is returned as it was selected, its list fields are enough to identify it and the caller can fetch the
+     * rest.
+     *
+     * @param response the response of the request
+     * @return the item with all of its fields, or the selected item if the request failed, or null if no item was
+     * being hydrated
+     */
+    protected BoxItem onItemHydrated(BoxResponse response) {
+        BoxItem item = mHydratingItem;
+        mHydratingItem = null;
+        dismissSpinner();
+        if (response.isSuccess() && response.getResult() instanceof BoxItem) {
+            return (BoxItem) response.getResult();
+        }
+        return item;
+    }
+
+    /**
+     * Whether the device has a network connection.
+     *
+     * @return true if connected, or if the app may not read the network state
+     */
+    private boolean isConnected() {
+        try {
+            ConnectivityManager connectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+            NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+            return networkInfo != null && networkInfo.isConnected();
+        } catch (SecurityException e) {
+            return true;
+        }
+    }
+
     /**
      * Gets current folder.
      *
@@ -178,10 +265,12 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
      * @param boxFolder folder on which the user has clicked
      */
     protected void handleBoxFolderClicked(final BoxFolder boxFolder) {
+        long clickedAt = SystemClock.elapsedRealtime();
         FragmentTransaction trans = getSupportFragmentManager().beginTransaction();
 
         // All fragments will always navigate into folders
         BoxBrowseFolderFragment browseFolderFragment = createBrowseFolderFragment(boxFolder, mSession);
+        browseFolderFragment.startContentTrace(clickedAt);
         trans.replace(R.id.box_browsesdk_fragment_container, browseFolderFragment);
         if (getSupportFragmentManager().getBackStackEntryCount() > 0 || getSupportFragmentManager().getFragments() != null) {
             trans.addToBackStack(BoxBrowseFragment.TAG);
@@ -268,6 +357,7 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
     @Override
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
+        outState.putSerializable(HYDRATING_ITEM, mHydratingItem);
         if (mSearchViewMenuItem == null) {
             return;
         }
@@ -361,6 +451,11 @@ public abstract class BoxBrowseActivity extends BoxThreadPoolExecutorActivity im
     @Override
     public void onQueryTextSubmit(String text) {
         hideKeyboard();
+        Fragment fragment = getSupportFragmentManager().findFragmentById(R.id.box_browsesdk_fragment_container);
+        if (fragment instanceof BoxSearchFragment) {
+            // The user is done typing, no need to wait for the debounce interval.
+            ((BoxSearchFragment) fragment).searchImmediately(text);
+        }
     }
 
     private void hideKeyboard() {
@@ -12,6 +12,9 @@ import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequestsBookmark;
+import com.box.androidsdk.content.requests.BoxRequestsFile;
+import com.box.androidsdk.content.requests.BoxResponse;
 import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonObject;
 
@@ -31,8 +34,6 @@ public class BoxBrowseFileActivity extends BoxBrowseActivity {
      */
     public static final String EXTRA_BOX_EXTENSION_FILTER = "extraBoxExtensionFilter";
 
-
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -50,13 +51,35 @@ public class BoxBrowseFileActivity extends BoxBrowseActivity {
     public void onItemClick(BoxItem item) {
         super.onItemClick(item);
         if (item instanceof BoxFile || item instanceof BoxBookmark) {
-            Intent intent = new Intent();
-            intent.putExtra(EXTRA_BOX_FILE, item);
-            setResult(Activity.RESULT_OK, intent);
-            finish();
+            if (!hydrateItem(item)) {
+                finishWithItem(item);
+            }
         }
     }
 
+    @Override
+    protected void handleBoxResponse(BoxResponse response) {
+        if (response.getRequest() instanceof BoxRequestsFile.GetFileInfo
+                || response.getRequest() instanceof BoxRequestsBookmark.GetBookmarkInfo) {
+            BoxItem item = onItemHydrated(response);
+            if (item != null) {
+                finishWithItem(item);
+            }
+        }
+    }
+
+    /**
+     * Returns the selected item to the calling activity.
+     *
+     * @param item the selected item
+     */
+    protected void finishWithItem(BoxItem item) {
+        Intent intent = new Intent();
+        intent.putExtra(EXTRA_BOX_FILE, item);
+        setResult(Activity.RESULT_OK, intent);
+        finish();
+    }
+
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
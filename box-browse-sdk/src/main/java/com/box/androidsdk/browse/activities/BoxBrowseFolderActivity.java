@@ -126,8 +126,19 @@ public class BoxBrowseFolderActivity extends BoxBrowseActivity implements View.O
 
     @Override
     public void onClick(View v) {
-        Intent intent = new Intent();
         BoxFolder curFolder = getCurrentFolder();
+        if (curFolder == null || !hydrateItem(curFolder)) {
+            finishWithFolder(curFolder);
+        }
+    }
+
+    /**
+     * Returns the selected folder, without its items, to the calling activity.
+     *
+     * @param curFolder the selected folder
+     */
+    protected void finishWithFolder(BoxFolder curFolder) {
+        Intent intent = new Intent();
         if (curFolder != null) {
             JsonObject jsonObject = curFolder.toJsonObject();
             JsonValue obj = jsonObject.get(BoxFolder.FIELD_ITEM_COLLECTION);
@@ -142,6 +153,13 @@ public class BoxBrowseFolderActivity extends BoxBrowseActivity implements View.O
 
     @Override
     public void handleBoxResponse(BoxResponse response) {
+        if (response.getRequest() instanceof BoxRequestsFolder.GetFolderInfo) {
+            BoxItem folder = onItemHydrated(response);
+            if (folder instanceof BoxFolder) {
+                finishWithFolder((BoxFolder) folder);
+            }
+            return;
+        }
         if (response.isSuccess()) {
             if (response.getRequest() instanceof BoxRequestsFolder.CreateFolder) {
                 BoxBrowseFragment browseFrag = getTopBrowseFragment();
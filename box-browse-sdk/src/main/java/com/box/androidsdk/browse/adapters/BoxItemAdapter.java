@@ -4,7 +4,9 @@ package com.box.androidsdk.browse.adapters;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import androidx.appcompat.widget.AppCompatCheckBox;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -18,10 +20,13 @@ import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.activities.BoxBrowseActivity;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
 import com.box.androidsdk.browse.fragments.BoxBrowseFragment;
+import com.box.androidsdk.browse.service.BoxContentTrace;
 import com.box.androidsdk.browse.service.BrowseController;
+import com.box.androidsdk.browse.service.BrowseMetrics;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequest;
 import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.lang.ref.WeakReference;
@@ -33,9 +38,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Adapter for BoxItems used in the RecyclerView of a BrowseFragment
@@ -45,17 +50,37 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
     protected final Context mContext;
     protected final BrowseController mController;
     protected final OnInteractionListener mListener;
-    protected final ArrayList<BoxItem> mItems = new ArrayList<BoxItem>();
+    /** The items shown. Replaced, never modified, on the ui thread so that it can be read from any thread without locking */
+    protected volatile BoxItemSnapshot mSnapshot = BoxItemSnapshot.EMPTY;
     protected final Handler mHandler;
 
+    public static final String LOAD_MORE_ID = "com.box.androidsdk.browse.LOAD_MORE";
+    protected static final int LOAD_MORE_VIEW_TYPE = 1;
+    protected static final int DEFAULT_LOAD_MORE_PREFETCH_DISTANCE = 10;
+
     protected int BOX_ITEM_VIEW_TYPE = 0;
+    protected int mLoadMorePrefetchDistance = DEFAULT_LOAD_MORE_PREFETCH_DISTANCE;
     protected static final int REMOVE_LIMIT = 5;
     protected static final int INSERT_LIMIT = 10;
-    protected ReadWriteLock mLock = new ReentrantReadWriteLock();
     WeakReference<RecyclerView> mRecyclerViewRef;
 
     static final int DELAY = 50;
 
+    /** Folders larger than this are diffed without detecting moves, which is quadratic in the number of changes */
+    protected static final int MOVE_DETECTION_LIMIT = 1000;
+
+    // Static executor so that diffs of all adapters are computed one at a time off the ui thread
+    private static ThreadPoolExecutor mDiffExecutor;
+
+    /** Incremented by every call to updateTo so that only the latest diff is applied. ui thread only */
+    private int mUpdateGeneration;
+
+    /** Whether a diff computed by updateTo is yet to be applied. Other changes wait for it. ui thread only */
+    private boolean mIsUpdatePending;
+
+    /** Trace finished once the first item is bound. ui thread only */
+    protected BoxContentTrace mContentTrace;
+
 
     /**
      * Instantiates a new Box item adapter.
@@ -76,16 +101,29 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
     @Override
     public void onAttachedToRecyclerView(RecyclerView recyclerView) {
         mRecyclerViewRef = new WeakReference<RecyclerView>(recyclerView);
+        if (mController.getThumbnailManager() != null) {
+            mController.getThumbnailManager().trackScrolling(recyclerView);
+        }
         super.onAttachedToRecyclerView(recyclerView);
     }
 
+    @Override
+    public void onViewRecycled(BoxItemViewHolder holder) {
+        if (holder.getThumbView() != null && mController.getThumbnailManager() != null
+                && mController.getThumbnailManager().cancelThumbnail(holder.getThumbView())) {
+            // The thumbnail never arrived, make sure it is requested again if the same item is rebound.
+            holder.mItem = null;
+        }
+        super.onViewRecycled(holder);
+    }
+
     /**
      * A check to see if the recyclerview is busy and operations altering it should not be made.
      *
      * @return true if the recyclerview is currently computing its layout, false otherwise.
      */
     protected boolean isRecyclerViewComputing(){
-        if (mRecyclerViewRef == null && mRecyclerViewRef.get() != null){
+        if (mRecyclerViewRef != null && mRecyclerViewRef.get() != null){
             boolean isComputing = mRecyclerViewRef.get().isComputingLayout();
             return isComputing;
         }
@@ -103,14 +141,139 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
 
     @Override
     public BoxItemViewHolder onCreateViewHolder(ViewGroup viewGroup, int i) {
+        if (i == LOAD_MORE_VIEW_TYPE) {
+            View view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_load_more_item, viewGroup, false);
+            return new LoadMoreViewHolder(view);
+        }
         View view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_list_item, viewGroup, false);
         return new BoxItemViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(BoxItemViewHolder boxItemHolder, int i) {
-        BoxItem item = mItems.get(i);
+        BoxItem item = mSnapshot.get(i);
         boxItemHolder.bindItem(item);
+        if (mContentTrace != null && isContent(item)) {
+            finishContentTrace();
+        }
+        prefetchIfNecessary(i);
+    }
+
+    /**
+     * Sets the trace to finish once the first item is bound, see {@link #isContent(BoxItem)}.
+     *
+     * @param trace the trace, or null to not trace
+     */
+    public void setContentTrace(BoxContentTrace trace) {
+        mContentTrace = trace != null && !trace.isFinished() ? trace : null;
+    }
+
+    /**
+     * Whether binding an item shows content to the user, as opposed to e.g. a load more item.
+     *
+     * @param item the item
+     * @return true if the item is content
+     */
+    protected boolean isContent(BoxItem item) {
+        return !(item instanceof LoadMoreItem);
+    }
+
+    private void finishContentTrace() {
+        BoxContentTrace trace = mContentTrace;
+        mContentTrace = null;
+        if (trace.finish()) {
+            mController.getMetrics().recordLatency(BrowseMetrics.TIME_TO_FIRST_ROW, trace.getName(), trace.getTotalMillis());
+        }
+    }
+
+    /**
+     * Executes the request of a trailing load more item once the given position is within the prefetch
+     * distance of the end of the list, so that the next page is usually loaded before the user reaches it.
+     *
+     * @param position the position being bound
+     */
+    protected void prefetchIfNecessary(int position) {
+        BoxItemSnapshot snapshot = mSnapshot;
+        int lastPosition = snapshot.size() - 1;
+        if (lastPosition >= 0 && lastPosition - position <= mLoadMorePrefetchDistance) {
+            BoxItem lastItem = snapshot.get(lastPosition);
+            if (lastItem instanceof LoadMoreItem) {
+                loadMore((LoadMoreItem) lastItem);
+            }
+        }
+    }
+
+    /**
+     * Asks the listener to execute the request of the load more item unless it has already been executed or it
+     * failed and the user has not asked to retry it yet.
+     *
+     * @param item the load more item
+     */
+    void loadMore(LoadMoreItem item) {
+        if (item.getRequest() != null && item.markRequested()) {
+            mListener.onLoadMore(item.getRequest());
+        }
+    }
+
+    /**
+     * Sets how many items before the end of the list the next page should start loading.
+     *
+     * @param distance number of items
+     */
+    public void setLoadMorePrefetchDistance(int distance) {
+        mLoadMorePrefetchDistance = distance;
+    }
+
+    /**
+     * Add load more item.
+     * A list may be showing partial results at a time. In that case, it adds a LoadMore item.
+     * Once the user scrolls close to the LoadMore item, it makes the network request to fetch more items.
+     * Has no effect if the list already ends with a load more item for the same request.
+     *
+     * @param request the request which will be executed once the load more item is about to become visible
+     */
+    public void addLoadMoreItem(final BoxRequest request) {
+        if (isRecyclerViewComputing() || ! isOnUiThread() || mIsUpdatePending){
+            mHandler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    addLoadMoreItem(request);
+                }
+            }, DELAY);
+            return;
+        }
+        BoxItemSnapshot snapshot = mSnapshot;
+        int lastPosition = snapshot.size() - 1;
+        if (isLoadMoreItem(lastPosition) && ((LoadMoreItem) snapshot.get(lastPosition)).getRequest() == request) {
+            return;
+        }
+        ArrayList<BoxItem> list = new ArrayList<BoxItem>(1);
+        list.add(LoadMoreItem.create(request));
+        this.add(list);
+    }
+
+    /**
+     * Checks whether the item at the given position is a load more item.
+     *
+     * @param position an index position
+     * @return true if the position holds a load more item
+     */
+    public boolean isLoadMoreItem(int position) {
+        BoxItemSnapshot snapshot = mSnapshot;
+        return position >= 0 && position < snapshot.size() && snapshot.get(position) instanceof LoadMoreItem;
+    }
+
+    /**
+     * Shows the pending load more item in its error state, from which the user can tap to execute its request
+     * again. This should be called when the request of the load more item failed.
+     */
+    public void setLoadMoreError() {
+        BoxItemSnapshot snapshot = mSnapshot;
+        int lastPosition = snapshot.size() - 1;
+        if (isLoadMoreItem(lastPosition)) {
+            ((LoadMoreItem) snapshot.get(lastPosition)).markFailed();
+            notifyItemChanged(lastPosition);
+        }
     }
 
     /**
@@ -129,11 +292,14 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
 
     @Override
     public int getItemCount() {
-        return mItems != null ? mItems.size() : 0;
+        return mSnapshot.size();
     }
 
     @Override
     public int getItemViewType(int position) {
+        if (mSnapshot.get(position) instanceof LoadMoreItem) {
+            return LOAD_MORE_VIEW_TYPE;
+        }
         return BOX_ITEM_VIEW_TYPE;
     }
 
@@ -142,7 +308,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * thread so adapter may not reflect changes immediately.
      */
     public void removeAll() {
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
+        if (isRecyclerViewComputing() || ! isOnUiThread() || mIsUpdatePending){
             mHandler.postDelayed(new Runnable() {
                 @Override
                 public void run() {
@@ -151,14 +317,8 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             }, DELAY);
             return;
         }
-        Lock lock = mLock.writeLock();
-        lock.lock();
-        try {
-            mItems.clear();
-            notifyDataSetChanged();
-        } finally {
-            lock.unlock();
-        }
+        mSnapshot = BoxItemSnapshot.EMPTY;
+        notifyDataSetChanged();
     }
 
     /**
@@ -168,7 +328,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * @param ids list of ids to remove
      */
     public void remove(final List<String> ids){
-        if (isRecyclerViewComputing()  || ! isOnUiThread()){
+        if (isRecyclerViewComputing()  || ! isOnUiThread() || mIsUpdatePending){
             mHandler.postDelayed(new Runnable() {
                 @Override
                 public void run() {
@@ -177,68 +337,52 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             }, DELAY);
             return;
         }
-        mLock.readLock().lock();
-        try {
-            // check to see if any of the ids are applicable to the data set.
-            HashMap<String, Integer> itemsPositionMap = getPositionMap(mItems);
-            boolean foundInItems = false;
-            for (String id: ids){
-                if (itemsPositionMap.containsKey(id)){
-                    foundInItems = true;
-                    break;
-                }
-            }
-            if (!foundInItems){
-                // none of the ids are applicable for this data set no need to proceed.
-                return;
+        // check to see if any of the ids are applicable to the data set.
+        final BoxItemSnapshot snapshot = mSnapshot;
+        HashSet<String> idsRemoved = new HashSet<String>(ids.size());
+        final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(ids.size());
+        for (String id : ids) {
+            int index = snapshot.indexOf(id);
+            if (index >= 0 && idsRemoved.add(id)) {
+                indexesRemoved.add(index);
             }
-
-        } finally{
-            mLock.readLock().unlock();
         }
-        final Lock writeLock = mLock.writeLock();
-        writeLock.lock();
+        if (idsRemoved.isEmpty()) {
+            // none of the ids are applicable for this data set no need to proceed.
+            return;
+        }
 
+        Collections.sort(indexesRemoved);
+        int firstRemoved = snapshot.size() - indexesRemoved.size();
+        if (indexesRemoved.get(0) == firstRemoved) {
+            // Only trailing items, e.g. the load more item, are removed. The remaining items are shared.
+            mSnapshot = snapshot.truncate(firstRemoved);
+            notifyItemRangeRemoved(firstRemoved, indexesRemoved.size());
+            return;
+        }
 
-        HashSet<String> idsRemoved = new HashSet<String>(ids.size());
-        try {
-            final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(ids.size());
-            HashMap<String, Integer> mItemsPositionMap = getPositionMap(mItems);
-            for (String id : ids) {
-                Integer index = mItemsPositionMap.get(id);
-                if (index != null) {
-                    idsRemoved.add(id);
-                    indexesRemoved.add(index);
-                }
-            }
-            // because we are using an array list we don't want to do multiple removes (as this needs to create a new array and does array copies).
-            final ArrayList<BoxItem> listWithoutRemovedIds = new ArrayList<BoxItem>(mItems.size() - idsRemoved.size());
-            for (BoxItem item : mItems) {
-                if (!idsRemoved.contains(item.getId())) {
-                    listWithoutRemovedIds.add(item);
-                }
+        // build the new version in a single pass rather than removing from the array list one item at a time.
+        final ArrayList<BoxItem> listWithoutRemovedIds = new ArrayList<BoxItem>(snapshot.size() - idsRemoved.size());
+        for (BoxItem item : snapshot.getItems()) {
+            if (!idsRemoved.contains(item.getId())) {
+                listWithoutRemovedIds.add(item);
             }
+        }
 
-            boolean removedItems = false;
-            if (indexesRemoved.size() <= REMOVE_LIMIT) {
-                Collections.sort(indexesRemoved);
-                for (int i=indexesRemoved.size() -1; i >= 0; i--){
-                    notifyItemRemoved(indexesRemoved.get(i));
-                }
-                removedItems = true;
+        boolean removedItems = false;
+        if (indexesRemoved.size() <= REMOVE_LIMIT) {
+            for (int i=indexesRemoved.size() -1; i >= 0; i--){
+                notifyItemRemoved(indexesRemoved.get(i));
             }
-            // we need to alter the list after the remove.
-
-            mItems.clear();
-            mItems.addAll(listWithoutRemovedIds);
+            removedItems = true;
+        }
+        // we need to alter the list after the remove.
+        mSnapshot = new BoxItemSnapshot(listWithoutRemovedIds);
 
-            if (removedItems && mItems.size() > 0) {
-                notifyItemRangeChanged(0, mItems.size());
-            } else {
-                notifyDataSetChanged();
-            }
-        } finally {
-            writeLock.unlock();
+        if (removedItems && listWithoutRemovedIds.size() > 0) {
+            notifyItemRangeChanged(0, listWithoutRemovedIds.size());
+        } else {
+            notifyDataSetChanged();
         }
     }
 
@@ -258,70 +402,87 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             }, DELAY);
             return;
         }
-        final Lock writeLock = mLock.writeLock();
-        writeLock.lock();
-       try{
-            if (mItems.size() == 0){
-                // if going from completely empty to having something do not bother animating.
-                mItems.clear();
-                mItems.addAll(items);
-                notifyDataSetChanged();
-                return;
-            }
-
-            final HashMap<String, Integer> oldPositionMap = getPositionMap(mItems);
-            final ArrayList<Integer> newItemPositions = new ArrayList<Integer>();
-            boolean needsContentUpdate = false;
-            for (int i=0; i < items.size(); i++){
-                Integer index = oldPositionMap.remove(items.get(i).getId());
-                if (index == null){
-                    needsContentUpdate = true;
-                    newItemPositions.add(i);
-                } else if (!needsContentUpdate){
-
-                    if (index.equals(i)){
-                        if (!(mItems.get(i) == items.get(i))) {
-                            // check to see if the contents have changed for items with the same index.
-                            needsContentUpdate = !mItems.get(i).equals(items.get(i));
-                        }
-                    } else {
-                        needsContentUpdate = true;
-                    }
+        final int generation = ++mUpdateGeneration;
+        final BoxItemSnapshot oldSnapshot = mSnapshot;
+        final ArrayList<BoxItem> newItems = new ArrayList<BoxItem>(items);
+        if (oldSnapshot.size() == 0){
+            // if going from completely empty to having something do not bother animating.
+            mIsUpdatePending = false;
+            mSnapshot = new BoxItemSnapshot(newItems);
+            notifyDataSetChanged();
+            return;
+        }
+        mIsUpdatePending = true;
+        final BoxContentTrace trace = mContentTrace;
+
+        // Diffing large folders is too slow for the ui thread, compute it in the background and apply it afterwards.
+        // Snapshots are never modified so the old items can be read there without copying them.
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                long startedAt = SystemClock.elapsedRealtime();
+                final DiffUtil.DiffResult result;
+                BoxContentTrace.beginSection(BoxContentTrace.Phase.DIFF);
+                try {
+                    result = DiffUtil.calculateDiff(new BoxItemDiffCallback(oldSnapshot.getItems(), newItems),
+                            newItems.size() <= MOVE_DETECTION_LIMIT);
+                } finally {
+                    BoxContentTrace.endSection();
                 }
-            }
-            needsContentUpdate |= oldPositionMap.size() > 0 || newItemPositions.size() > 0 || items.size() == 0;
-            if (!needsContentUpdate ){
-                return;
-            } else {
-                if (oldPositionMap.size() == 0 && newItemPositions.size() > 0 && newItemPositions.size() <= INSERT_LIMIT){
-                    mItems.clear();
-                    mItems.addAll(items);
-                    for (Integer insertIndex : newItemPositions) {
-                        notifyItemInserted(insertIndex);
-                    }
-                    notifyItemRangeChanged(0, mItems.size());
-                } else if (oldPositionMap.size() > 0 && oldPositionMap.size() <= REMOVE_LIMIT){
-                    final ArrayList<Integer> indexesRemoved = new ArrayList<Integer>(oldPositionMap.size());
-                    indexesRemoved.addAll(oldPositionMap.values());
-                    Collections.sort(indexesRemoved);
-                    for (int i = indexesRemoved.size() - 1; i >= 0; i--) {
-                        notifyItemRemoved(indexesRemoved.get(i));
-                    }
-                    mItems.clear();
-                    mItems.addAll(items);
-                    notifyItemRangeChanged(0, mItems.size());
-              } else {
-                    // for everything else, mixed operations or oeprations beyond limits
-                    mItems.clear();
-                    mItems.addAll(items);
-                    notifyDataSetChanged();
+                if (trace != null) {
+                    trace.addPhase(BoxContentTrace.Phase.DIFF, SystemClock.elapsedRealtime() - startedAt);
                 }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyDiff(generation, oldSnapshot, newItems, result);
+                    }
+                });
             }
-       } finally {
-            writeLock.unlock();
-       }
+        });
+    }
 
+    /**
+     * Applies a diff computed by {@link #updateTo(ArrayList)} unless a newer update superseded it. If the items
+     * were changed by another operation meanwhile the diff is computed again against the current items.
+     *
+     * @param generation  the update the diff was computed for
+     * @param oldSnapshot the snapshot of the items the diff was computed from
+     * @param newItems    the items to show
+     * @param result      the diff
+     */
+    protected void applyDiff(final int generation, final BoxItemSnapshot oldSnapshot, final ArrayList<BoxItem> newItems, final DiffUtil.DiffResult result) {
+        if (generation != mUpdateGeneration) {
+            return;
+        }
+        if (isRecyclerViewComputing()) {
+            mHandler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    applyDiff(generation, oldSnapshot, newItems, result);
+                }
+            }, DELAY);
+            return;
+        }
+        if (oldSnapshot != mSnapshot) {
+            updateTo(newItems);
+            return;
+        }
+        mSnapshot = new BoxItemSnapshot(newItems);
+        mIsUpdatePending = false;
+        result.dispatchUpdatesTo(this);
+    }
 
+    /**
+     * Returns the executor used to compute the differences between the shown items and new items.
+     *
+     * @return the diff executor
+     */
+    protected static synchronized ThreadPoolExecutor getDiffExecutor() {
+        if (mDiffExecutor == null || mDiffExecutor.isShutdown()) {
+            mDiffExecutor = new ThreadPoolExecutor(1, 1, 3600, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+        return mDiffExecutor;
     }
 
     /**
@@ -335,7 +496,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             return;
         }
 
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
+        if (isRecyclerViewComputing() || ! isOnUiThread() || mIsUpdatePending){
             mHandler.postDelayed(new Runnable() {
                 @Override
                 public void run() {
@@ -345,14 +506,10 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             return;
         }
 
-        final Lock lock = mLock.writeLock();
-        lock.lock();
-        mItems.addAll(items);
-        try {
-            notifyDataSetChanged();
-        }finally{
-            lock.unlock();
-        }
+        BoxItemSnapshot snapshot = mSnapshot;
+        // Shares the items and the position index of the current snapshot, only the appended items are copied.
+        mSnapshot = snapshot.append(items);
+        notifyItemRangeInserted(snapshot.size(), items.size());
     }
 
     /**
@@ -363,7 +520,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      */
     public void update(final BoxItem item) {
 
-        if (isRecyclerViewComputing() || ! isOnUiThread()){
+        if (isRecyclerViewComputing() || ! isOnUiThread() || mIsUpdatePending){
             mHandler.postDelayed(new Runnable() {
                 @Override
                 public void run() {
@@ -372,21 +529,27 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
             }, DELAY);
             return;
         }
-        final Lock lock = mLock.writeLock();
-        lock.lock();
-        try{
-            for (int i=0; i < mItems.size(); i++){
-                if(mItems.get(i).getId().equals(item.getId())){
-                    final int index = i;
-                    mItems.set(index, item);
-                    notifyItemChanged(index);
-                    return;
-                }
-            }
+        BoxItemSnapshot snapshot = mSnapshot;
+        int index = snapshot.indexOf(item.getId());
+        if (index >= 0) {
+            // Only copies the chunk holding the item, the rest of the items and the position index are shared.
+            mSnapshot = snapshot.replace(index, item);
+            notifyItemChanged(index);
+        }
+    }
 
-            return;
-        } finally {
-            lock.unlock();
+    /**
+     * Notifies that the items with the given ids changed, e.g. because their thumbnails are ready.
+     *
+     * @param ids the box item ids
+     */
+    public void notifyItemsChanged(Collection<String> ids) {
+        BoxItemSnapshot snapshot = mSnapshot;
+        for (String id : ids) {
+            int position = snapshot.indexOf(id);
+            if (position >= 0) {
+                notifyItemChanged(position);
+            }
         }
     }
 
@@ -398,17 +561,7 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * @return the index of the box item id.
      */
     public int indexOf(String id) {
-        mLock.readLock().lock();
-        try {
-            for (int i = 0; i < mItems.size(); i++) {
-                if (mItems.get(i).getId().equals((id))) {
-                    return i;
-                }
-            }
-        } finally {
-            mLock.readLock().unlock();
-        }
-        return -1;
+        return mSnapshot.indexOf(id);
     }
 
     /**
@@ -416,14 +569,20 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      * update method is pending.
      *
      * @return A new list containing the items shown by this adapter.
+     * @see #getSnapshot()
      */
     public ArrayList<BoxItem> getItems() {
-        mLock.readLock().lock();
-        try {
-            return (ArrayList<BoxItem>) mItems.clone();
-        } finally{
-            mLock.readLock().unlock();
-        }
+        return new ArrayList<BoxItem>(mSnapshot.getItems());
+    }
+
+    /**
+     * Gets the items shown by this adapter without copying them. The snapshot never changes, later changes to the
+     * adapter publish a new snapshot. It may return stale data in case an update method is pending.
+     *
+     * @return the current snapshot of the items
+     */
+    public BoxItemSnapshot getSnapshot() {
+        return mSnapshot;
     }
 
     /**
@@ -434,13 +593,11 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
      */
     @Override
     public long getItemId(int position) {
-        mLock.readLock().lock();
+        BoxItemSnapshot snapshot = mSnapshot;
         try {
-            return Long.parseLong(mItems.get(position).getId());
+            return Long.parseLong(snapshot.get(position).getId());
         } catch (NumberFormatException e){
-            return mItems.get(position).getId().hashCode();
-        } finally {
-            mLock.readLock().unlock();
+            return snapshot.get(position).getId().hashCode();
         }
     }
 
@@ -690,6 +847,66 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
         }
     }
 
+    /**
+     * View holder for load more item.
+     * A list may be showing partial results at a time. In that case, it adds a LoadMore item
+     * Once LoadMore item becomes visible in the list, it makes the network request to fetch more results
+     * if this has not already been done by prefetching.
+     */
+    class LoadMoreViewHolder extends BoxItemViewHolder {
+        /**
+         * Instantiates a new Load more view holder.
+         *
+         * @param view the view to bind with this holder
+         */
+        public LoadMoreViewHolder(View view) {
+            super(view);
+        }
+
+        @Override
+        protected void onBindBoxItemViewHolder(BoxItemViewHolder holder, BoxItem itemToBind) {
+            LoadMoreItem item = (LoadMoreItem) itemToBind;
+            if (item.isFailed()) {
+                setError();
+            } else {
+                setLoading();
+                loadMore(item);
+            }
+        }
+
+        @Override
+        public void onClick(View v) {
+            if (mItem instanceof LoadMoreItem && ((LoadMoreItem) mItem).isFailed()) {
+                // Retry the page that failed.
+                ((LoadMoreItem) mItem).resetRequested();
+                onBindBoxItemViewHolder(this, mItem);
+            }
+        }
+
+        /**
+         * Shows that the next page is loading.
+         */
+        public void setLoading() {
+            mThumbView.setVisibility(View.GONE);
+            mProgressBar.setVisibility(View.VISIBLE);
+            mMetaDescription.setVisibility(View.GONE);
+            mNameView.setText(mContext.getResources().getString(R.string.boxsdk_Please_wait));
+        }
+
+        /**
+         * Shows that the next page could not be loaded and can be retried by tapping the item.
+         */
+        public void setError() {
+            mThumbView.setImageResource(R.drawable.ic_box_browsesdk_refresh_grey_36dp);
+            mThumbView.setVisibility(View.VISIBLE);
+            mProgressBar.setVisibility(View.GONE);
+            mMetaDescription.setVisibility(View.VISIBLE);
+            mNameView.setText(mContext.getResources().getString(R.string.box_browsesdk_error_retrieving_items));
+            mMetaDescription.setText(mContext.getResources().getString(R.string.box_browsesdk_tap_to_retry));
+        }
+
+    }
+
     private class BoxItemClickListener implements View.OnClickListener {
 
         protected BoxItem mItem;
@@ -741,6 +958,14 @@ public class BoxItemAdapter extends RecyclerView.Adapter<BoxItemAdapter.BoxItemV
          */
         BoxItemFilter getItemFilter();
 
+        /**
+         * Executes the request for the next page of items, called once the user scrolled close to the end of the
+         * list. The response should be handled like the response of the previous page.
+         *
+         * @param request the request of the load more item
+         */
+        void onLoadMore(BoxRequest request);
+
     }
 
 
@@ -0,0 +1,71 @@
+package com.box.androidsdk.browse.adapters;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.List;
+
+/**
+ * Compares two lists of items by id, and their contents by etag and sha1 when the server provided them.
+ */
+class BoxItemDiffCallback extends DiffUtil.Callback {
+
+    private final List<BoxItem> mOldItems;
+    private final List<BoxItem> mNewItems;
+
+    /**
+     * Instantiates a new Box item diff callback.
+     *
+     * @param oldItems the items currently shown
+     * @param newItems the items to show
+     */
+    BoxItemDiffCallback(List<BoxItem> oldItems, List<BoxItem> newItems) {
+        mOldItems = oldItems;
+        mNewItems = newItems;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return mOldItems.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return mNewItems.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        BoxItem oldItem = mOldItems.get(oldItemPosition);
+        BoxItem newItem = mNewItems.get(newItemPosition);
+        return oldItem.getClass() == newItem.getClass()
+                && oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        BoxItem oldItem = mOldItems.get(oldItemPosition);
+        BoxItem newItem = mNewItems.get(newItemPosition);
+        if (oldItem == newItem) {
+            return true;
+        }
+        if (oldItem instanceof LoadMoreItem) {
+            // Holds a different request for every page.
+            return false;
+        }
+        if (oldItem.getEtag() == null || newItem.getEtag() == null) {
+            return oldItem.equals(newItem);
+        }
+        if (!oldItem.getEtag().equals(newItem.getEtag())) {
+            return false;
+        }
+        if (oldItem instanceof BoxFile) {
+            String oldSha1 = ((BoxFile) oldItem).getSha1();
+            String newSha1 = ((BoxFile) newItem).getSha1();
+            return oldSha1 == null ? newSha1 == null : oldSha1.equals(newSha1);
+        }
+        return true;
+    }
+}
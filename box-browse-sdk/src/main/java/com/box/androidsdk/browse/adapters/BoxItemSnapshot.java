@@ -0,0 +1,277 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable version of the items shown by a {@link BoxItemAdapter}. The adapter publishes a new snapshot whenever its
+ * items change, so a snapshot can be read from any thread without locking and without copying the items.
+ *
+ * Items are stored in chunks of {@link #CHUNK_SIZE} that are never modified once published. A snapshot derived from
+ * another one, by replacing an item or appending items, shares every chunk it did not change, so it costs time in
+ * proportion to the change rather than to the size of the folder. Appending and removing trailing items, which is how
+ * pages and load more items come and go, also update the position index of the snapshot they were derived from
+ * instead of building a new one.
+ */
+public final class BoxItemSnapshot {
+
+    /** Number of items stored per chunk. */
+    static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = 6;
+
+    /** Snapshot of an adapter without items. */
+    public static final BoxItemSnapshot EMPTY = new BoxItemSnapshot(new ArrayList<BoxItem>(0));
+
+    private final BoxItem[][] mChunks;
+    private final int mSize;
+    private final List<BoxItem> mItems = new ItemList();
+
+    // Positions of the item ids, built on the first lookup and shared with the snapshots derived from this one
+    private volatile PositionIndex mPositions;
+
+    /**
+     * Instantiates a new Box item snapshot with a copy of the items.
+     *
+     * @param items the items
+     */
+    BoxItemSnapshot(List<BoxItem> items) {
+        mSize = items.size();
+        mChunks = new BoxItem[getChunkCount(mSize)][];
+        for (int i = 0; i < mChunks.length; i++) {
+            mChunks[i] = new BoxItem[CHUNK_SIZE];
+        }
+        for (int i = 0; i < mSize; i++) {
+            mChunks[i >> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)] = items.get(i);
+        }
+    }
+
+    private BoxItemSnapshot(BoxItem[][] chunks, int size, PositionIndex positions) {
+        mChunks = chunks;
+        mSize = size;
+        mPositions = positions;
+    }
+
+    /**
+     * Gets the item at a position.
+     *
+     * @param position an index position
+     * @return the item
+     */
+    public BoxItem get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + mSize + " items");
+        }
+        return mChunks[position >> CHUNK_SHIFT][position & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Gets the items.
+     *
+     * @return an unmodifiable list of the items
+     */
+    public List<BoxItem> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Gets the position of an item.
+     *
+     * @param id the box item id
+     * @return the index of the box item id, or -1 if it is not part of the snapshot
+     */
+    public int indexOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer index = getPositions().mPositions.get(id);
+        // The index may be shared with snapshots that have more or other trailing items.
+        return index != null && index < mSize && id.equals(get(index).getId()) ? index : -1;
+    }
+
+    /**
+     * Whether an item is part of the snapshot.
+     *
+     * @param id the box item id
+     * @return true if the snapshot contains an item with the id
+     */
+    public boolean contains(String id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Creates a snapshot with the item at a position replaced. Only the chunk holding the position is copied.
+     *
+     * @param position an index position
+     * @param item     the new item
+     * @return the new snapshot
+     */
+    BoxItemSnapshot replace(int position, BoxItem item) {
+        BoxItem previous = get(position);
+        BoxItem[][] chunks = mChunks.clone();
+        int chunk = position >> CHUNK_SHIFT;
+        chunks[chunk] = chunks[chunk].clone();
+        chunks[chunk][position & (CHUNK_SIZE - 1)] = item;
+        // Replacing an item by one with the same id keeps every position, so the new snapshot shares the index.
+        boolean isSameId = previous.getId() != null && previous.getId().equals(item.getId());
+        return new BoxItemSnapshot(chunks, mSize, isSameId ? mPositions : null);
+    }
+
+    /**
+     * Creates a snapshot with items appended. Only the last chunk of this snapshot is copied.
+     *
+     * @param items the items to append
+     * @return the new snapshot
+     */
+    BoxItemSnapshot append(List<? extends BoxItem> items) {
+        int size = mSize + items.size();
+        BoxItem[][] chunks = Arrays.copyOf(mChunks, getChunkCount(size));
+        int lastChunk = mSize >> CHUNK_SHIFT;
+        if (lastChunk < chunks.length && lastChunk < mChunks.length) {
+            // Partly filled, later snapshots must not write into a chunk this snapshot shares.
+            chunks[lastChunk] = mChunks[lastChunk].clone();
+        }
+        for (int i = lastChunk + 1; i < chunks.length; i++) {
+            // Chunks past the end of this snapshot may still be shared with the snapshot it was truncated from.
+            chunks[i] = new BoxItem[CHUNK_SIZE];
+        }
+        for (int i = 0; i < items.size(); i++) {
+            int position = mSize + i;
+            chunks[position >> CHUNK_SHIFT][position & (CHUNK_SIZE - 1)] = items.get(i);
+        }
+        PositionIndex positions = mPositions;
+        if (positions != null && !positions.extend(mSize, items)) {
+            // Another snapshot was appended to this one before, its positions are not ours.
+            positions = null;
+        }
+        return new BoxItemSnapshot(chunks, size, positions);
+    }
+
+    /**
+     * Creates a snapshot without the trailing items, e.g. without a load more item. No items are copied. The
+     * removed items are also removed from the shared position index, so this snapshot, which is replaced by the new
+     * one, no longer finds them.
+     *
+     * @param size the number of items to keep
+     * @return the new snapshot
+     */
+    BoxItemSnapshot truncate(int size) {
+        PositionIndex positions = mPositions;
+        if (positions != null && !positions.truncate(mSize, getItems().subList(size, mSize), size)) {
+            positions = null;
+        }
+        return new BoxItemSnapshot(mChunks, size, positions);
+    }
+
+    /**
+     * Gets the positions of the item ids. Built once, then extended by the snapshots appending to this one, so
+     * looking up an item costs constant time however large the folder is.
+     *
+     * @return the positions
+     */
+    private PositionIndex getPositions() {
+        PositionIndex positions = mPositions;
+        if (positions == null) {
+            // Readers may build the index concurrently, they compute the same positions from the same items.
+            positions = new PositionIndex(mSize);
+            positions.extend(0, mItems);
+            mPositions = positions;
+        }
+        return positions;
+    }
+
+    private static int getChunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+    }
+
+    /**
+     * Positions of the item ids of a snapshot and of the snapshots derived from it. Appending snapshots add the
+     * positions of their items and truncating snapshots remove them, snapshots check the item at a position before
+     * returning it.
+     */
+    private static final class PositionIndex {
+
+        final ConcurrentHashMap<String, Integer> mPositions;
+        // Number of items indexed, only the snapshot of this size may add the items it appends
+        private int mIndexedSize;
+
+        PositionIndex(int capacity) {
+            mPositions = new ConcurrentHashMap<String, Integer>(Math.max(16, capacity * 4 / 3));
+        }
+
+        /**
+         * Adds the positions of appended items.
+         *
+         * @param fromSize the number of items before the appended ones
+         * @param items    the appended items
+         * @return true if the items were added, false if a different snapshot of the same size appended to the index
+         */
+        synchronized boolean extend(int fromSize, List<? extends BoxItem> items) {
+            if (fromSize != mIndexedSize) {
+                return false;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                String id = items.get(i).getId();
+                if (id != null) {
+                    // The first of several items with the same id keeps its position.
+                    mPositions.putIfAbsent(id, fromSize + i);
+                }
+            }
+            mIndexedSize = fromSize + items.size();
+            return true;
+        }
+
+        /**
+         * Removes the positions of trailing items.
+         *
+         * @param fromSize the number of items including the trailing ones
+         * @param items    the trailing items
+         * @param toSize   the number of items without the trailing ones
+         * @return true if the items were removed, false if a different snapshot appended to the index
+         */
+        synchronized boolean truncate(int fromSize, List<? extends BoxItem> items, int toSize) {
+            if (fromSize != mIndexedSize) {
+                return false;
+            }
+            for (BoxItem item : items) {
+                String id = item.getId();
+                Integer position = id != null ? mPositions.get(id) : null;
+                if (position != null && position >= toSize) {
+                    mPositions.remove(id);
+                }
+            }
+            mIndexedSize = toSize;
+            return true;
+        }
+    }
+
+    /**
+     * Read only list view of the items.
+     */
+    private final class ItemList extends AbstractList<BoxItem> implements RandomAccess {
+
+        @Override
+        public BoxItem get(int index) {
+            return BoxItemSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+    }
+}
@@ -55,6 +55,9 @@ public class BoxMediaItemAdapter extends BoxItemAdapter {
 
     @Override
     public BoxItemViewHolder onCreateViewHolder(ViewGroup viewGroup, int i) {
+        if (i == LOAD_MORE_VIEW_TYPE) {
+            return super.onCreateViewHolder(viewGroup, i);
+        }
         View view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_media_item, viewGroup, false);
         return new BoxMediaItemViewHolder(view);
     }
@@ -13,18 +13,14 @@ import com.box.androidsdk.browse.service.BrowseController;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.requests.BoxRequestsSearch;
-import com.eclipsesource.json.JsonObject;
 
 import java.io.File;
-import java.util.ArrayList;
 
 /**
  * Adapter that is used to display search results
  */
 public class BoxSearchAdapter extends BoxItemAdapter {
 
-    public static final String LOAD_MORE_ID = "com.box.androidsdk.browse.LOAD_MORE";
-    protected static final int LOAD_MORE_VIEW_TYPE = 1;
     protected static final int RESULTS_HEADER_VIEW_TYPE = 2;
 
     /**
@@ -46,8 +42,7 @@ public class BoxSearchAdapter extends BoxItemAdapter {
                 view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_recent_searches_header, viewGroup, false);
                 return new ResultsHeaderViewHolder(view);
             case LOAD_MORE_VIEW_TYPE:
-                view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_load_more_item, viewGroup, false);
-                return new LoadMoreViewHolder(view);
+                return super.onCreateViewHolder(viewGroup, viewType);
             default:
                 view = LayoutInflater.from(viewGroup.getContext()).inflate(R.layout.box_browsesdk_list_item, viewGroup, false);
                 return new SearchViewHolder(view);
@@ -56,30 +51,29 @@ public class BoxSearchAdapter extends BoxItemAdapter {
 
     @Override
     public int getItemViewType(int position) {
-        BoxItem item = mItems.get(position);
+        BoxItem item = mSnapshot.get(position);
 
         if (item instanceof ResultsHeader) {
             return RESULTS_HEADER_VIEW_TYPE;
         }
 
-        if (item instanceof LoadMoreItem) {
-            return LOAD_MORE_VIEW_TYPE;
-        }
-
         return super.getItemViewType(position);
     }
 
+    @Override
+    protected boolean isContent(BoxItem item) {
+        return !(item instanceof ResultsHeader) && super.isContent(item);
+    }
+
     /**
      * Add load more item.
      * Search results may be showing partial results at a time. In that case, it adds a LoadMore item
-     * Once LoadMore item becomes visible in the list, it makes the network request to fetch more results
+     * Once the user scrolls close to the LoadMore item, it makes the network request to fetch more results
      *
-     * @param searchReq the search req which will be executed once the load more item is visible
+     * @param searchReq the search req which will be executed once the load more item is about to become visible
      */
     public void addLoadMoreItem(BoxRequestsSearch.Search searchReq) {
-        ArrayList<BoxItem> list = new ArrayList<BoxItem>(1);
-        list.add(LoadMoreItem.create(searchReq));
-        this.add(list);
+        super.addLoadMoreItem(searchReq);
     }
 
     /**
@@ -123,41 +117,6 @@ public class BoxSearchAdapter extends BoxItemAdapter {
         }
     }
 
-    /**
-     * View holder for load more item in search results
-     * Search results may be showing partial results at a time. In that case, it adds a LoadMore item
-     * Once LoadMore item becomes visible in the list, it makes the network request to fetch more results
-     */
-    class LoadMoreViewHolder extends BoxItemViewHolder {
-        /**
-         * Instantiates a new Load more view holder.
-         *
-         * @param view the view to bind with this holder
-         */
-        public LoadMoreViewHolder(View view) {
-            super(view);
-        }
-
-        @Override
-        protected void onBindBoxItemViewHolder(BoxItemViewHolder holder, BoxItem itemToBind) {
-            mController.execute(((LoadMoreItem) itemToBind).getRequest());
-        }
-
-        /**
-         * Sets error.
-         */
-        public void setError() {
-            // TODO: Should set error state
-            mThumbView.setImageResource(R.drawable.ic_box_browsesdk_refresh_grey_36dp);
-            mThumbView.setVisibility(View.VISIBLE);
-            mProgressBar.setVisibility(View.GONE);
-            mMetaDescription.setVisibility(View.VISIBLE);
-            mNameView.setText(mContext.getResources().getString(R.string.box_browsesdk_error_retrieving_items));
-            mMetaDescription.setText(mContext.getResources().getString(R.string.box_browsesdk_tap_to_retry));
-        }
-
-    }
-
     /**
      * View holder for search results header view.
      * To ensure that header scrolls with the list, it is added as an item on the top of the list
@@ -181,45 +140,3 @@ public class BoxSearchAdapter extends BoxItemAdapter {
         }
     }
 }
-
-/**
- * Fake item used to notify that the user has scrolled to the bottom and more results should be fetched.
- * Package protected as Search is currently the only fragment that requires incremental loading since
- * there can potentially be a large set of results
- */
-class LoadMoreItem extends BoxItem {
-
-    private BoxRequestsSearch.Search mRequest;
-
-    private LoadMoreItem(JsonObject obj) {
-        super(obj);
-    }
-
-    /**
-     * Create load more item.
-     *
-     * @param request the request
-     * @return the load more item
-     */
-    static LoadMoreItem create(BoxRequestsSearch.Search request) {
-        JsonObject object = new JsonObject();
-        object.add(BoxItem.FIELD_ID, BoxSearchAdapter.LOAD_MORE_ID);
-        LoadMoreItem ret = new LoadMoreItem(object);
-        ret.setRequest(request);
-        return ret;
-    }
-
-    /**
-     * Gets the request which should be executed to fetch more search results from the server
-     *
-     * @return the request
-     */
-    public BoxRequestsSearch.Search getRequest() {
-        return mRequest;
-    }
-
-    private void setRequest(BoxRequestsSearch.Search request) {
-        mRequest = request;
-    }
-}
-
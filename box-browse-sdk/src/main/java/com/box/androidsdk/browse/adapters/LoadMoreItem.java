@@ -0,0 +1,84 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.eclipsesource.json.JsonObject;
+
+/**
+ * Fake item used to notify that the user has scrolled close to the bottom and more results should be fetched.
+ * Used by search and by folders that are loaded a page at a time since both can potentially be a large set of items.
+ */
+class LoadMoreItem extends BoxItem {
+
+    private BoxRequest mRequest;
+    private boolean mIsRequested;
+    private boolean mIsFailed;
+
+    private LoadMoreItem(JsonObject obj) {
+        super(obj);
+    }
+
+    /**
+     * Create load more item.
+     *
+     * @param request the request
+     * @return the load more item
+     */
+    static LoadMoreItem create(BoxRequest request) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, BoxItemAdapter.LOAD_MORE_ID);
+        LoadMoreItem ret = new LoadMoreItem(object);
+        ret.setRequest(request);
+        return ret;
+    }
+
+    /**
+     * Gets the request which should be executed to fetch more items from the server
+     *
+     * @return the request
+     */
+    public BoxRequest getRequest() {
+        return mRequest;
+    }
+
+    private void setRequest(BoxRequest request) {
+        mRequest = request;
+    }
+
+    /**
+     * Marks the request of this item as executed.
+     *
+     * @return true if the request had not been executed yet, false otherwise.
+     */
+    synchronized boolean markRequested() {
+        if (mIsRequested) {
+            return false;
+        }
+        mIsRequested = true;
+        return true;
+    }
+
+    /**
+     * Allows the request of this item to be executed again, for instance when the user retries it after it failed.
+     */
+    synchronized void resetRequested() {
+        mIsRequested = false;
+        mIsFailed = false;
+    }
+
+    /**
+     * Marks the request of this item as failed. It is not executed again until {@link #resetRequested()} is called.
+     */
+    synchronized void markFailed() {
+        mIsFailed = true;
+    }
+
+    /**
+     * Whether the request of this item failed and has not been retried yet.
+     *
+     * @return true if the request failed
+     */
+    synchronized boolean isFailed() {
+        return mIsFailed;
+    }
+}
@@ -1,15 +1,11 @@
 package com.box.androidsdk.browse.fragments;
 
-import android.content.IntentFilter;
 import android.os.Bundle;
-import android.view.View;
 
-import com.box.androidsdk.browse.service.BoxResponseIntent;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxIterator;
 import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxSession;
-import com.box.androidsdk.content.requests.BoxRequestsFolder;
 import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
@@ -25,13 +21,6 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
     public static final String ARG_FOLDER = "BoxBrowseFolderFragment.Folder";
     protected BoxFolder mFolder = null;
 
-    @Override
-    protected IntentFilter getIntentFilter() {
-        IntentFilter filter = super.getIntentFilter();
-        filter.addAction(BoxRequestsFolder.GetFolderWithAllItems.class.getName());
-        return filter;
-    }
-
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -46,25 +35,9 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
         }
     }
 
-    @Override
-    protected void handleResponse(BoxResponseIntent intent) {
-        super.handleResponse(intent);
-        if (!intent.isSuccess()) {
-            checkConnectivity();
-            return;
-        }
-        if (intent.getAction().equals(BoxRequestsFolder.GetFolderWithAllItems.class.getName())) {
-            onFolderFetched((BoxFolder) intent.getResult());
-            if (mSwipeRefresh != null) {
-                mSwipeRefresh.setRefreshing(false);
-            }
-        }
-    }
-
     @Override
     protected void loadItems() {
-        mProgress.setVisibility(View.VISIBLE);
-        getController().execute(getController().getFolderWithAllItems(mFolder.getId()));
+        loadFolderItems();
     }
 
     /**
@@ -72,6 +45,7 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
      *
      * @return the current folder this fragment is meant to display.
      */
+    @Override
     public BoxFolder getFolder() {
         return mFolder;
     }
@@ -87,11 +61,15 @@ public class BoxBrowseFolderFragment extends BoxBrowseFragment {
      *
      * @param folder that has been fetched
      */
+    @Override
     protected void onFolderFetched(BoxFolder folder) {
         if (folder != null && mFolder.getId().equals(folder.getId())) {
             BoxIteratorItems items = folder.getItemCollection();
             if (items != null && items.getEntries() != null && items.fullSize() != null && (items.size() > 0 || items.fullSize() == 0)) {
+                // The whole listing has no next page.
+                mNextPageRequest = null;
                 updateItems(folder.getItemCollection().getEntries());
+                prefetchChildFolders(mItems);
             }
             mFolder = createFolderWithoutItems(folder);
             notifyUpdateListeners();
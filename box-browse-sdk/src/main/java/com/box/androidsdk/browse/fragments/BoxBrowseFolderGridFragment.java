@@ -1,6 +1,5 @@
 package com.box.androidsdk.browse.fragments;
 
-import android.content.IntentFilter;
 import android.content.res.Configuration;
 import android.graphics.Rect;
 import android.os.Bundle;
@@ -14,14 +13,12 @@ import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.adapters.BoxItemAdapter;
 import com.box.androidsdk.browse.adapters.BoxMediaItemAdapter;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
-import com.box.androidsdk.browse.service.BoxResponseIntent;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxIterator;
 import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxSession;
-import com.box.androidsdk.content.requests.BoxRequestsFolder;
 import com.box.androidsdk.content.utils.SdkUtils;
 import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
@@ -42,7 +39,15 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
 
     protected void initRecyclerView(RecyclerView view){
         int numColumns = (getResources().getConfiguration().orientation == Configuration.ORIENTATION_LANDSCAPE) ? 5 : 3;
-        view.setLayoutManager(new GridLayoutManager(getActivity(),numColumns));
+        final GridLayoutManager layoutManager = new GridLayoutManager(getActivity(), numColumns);
+        layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                // The load more item of a paged folder spans the whole row.
+                return mAdapter != null && mAdapter.isLoadMoreItem(position) ? layoutManager.getSpanCount() : 1;
+            }
+        });
+        view.setLayoutManager(layoutManager);
         view.addItemDecoration(new SpacesItemDecoration(8));
         if (view.getItemAnimator() instanceof SimpleItemAnimator) {
             ((SimpleItemAnimator) view.getItemAnimator()).setSupportsChangeAnimations(false);
@@ -82,13 +87,6 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
 
 
 
-    @Override
-    protected IntentFilter getIntentFilter() {
-        IntentFilter filter = super.getIntentFilter();
-        filter.addAction(BoxRequestsFolder.GetFolderWithAllItems.class.getName());
-        return filter;
-    }
-
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -103,25 +101,9 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
         }
     }
 
-    @Override
-    protected void handleResponse(BoxResponseIntent intent) {
-        super.handleResponse(intent);
-        if (!intent.isSuccess()) {
-            checkConnectivity();
-            return;
-        }
-        if (intent.getAction().equals(BoxRequestsFolder.GetFolderWithAllItems.class.getName())) {
-            onFolderFetched((BoxFolder) intent.getResult());
-            if (mSwipeRefresh != null) {
-                mSwipeRefresh.setRefreshing(false);
-            }
-        }
-    }
-
     @Override
     protected void loadItems() {
-        mProgress.setVisibility(View.VISIBLE);
-        getController().execute(getController().getFolderWithAllItems(mFolder.getId()));
+        loadFolderItems();
     }
 
     /**
@@ -129,6 +111,7 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
      *
      * @return the current folder this fragment is meant to display.
      */
+    @Override
     public BoxFolder getFolder() {
         return mFolder;
     }
@@ -144,11 +127,15 @@ public class BoxBrowseFolderGridFragment extends BoxBrowseFragment {
      *
      * @param folder that has been fetched
      */
+    @Override
     protected void onFolderFetched(BoxFolder folder) {
         if (folder != null && mFolder.getId().equals(folder.getId())) {
             BoxIteratorItems items = folder.getItemCollection();
             if (items != null && items.getEntries() != null && items.fullSize() != null && (items.size() > 0 || items.fullSize() == 0)) {
+                // The whole listing has no next page.
+                mNextPageRequest = null;
                 updateItems(folder.getItemCollection().getEntries());
+                prefetchChildFolders(mItems);
             }
             mFolder = createFolderWithoutItems(folder);
             notifyUpdateListeners();
@@ -11,9 +11,9 @@ import android.graphics.drawable.Drawable;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.os.Bundle;
+import android.os.SystemClock;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -30,18 +30,34 @@ import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.adapters.BoxItemAdapter;
 import com.box.androidsdk.browse.filters.BoxItemFilter;
 import com.box.androidsdk.browse.service.BoxBrowseController;
-import com.box.androidsdk.browse.service.BoxResponseIntent;
+import com.box.androidsdk.browse.service.BoxContentTrace;
+import com.box.androidsdk.browse.service.BoxFolderPrefetcher;
+import com.box.androidsdk.browse.service.BoxFolderSyncEngine;
+import com.box.androidsdk.browse.service.BoxResponseDispatcher;
 import com.box.androidsdk.browse.service.BrowseController;
-import com.box.androidsdk.browse.service.CompletionListener;
+import com.box.androidsdk.browse.service.RequestHandle;
+import com.box.androidsdk.browse.service.RequestScheduler;
+import com.box.androidsdk.browse.uidata.FrameBatcher;
+import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxRequest;
 import com.box.androidsdk.content.requests.BoxRequestsFile;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
 import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -61,7 +77,41 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     protected static final String EXTRA_SECONDARY_ACTION_LISTENER = "com.box.androidsdk.browse.SECONDARYACTIONLISTENER";
     protected static final String EXTRA_MULTI_SELECT_HANDLER = "com.box.androidsdk.browse.MULTI_SELECT_HANDLER";
 
+    /**
+     * The order folder listings are fetched in: folders, then files, then bookmarks, each by name ignoring case.
+     */
+    public static final Comparator<BoxItem> FOLDER_ORDER = new Comparator<BoxItem>() {
+        @Override
+        public int compare(BoxItem lhs, BoxItem rhs) {
+            int result = getTypeRank(lhs) - getTypeRank(rhs);
+            if (result != 0) {
+                return result;
+            }
+            String lhsName = lhs.getName() != null ? lhs.getName() : "";
+            String rhsName = rhs.getName() != null ? rhs.getName() : "";
+            return String.CASE_INSENSITIVE_ORDER.compare(lhsName, rhsName);
+        }
+
+        private int getTypeRank(BoxItem item) {
+            if (item instanceof BoxFolder) {
+                return 0;
+            } else if (item instanceof BoxFile) {
+                return 1;
+            } else if (item instanceof BoxBookmark) {
+                return 2;
+            }
+            return 3;
+        }
+    };
+
     protected ArrayList<BoxItem> mItems;
+    // Request for the page after the items shown, shown as a load more item after them
+    protected BoxRequest mNextPageRequest;
+    // Number of items per page when the folder shown is loaded incrementally, 0 to load all items in one request.
+    protected int mPageSize;
+    // Request for the page of the folder shown that is loading or is loaded next
+    protected BoxRequestsFolder.GetFolderItems mPageRequest;
+    protected int mPageOffset;
 
     protected OnItemClickListener mListener;
     protected OnSecondaryActionListener mSecondaryActionListener;
@@ -75,13 +125,41 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     private boolean mWaitingForConnection;
     private boolean mIsConnected;
     protected BrowseController mController;
+    // Requests made by this fragment that have not completed yet
+    protected ArrayList<RequestHandle> mPendingRequests = new ArrayList<RequestHandle>();
+    private boolean mReloadOnStart;
+    protected BoxFolderPrefetcher mFolderPrefetcher;
+    protected BoxContentTrace mContentTrace;
     private Set<OnUpdateListener> mUpdateListeners = new HashSet<>();
-    protected BroadcastReceiver mBroadcastReceiver = new BroadcastReceiver() {
+    // Ids of items whose thumbnails were downloaded since the last frame
+    private HashSet<String> mChangedThumbnailIds = new HashSet<String>();
+    private final Runnable mNotifyThumbnailsChanged = new Runnable() {
         @Override
-        public void onReceive(Context context, Intent intent) {
-            if (intent instanceof BoxResponseIntent) {
-                handleResponse((BoxResponseIntent) intent);
+        public void run() {
+            if (mAdapter != null && !mChangedThumbnailIds.isEmpty()) {
+                mAdapter.notifyItemsChanged(mChangedThumbnailIds);
             }
+            mChangedThumbnailIds.clear();
+        }
+    };
+    // Delivers the responses of the requests this fragment made through its controller, and only those
+    protected BoxResponseDispatcher mResponseDispatcher = new BoxResponseDispatcher();
+    protected BoxResponseDispatcher.Subscriber mResponseSubscriber = new BoxResponseDispatcher.Subscriber() {
+        @Override
+        public void onResponse(BoxResponse response) {
+            handleResponse(response);
+        }
+    };
+    // Applies the changes of the folder shown reported by the sync engine while the fragment is started
+    protected BoxFolderSyncEngine.FolderListener mSyncListener = new BoxFolderSyncEngine.FolderListener() {
+        @Override
+        public void onFolderChanged(String folderId, List<BoxItem> upserts, List<String> removedIds) {
+            applyItemChanges(upserts, removedIds);
+        }
+
+        @Override
+        public void onResyncRequired(String folderId) {
+            loadItems();
         }
     };
     protected BroadcastReceiver mConnectivityReceiver = new BroadcastReceiver() {
@@ -100,7 +178,6 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     };
     private View mRootView;
     private BoxItemFilter mBoxItemFilter;
-    private LocalBroadcastManager mLocalBroadcastmanager;
 
     /**
      * Instantiates a new Box browse fragment.
@@ -119,6 +196,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
                 throw new IllegalArgumentException("A valid session or user id must be provided");
             }
             mBoxItemFilter = (BoxItemFilter) getArguments().getSerializable(ARG_BOX_ITEM_FILTER);
+            mPageSize = getArguments().getInt(ARG_LIMIT, 0);
         }
         if (savedInstanceState != null) {
             if (savedInstanceState.containsKey(EXTRA_SECONDARY_ACTION_LISTENER)) {
@@ -141,6 +219,11 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     @Override
     public void onStop() {
         cleanupBoxReceivers();
+        // Results would not be received while stopped, so stop spending network and cpu on them.
+        mReloadOnStart = cancelPendingRequests();
+        if (mFolderPrefetcher != null) {
+            mFolderPrefetcher.cancel();
+        }
         super.onStop();
     }
 
@@ -153,21 +236,126 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
      */
     protected void initBoxReceivers(){
         getActivity().registerReceiver(mConnectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
-        getLocalBroadcastManager().registerReceiver(mBroadcastReceiver, getIntentFilter());
+        mResponseDispatcher.setSubscriber(mResponseSubscriber);
         if (mItems == null) {
             mProgress.setVisibility(View.VISIBLE);
+            if (mContentTrace == null || mContentTrace.isFinished()) {
+                startContentTrace(SystemClock.elapsedRealtime());
+            }
             loadItems();
         } else {
-            // this call must be made after registering the receiver in order to handle very fast responses.
+            // this call must be made after subscribing in order to handle very fast responses.
             updateItems(mItems);
+            if (mReloadOnStart) {
+                loadItems();
+            }
+        }
+        mReloadOnStart = false;
+        BoxFolderSyncEngine syncEngine = getSyncEngine();
+        if (syncEngine != null && getFolder() != null) {
+            syncEngine.register(getFolder().getId(), mSyncListener);
+        }
+    }
+
+    /**
+     * Starts tracing the time until this fragment shows its first item, see {@link BoxContentTrace}. Called when the
+     * fragment starts loading its items, or before that by the activity, e.g. when the user clicked the folder.
+     *
+     * @param startedAt the {@link SystemClock#elapsedRealtime()} the user opened the folder or started the search at
+     */
+    public void startContentTrace(long startedAt) {
+        mContentTrace = new BoxContentTrace(getClass().getSimpleName(), startedAt);
+        if (mAdapter != null) {
+            mAdapter.setContentTrace(mContentTrace);
+        }
+    }
+
+    /**
+     * Executes a request through the controller and keeps its handle so that it is cancelled when the fragment stops.
+     *
+     * @param request the request
+     * @return the handle of the request, or null if there was no request to execute
+     */
+    protected RequestHandle executeRequest(BoxRequest request) {
+        return executeRequest(request, null);
+    }
+
+    /**
+     * Executes a request through the controller in the given lane and keeps its handle so that it is cancelled when
+     * the fragment stops.
+     *
+     * @param request the request
+     * @param lane    the lane to execute the request in, or null to let the controller pick it
+     * @return the handle of the request, or null if there was no request to execute
+     */
+    protected RequestHandle executeRequest(BoxRequest request, RequestScheduler.Lane lane) {
+        if (mContentTrace != null && !mContentTrace.isFinished()) {
+            mContentTrace.attach(request);
+        }
+        mResponseDispatcher.register(request);
+        RequestHandle handle = lane != null ? getController().submit(request, lane) : getController().submit(request);
+        if (handle != null) {
+            Iterator<RequestHandle> iterator = mPendingRequests.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isDone()) {
+                    iterator.remove();
+                }
+            }
+            mPendingRequests.add(handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Cancels all requests made through {@link #executeRequest(BoxRequest)} that have not completed yet.
+     *
+     * @return true if at least one request was cancelled
+     */
+    protected boolean cancelPendingRequests() {
+        boolean cancelled = false;
+        for (RequestHandle handle : mPendingRequests) {
+            if (!handle.isDone()) {
+                cancelled |= handle.cancel();
+            }
+        }
+        mPendingRequests.clear();
+        return cancelled;
+    }
+
+    /**
+     * Warms the folder cache with the first subfolders among the items shown, so that navigating into them does not
+     * wait for the network.
+     *
+     * @param items the items shown
+     */
+    protected void prefetchChildFolders(ArrayList<BoxItem> items) {
+        BoxFolderPrefetcher prefetcher = getFolderPrefetcher();
+        if (prefetcher != null && items != null) {
+            prefetcher.prefetch(items);
+        }
+    }
+
+    /**
+     * Gets the prefetcher used for the subfolders of the folder shown. Override to return null to disable prefetching.
+     *
+     * @return the folder prefetcher
+     */
+    protected BoxFolderPrefetcher getFolderPrefetcher() {
+        if (mFolderPrefetcher == null && getActivity() != null) {
+            mFolderPrefetcher = new BoxFolderPrefetcher(getActivity(), getController());
         }
+        return mFolderPrefetcher;
     }
 
     /**
      * Cleanup box receivers.
      */
     protected void cleanupBoxReceivers(){
-        getLocalBroadcastManager().unregisterReceiver(mBroadcastReceiver);
+        BoxFolderSyncEngine syncEngine = getSyncEngine();
+        if (syncEngine != null && getFolder() != null) {
+            syncEngine.unregister(getFolder().getId(), mSyncListener);
+        }
+        mResponseDispatcher.setSubscriber(null);
         getActivity().unregisterReceiver(mConnectivityReceiver);
     }
 
@@ -185,17 +373,125 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     /**
      * Handle response.
      *
-     * @param intent the intent
+     * @param response the response of a request made through the controller of this fragment
+     */
+    protected void handleResponse(BoxResponse response) {
+        if (!response.isSuccess()) {
+            mController.onError(getActivity(), response);
+        }
+        if (response.getRequest() instanceof BoxRequestsFile.DownloadThumbnail) {
+            onDownloadedThumbnail(response);
+        }
+        if (getFolder() != null) {
+            handleFolderResponse(response);
+        }
+    }
+
+    /**
+     * Handles the response of a request loading the folder shown, either its whole listing or one of its pages.
+     *
+     * @param response the response of a request made through the controller of this fragment
      */
-    protected void handleResponse(BoxResponseIntent intent) {
-        if (!intent.isSuccess()) {
-            mController.onError(getActivity(), intent.getResponse());
+    protected void handleFolderResponse(BoxResponse response) {
+        if (BoxBrowseController.isNotModified(response)) {
+            onItemsNotModified();
+            return;
+        }
+        if (!response.isSuccess()) {
+            if (response.getRequest() == mPageRequest && mAdapter != null) {
+                mAdapter.setLoadMoreError();
+            }
+            checkConnectivity();
+            return;
         }
-        if (intent.getAction().equals(BoxRequestsFile.DownloadThumbnail.class.getName())) {
-            onDownloadedThumbnail(intent);
+        if (response.getRequest() instanceof BoxRequestsFolder.GetFolderWithAllItems) {
+            onFolderFetched((BoxFolder) response.getResult());
+            if (mSwipeRefresh != null) {
+                mSwipeRefresh.setRefreshing(false);
+            }
+        } else if (response.getRequest() instanceof BoxRequestsFolder.GetFolderItems
+                && response.getRequest() == mPageRequest) {
+            onFolderPageFetched((BoxIteratorItems) response.getResult());
+            if (mSwipeRefresh != null) {
+                mSwipeRefresh.setRefreshing(false);
+            }
         }
     }
 
+    /**
+     * Loads the items of the folder shown, a page at a time if a page size was set, see {@link #isPaged()}.
+     */
+    protected void loadFolderItems() {
+        mProgress.setVisibility(View.VISIBLE);
+        // A reload supersedes whatever is still loading.
+        cancelPendingRequests();
+        BoxFolder folder = getFolder();
+        if (isPaged()) {
+            mPageOffset = 0;
+            mPageRequest = getController().getFolderItems(folder.getId(), mPageOffset, mPageSize);
+            if (mPageRequest != null) {
+                executeRequest(mPageRequest);
+                return;
+            }
+            // The controller does not page folders, load the whole listing instead.
+        }
+        BoxRequestsFolder.GetFolderWithAllItems request = getController().getFolderWithAllItems(folder.getId());
+        if (mItems != null && folder.getEtag() != null) {
+            // The listing is shown already, e.g. on pull to refresh, only download it again if the folder changed.
+            request.setIfNoneMatchEtag(folder.getEtag());
+        }
+        executeRequest(request);
+    }
+
+    /**
+     * Whether this fragment loads the folder shown a page at a time.
+     *
+     * @return true if items are loaded incrementally, false if all items are loaded in one request.
+     */
+    protected boolean isPaged() {
+        return mPageSize > 0;
+    }
+
+    /**
+     * On folder page fetched. Shows the page and prepares the request for the next one if there are more items.
+     *
+     * @param items the page of items that has been fetched
+     */
+    protected void onFolderPageFetched(BoxIteratorItems items) {
+        if (items == null || items.getEntries() == null) {
+            return;
+        }
+        int offset = mPageOffset;
+        mPageOffset += items.size();
+        BoxRequestsFolder.GetFolderItems nextPageRequest = null;
+        if (items.fullSize() != null && mPageOffset < items.fullSize() && items.size() > 0) {
+            nextPageRequest = getController().getFolderItems(getFolder().getId(), mPageOffset, mPageSize);
+        }
+        mPageRequest = nextPageRequest;
+        onPageFetched(items.getEntries(), offset, nextPageRequest);
+        if (offset == 0) {
+            prefetchChildFolders(mItems);
+            notifyUpdateListeners();
+        }
+    }
+
+    /**
+     * On folder fetched. Called with the whole listing of the folder shown.
+     *
+     * @param folder that has been fetched
+     */
+    protected void onFolderFetched(BoxFolder folder) {
+    }
+
+    /**
+     * Gets the folder whose items this fragment shows.
+     *
+     * @return the folder, or null if this fragment does not show the items of a single folder
+     */
+    public BoxFolder getFolder() {
+        return null;
+    }
+
     /**
      * Gets layout.
      *
@@ -220,6 +516,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         initRecyclerView(mItemsView);
         mProgress = (ProgressBar) mRootView.findViewById(R.id.box_browsesdk_progress_bar);
         mAdapter = createAdapter();
+        mAdapter.setContentTrace(mContentTrace);
 
         mAdapter.registerAdapterDataObserver(new AdapterDataObserver() {
 
@@ -320,19 +617,25 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
     public BrowseController getController() {
         if (mController == null) {
             String userId = getArguments().getString(ARG_USER_ID);
-            mController = new BoxBrowseController(new BoxSession(getActivity(), userId)).setCompletedListener(new CompletionListener(LocalBroadcastManager.getInstance(getActivity())));
+            mController = new BoxBrowseController(new BoxSession(getActivity(), userId));
         }
 
         return mController;
     }
 
     /**
-     * Set a custom browse controller
+     * Set a custom browse controller. The controller may be shared with other fragments, the responses of the
+     * requests of this fragment are delivered to this fragment only. The completion listener of a controller that is
+     * not a {@link BoxBrowseController} is wrapped, see {@link BoxResponseDispatcher#createRouter(com.box.androidsdk.content.BoxFutureTask.OnCompletedListener)},
+     * so that it keeps receiving the responses of requests that were not made by a fragment.
      *
      * @param controller the controller
      */
     public void setController(BrowseController controller) {
         mController = controller;
+        if (controller != null && !(controller instanceof BoxBrowseController)) {
+            controller.setCompletedListener(BoxResponseDispatcher.createRouter(controller.getCompletedListener()));
+        }
     }
 
     public OnSecondaryActionListener getOnSecondaryActionListener() {
@@ -378,18 +681,6 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         }
     }
 
-    /**
-     * Gets local broadcast manager.
-     *
-     * @return the local broadcast manager
-     */
-    protected LocalBroadcastManager getLocalBroadcastManager() {
-        if (mLocalBroadcastmanager == null) {
-            mLocalBroadcastmanager = LocalBroadcastManager.getInstance(getActivity());
-        }
-        return mLocalBroadcastmanager;
-    }
-
     /**
      * @return BoxItemFilter set on this fragment: passed during creation in the intent
      */
@@ -397,6 +688,11 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         return mBoxItemFilter;
     }
 
+    @Override
+    public void onLoadMore(BoxRequest request) {
+        executeRequest(request, RequestScheduler.Lane.PAGINATION);
+    }
+
     /**
      * Call on loading error and refresh if loss of connectivity is the suspect.
      */
@@ -423,7 +719,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             mSwipeRefresh.setRefreshing(false);
         }
 
-        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>();
+        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>(items.size());
         for (BoxItem item : items) {
             if (getItemFilter() != null && !getItemFilter().accept(item)) {
                 continue;
@@ -435,29 +731,217 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
         if (mAdapter != null) {
             mAdapter.updateTo(filteredItems);
         }
+        addNextPageItem();
+        if (filteredItems.isEmpty() && mContentTrace != null) {
+            // An empty folder has no first item, its trace is dropped rather than left open
+            mContentTrace = null;
+            if (mAdapter != null) {
+                mAdapter.setContentTrace(null);
+            }
+        }
     }
 
     /**
-     * Handles showing new thumbnails after they have been downloaded.
+     * Appends items to the list of items that the adapter is bound to, skipping items already shown.
      *
-     * @param intent the intent
+     * @param items the items
      */
-    protected void onDownloadedThumbnail(final BoxResponseIntent intent) {
+    protected void appendItems(final ArrayList<BoxItem> items) {
+        FragmentActivity activity = getActivity();
+        if (activity == null) {
+            return;
+        }
+        if (mItems == null) {
+            updateItems(items);
+            return;
+        }
+
+        HashSet<String> itemIds = new HashSet<String>(mItems.size());
+        for (BoxItem item : mItems) {
+            itemIds.add(item.getId());
+        }
+        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>(items.size());
+        for (BoxItem item : items) {
+            if ((getItemFilter() != null && !getItemFilter().accept(item)) || itemIds.contains(item.getId())) {
+                continue;
+            }
+            filteredItems.add(item);
+        }
+
+        mItems.addAll(filteredItems);
+        if (mAdapter != null) {
+            mAdapter.add(filteredItems);
+        }
+    }
+
+    /**
+     * Shows a page of items that was loaded incrementally. The first page replaces the items shown and
+     * later pages are appended. If more items remain, the request for the next page is added as a load
+     * more item which the adapter executes once the user scrolls close to the end of the list.
+     *
+     * @param items           the items of the page
+     * @param offset          the offset the page was requested at
+     * @param nextPageRequest the request for the next page, or null if this was the last page
+     */
+    protected void onPageFetched(final ArrayList<BoxItem> items, int offset, BoxRequest nextPageRequest) {
         if (mAdapter != null) {
-            int index = mAdapter.indexOf(((BoxRequestsFile.DownloadThumbnail)intent.getRequest()).getId());
-            mAdapter.notifyItemChanged(index);
+            ArrayList<String> removeIds = new ArrayList<String>(1);
+            removeIds.add(BoxItemAdapter.LOAD_MORE_ID);
+            mAdapter.remove(removeIds);
         }
+        mNextPageRequest = null;
+        if (offset == 0) {
+            updateItems(items);
+        } else {
+            appendItems(items);
+        }
+        setNextPageRequest(nextPageRequest);
     }
 
     /**
-     * Gets intent filter.
+     * Sets the request for the page after the items shown and adds a load more item for it. The request is kept
+     * by the fragment, so the load more item is added again whenever the items are shown again, e.g. after the
+     * fragment was stopped and started.
      *
-     * @return the intent filter
+     * @param request the request for the next page, or null if all items are shown
      */
-    protected IntentFilter getIntentFilter() {
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(BoxRequestsFile.DownloadThumbnail.class.getName());
-        return filter;
+    protected void setNextPageRequest(BoxRequest request) {
+        mNextPageRequest = request;
+        if (request != null) {
+            mResponseDispatcher.register(request);
+        }
+        addNextPageItem();
+    }
+
+    /**
+     * Adds a load more item for the request of the next page, if there is one, after the items shown.
+     */
+    protected void addNextPageItem() {
+        if (mNextPageRequest != null && mAdapter != null) {
+            mAdapter.addLoadMoreItem(mNextPageRequest);
+        }
+    }
+
+    /**
+     * Applies item level changes reported by the sync engine to the items shown, without fetching them again. New
+     * items are inserted in the order of {@link #getItemComparator()}, unless more pages are still to be loaded in
+     * which case they arrive with those pages.
+     *
+     * @param upserts    items added or changed, in their new state
+     * @param removedIds ids of items removed
+     */
+    protected void applyItemChanges(List<BoxItem> upserts, List<String> removedIds) {
+        if (mItems == null) {
+            return;
+        }
+        if (!removedIds.isEmpty()) {
+            HashSet<String> removed = new HashSet<String>(removedIds);
+            Iterator<BoxItem> iterator = mItems.iterator();
+            while (iterator.hasNext()) {
+                if (removed.contains(iterator.next().getId())) {
+                    iterator.remove();
+                }
+            }
+            if (mAdapter != null) {
+                mAdapter.remove(removedIds);
+            }
+        }
+        HashMap<String, Integer> positions = new HashMap<String, Integer>(mItems.size());
+        for (int i = 0; i < mItems.size(); i++) {
+            positions.put(mItems.get(i).getId(), i);
+        }
+        boolean isLoadingPages = mAdapter != null && mAdapter.isLoadMoreItem(mAdapter.getItemCount() - 1);
+        boolean isAdded = false;
+        for (BoxItem item : upserts) {
+            if (getItemFilter() != null && !getItemFilter().accept(item)) {
+                continue;
+            }
+            Integer position = positions.get(item.getId());
+            if (position != null) {
+                mItems.set(position, item);
+                if (mAdapter != null) {
+                    mAdapter.update(item);
+                }
+            } else if (!isLoadingPages) {
+                mItems.add(getInsertPosition(item), item);
+                isAdded = true;
+            }
+        }
+        if (mAdapter != null && isAdded) {
+            mAdapter.updateTo(new ArrayList<BoxItem>(mItems));
+        }
+    }
+
+    /**
+     * Finds the position a new item is shown at, before the first item that sorts after it.
+     *
+     * @param item the new item
+     * @return the position in the items shown
+     */
+    protected int getInsertPosition(BoxItem item) {
+        Comparator<BoxItem> comparator = getItemComparator();
+        if (comparator == null) {
+            return mItems.size();
+        }
+        for (int i = 0; i < mItems.size(); i++) {
+            if (comparator.compare(item, mItems.get(i)) < 0) {
+                return i;
+            }
+        }
+        return mItems.size();
+    }
+
+    /**
+     * Gets the order the items are shown in, used to place items added by the sync engine. Override if the items are
+     * fetched in a different order.
+     *
+     * @return the comparator, or null to add new items after the items shown
+     */
+    protected Comparator<BoxItem> getItemComparator() {
+        return FOLDER_ORDER;
+    }
+
+    /**
+     * Gets the engine keeping the folder shown current. Override to return null to disable sync. The default engine is
+     * not used if it syncs the changes of a different user than the one shown.
+     *
+     * @return the sync engine, or null if folders are not synced
+     */
+    protected BoxFolderSyncEngine getSyncEngine() {
+        BoxFolderSyncEngine engine = BoxFolderSyncEngine.getDefault();
+        String userId = getArguments() != null ? getArguments().getString(ARG_USER_ID) : null;
+        if (engine != null && engine.getUserId() != null && userId != null && !engine.getUserId().equals(userId)) {
+            return null;
+        }
+        return engine;
+    }
+
+    /**
+     * Called when a refresh found that the items shown have not changed. The items are kept as they are.
+     */
+    protected void onItemsNotModified() {
+        if (mProgress != null) {
+            mProgress.setVisibility(View.GONE);
+        }
+        if (mSwipeRefresh != null) {
+            mSwipeRefresh.setRefreshing(false);
+        }
+    }
+
+    /**
+     * Handles showing new thumbnails after they have been downloaded.
+     *
+     * @param response the response
+     */
+    protected void onDownloadedThumbnail(final BoxResponse response) {
+        if (mAdapter == null) {
+            return;
+        }
+        // Thumbnails finishing within the same frame are applied together on the next frame.
+        if (mChangedThumbnailIds.isEmpty()) {
+            FrameBatcher.getDefault().post(mNotifyThumbnailsChanged);
+        }
+        mChangedThumbnailIds.add(((BoxRequestsFile.DownloadThumbnail) response.getRequest()).getId());
     }
 
     /**
@@ -577,7 +1061,7 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             int totalItemCount = mItemAdapter.get().getItemCount();
             if (mSelectedItems.size() < totalItemCount) {
                 int originalSize = mSelectedItems.size();
-                for (BoxItem boxItem : mItemAdapter.get().getItems()) {
+                for (BoxItem boxItem : mItemAdapter.get().getSnapshot().getItems()) {
                     if (boxItem != null && isSelectable(boxItem) && !isItemSelected(boxItem)) {
                         mSelectedItems.add(boxItem);
                         handleItemSelected(boxItem, true, this);
@@ -773,6 +1257,18 @@ public abstract class BoxBrowseFragment extends Fragment implements SwipeRefresh
             mArgs.putSerializable(ARG_BOX_ITEM_FILTER, filter);
         }
 
+        /**
+         * Load the items a page at a time instead of fetching all of them in one request.
+         * The next page is requested as the user scrolls close to the end of the list.
+         *
+         * @param pageSize the number of items per page, 0 to load all items at once
+         * @return the builder
+         */
+        public Builder<T> setPageSize(int pageSize) {
+            mArgs.putInt(ARG_LIMIT, pageSize);
+            return this;
+        }
+
         /**
          * Returns an empty instance of the fragment to build
          *
@@ -2,8 +2,8 @@ package com.box.androidsdk.browse.fragments;
 
 import android.app.Activity;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,10 +12,13 @@ import android.widget.TextView;
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.activities.FilterSearchResults;
 import com.box.androidsdk.browse.adapters.BoxItemAdapter;
+import com.box.androidsdk.browse.adapters.BoxItemSnapshot;
 import com.box.androidsdk.browse.adapters.BoxSearchAdapter;
 import com.box.androidsdk.browse.adapters.ResultsHeader;
 import com.box.androidsdk.browse.models.BoxSearchFilters;
-import com.box.androidsdk.browse.service.BoxResponseIntent;
+import com.box.androidsdk.browse.service.BoxLocalNameIndex;
+import com.box.androidsdk.browse.service.BoxSearchResultCache;
+import com.box.androidsdk.browse.service.SearchDebouncer;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
@@ -49,6 +52,12 @@ public class BoxSearchFragment extends BoxBrowseFragment {
     // Current search term
     private static final String OUT_QUERY = "outQuery";
 
+    // Time the query must stay unchanged before it is searched for
+    private static final String ARG_DEBOUNCE_MILLIS = "argDebounceMillis";
+
+    // Number of characters the query needs before it is searched for while typing
+    private static final String ARG_MIN_QUERY_LENGTH = "argMinQueryLength";
+
     private static final int DEFAULT_LIMIT = 20;
     private int mLimit;
     protected int mOffset = 0;
@@ -56,6 +65,11 @@ public class BoxSearchFragment extends BoxBrowseFragment {
 
     protected String mSearchQuery;
     protected BoxRequestsSearch.Search mRequest;
+    // Request for the first page of the current query, which may be answered twice when served from the cache
+    protected BoxRequestsSearch.Search mFirstPageRequest;
+    protected SearchDebouncer mSearchDebouncer;
+    // Matches of the current query among the items of folders that were already fetched
+    protected ArrayList<BoxItem> mLocalMatches;
 
     public static final int REQUEST_FILTER_SEARCH_RESULTS = 228;
     public static final String EXTRA_SEARCH_FILTERS = "SearchFragment.SearchFilters";
@@ -101,6 +115,22 @@ public class BoxSearchFragment extends BoxBrowseFragment {
         mItemTypeToExtensions.put(BoxSearchFilters.ItemType.Video, ThumbnailManager.VIDEO_EXTENSIONS_ARRAY);
 
         mRequest = null;
+        mSearchDebouncer = new SearchDebouncer(new SearchDebouncer.OnQueryListener() {
+            @Override
+            public void onQuery(String query) {
+                onQueryReady(query);
+            }
+
+            @Override
+            public void onQueryCleared(String query) {
+                mSearchQuery = query;
+                clearResults();
+            }
+        });
+        if (getArguments() != null) {
+            mSearchDebouncer.setDebounceMillis(getArguments().getLong(ARG_DEBOUNCE_MILLIS, SearchDebouncer.DEFAULT_DEBOUNCE_MILLIS))
+                    .setMinQueryLength(getArguments().getInt(ARG_MIN_QUERY_LENGTH, SearchDebouncer.DEFAULT_MIN_QUERY_LENGTH));
+        }
     }
 
     @Override
@@ -142,7 +172,18 @@ public class BoxSearchFragment extends BoxBrowseFragment {
     @Override
     public void onResume() {
         super.onResume();
-        search(mSearchQuery);
+        // Restoring a query the user already waited for should not wait for the debounce interval again.
+        if (mSearchDebouncer.isSearchable(mSearchQuery)) {
+            searchImmediately(mSearchQuery);
+        } else {
+            search(mSearchQuery);
+        }
+    }
+
+    @Override
+    public void onStop() {
+        mSearchDebouncer.cancel();
+        super.onStop();
     }
 
     /**
@@ -209,13 +250,6 @@ public class BoxSearchFragment extends BoxBrowseFragment {
         return mParentFolder;
     }
 
-    @Override
-    public IntentFilter getIntentFilter() {
-        IntentFilter filter = super.getIntentFilter();
-        filter.addAction(BoxRequestsSearch.Search.class.getName());
-        return filter;
-    }
-
     /**
      * Gets search query.
      *
@@ -230,17 +264,32 @@ public class BoxSearchFragment extends BoxBrowseFragment {
     }
 
     /**
-     * Search.
+     * Searches for the query once it has not changed for the debounce interval, e.g. while the user is typing.
      *
      * @param query the query
      */
     public void search(String query) {
-        if (query != null) {
-            String trimmedQuery = query.trim();
-            if (!trimmedQuery.equals(mSearchQuery) || mRequest == null) {
-                mSearchQuery = trimmedQuery;
-                search();
-            }
+        mSearchDebouncer.submit(query);
+    }
+
+    /**
+     * Searches for the query right away, e.g. when the user submits the search.
+     *
+     * @param query the query
+     */
+    public void searchImmediately(String query) {
+        mSearchDebouncer.submitNow(query);
+    }
+
+    /**
+     * Called when a query has passed the debounce interval. Starts a new search unless the query did not change.
+     *
+     * @param query the trimmed query
+     */
+    protected void onQueryReady(String query) {
+        if (!query.equals(mSearchQuery) || mRequest == null) {
+            mSearchQuery = query;
+            search();
         }
     }
 
@@ -249,28 +298,93 @@ public class BoxSearchFragment extends BoxBrowseFragment {
      */
     protected void search() {
         if (mSearchQuery != null && !mSearchQuery.equals("")) {
+            startContentTrace(SystemClock.elapsedRealtime());
             mRequest = getController().getSearchRequest(mSearchQuery);
+            mNextPageRequest = null;
             mAdapter.removeAll();
             loadItems();
             mItems = null;
             mAdapter.notifyDataSetChanged();
             notifyUpdateListeners();
+            showLocalMatches();
         } else {
-            mRequest = null;
-            mProgress.setVisibility(View.GONE);
-            mSearchFiltersHeader.setVisibility(View.GONE);
-            mItems = null;
-            mAdapter.removeAll();
-            mAdapter.notifyDataSetChanged();
-            notifyUpdateListeners();
+            clearResults();
+        }
+    }
+
+    /**
+     * Shows the matches of the current query in already fetched folders while the server search is in flight.
+     * Matches are not shown when filters are set, as the index does not know the type, size or dates of items.
+     */
+    protected void showLocalMatches() {
+        mLocalMatches = null;
+        BoxLocalNameIndex index = getController().getNameIndex();
+        if (index == null || (mSearchFilters != null && mSearchFilters.anyFiltersSet())) {
+            return;
+        }
+        ArrayList<BoxItem> matches = new ArrayList<BoxItem>();
+        for (BoxItem item : index.search(mSearchQuery, mParentFolder.getId(), mLimit)) {
+            if (getItemFilter() == null || getItemFilter().accept(item)) {
+                matches.add(item);
+            }
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+        mLocalMatches = matches;
+        updateTo(matches);
+        // The server results are still loading.
+        mProgress.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Merges the first page of server results with the local matches of the query. Server results keep their order,
+     * local matches the server did not return, e.g. because its index has not caught up yet, are appended.
+     *
+     * @param items the first page of server results
+     * @return the merged results
+     */
+    protected ArrayList<BoxItem> mergeLocalMatches(ArrayList<BoxItem> items) {
+        if (mLocalMatches == null || mLocalMatches.isEmpty()) {
+            return items;
+        }
+        ArrayList<BoxItem> merged = new ArrayList<BoxItem>(items);
+        HashSet<String> keys = new HashSet<String>(items.size());
+        for (BoxItem item : items) {
+            keys.add(item.getType() + ":" + item.getId());
         }
+        for (BoxItem item : mLocalMatches) {
+            if (keys.add(item.getType() + ":" + item.getId())) {
+                merged.add(item);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Cancels the current search and removes its results.
+     */
+    protected void clearResults() {
+        cancelPendingRequests();
+        mRequest = null;
+        mNextPageRequest = null;
+        mFirstPageRequest = null;
+        mLocalMatches = null;
+        mProgress.setVisibility(View.GONE);
+        mSearchFiltersHeader.setVisibility(View.GONE);
+        mItems = null;
+        mAdapter.removeAll();
+        mAdapter.notifyDataSetChanged();
+        notifyUpdateListeners();
     }
 
     /**
      * Execute request.
      */
     protected void executeRequest() {
-        getController().execute(mRequest);
+        // Results of an earlier query are of no use anymore.
+        cancelPendingRequests();
+        executeRequest(mRequest);
     }
 
     @Override
@@ -278,79 +392,94 @@ public class BoxSearchFragment extends BoxBrowseFragment {
         if (mRequest != null) {
             mProgress.setVisibility(View.VISIBLE);
             mOffset = 0;
-            mRequest.setLimit(mLimit)
-                    .setOffset(mOffset)
-                    .limitAncestorFolderIds(new String[]{mParentFolder.getId()});
-
-            // Set filters
-            if (mSearchFilters != null) {
-                HashSet<BoxSearchFilters.ItemType> itemTypes = mSearchFilters.mItemTypes;
-                if (itemTypes != null && itemTypes.size() > 0) {
-                    // We need to add type filter
-                    if (itemTypes.contains(BoxSearchFilters.ItemType.Folder)) {
-                        // Set only folder
-                        mRequest.limitType(BoxFolder.TYPE);
-                    } else {
-                        // Set extension types
-                        mRequest.limitType(BoxFile.TYPE);
-
-                        HashSet<String> extensions = new HashSet<String>();
-                        for(BoxSearchFilters.ItemType type : itemTypes) {
-                            for (String extension : mItemTypeToExtensions.get(type)) {
-                                extensions.add(extension);
-                            }
+            mRequest = createSearchRequest(mOffset);
+            mFirstPageRequest = mRequest;
+            executeRequest();
+        }
+    }
+
+    /**
+     * Creates the request for a page of results of the current query, limited to the parent folder and the filters.
+     *
+     * @param offset the offset of the page
+     * @return the search request
+     */
+    protected BoxRequestsSearch.Search createSearchRequest(int offset) {
+        BoxRequestsSearch.Search request = getController().getSearchRequest(mSearchQuery);
+        request.setLimit(mLimit)
+                .setOffset(offset)
+                .limitAncestorFolderIds(new String[]{mParentFolder.getId()});
+
+        // Set filters
+        if (mSearchFilters != null) {
+            HashSet<BoxSearchFilters.ItemType> itemTypes = mSearchFilters.mItemTypes;
+            if (itemTypes != null && itemTypes.size() > 0) {
+                // We need to add type filter
+                if (itemTypes.contains(BoxSearchFilters.ItemType.Folder)) {
+                    // Set only folder
+                    request.limitType(BoxFolder.TYPE);
+                } else {
+                    // Set extension types
+                    request.limitType(BoxFile.TYPE);
+
+                    HashSet<String> extensions = new HashSet<String>();
+                    for(BoxSearchFilters.ItemType type : itemTypes) {
+                        for (String extension : mItemTypeToExtensions.get(type)) {
+                            extensions.add(extension);
                         }
-                        mRequest.limitFileExtensions(extensions.toArray(new String[extensions.size()]));
                     }
+                    request.limitFileExtensions(extensions.toArray(new String[extensions.size()]));
                 }
+            }
 
-                if (mSearchFilters.mItemModifiedDate != BoxSearchFilters.ItemModifiedDate.Any) {
-                    // Add filter for modified date
-                    Calendar cal = Calendar.getInstance();
-
-                    switch (mSearchFilters.mItemModifiedDate) {
-                        case PastDay:
-                            cal.add(Calendar.DATE, -1);
-                            break;
-                        case PastWeek:
-                            cal.add(Calendar.DATE, -7);
-                            break;
-                        case PastMonth:
-                            cal.add(Calendar.MONTH, -1);
-                            break;
-                        case PastYear:
-                            cal.add(Calendar.YEAR, -1);
-                            break;
-                        default:
-                            break;
-                    }
-                    mRequest.limitLastUpdateTime(cal.getTime(), null);
+            if (mSearchFilters.mItemModifiedDate != BoxSearchFilters.ItemModifiedDate.Any) {
+                // Add filter for modified date
+                Calendar cal = Calendar.getInstance();
+
+                switch (mSearchFilters.mItemModifiedDate) {
+                    case PastDay:
+                        cal.add(Calendar.DATE, -1);
+                        break;
+                    case PastWeek:
+                        cal.add(Calendar.DATE, -7);
+                        break;
+                    case PastMonth:
+                        cal.add(Calendar.MONTH, -1);
+                        break;
+                    case PastYear:
+                        cal.add(Calendar.YEAR, -1);
+                        break;
+                    default:
+                        break;
                 }
+                request.limitLastUpdateTime(cal.getTime(), null);
+            }
 
-                if (mSearchFilters.mItemSize != BoxSearchFilters.ItemSize.Any) {
-                    // Add filter for size
-                    switch (mSearchFilters.mItemSize) {
-                        case lessThanOneMb:
-                            mRequest.limitSizeRange(0, ONE_MB);
-                            break;
-                        case OneMbToFiveMb:
-                            mRequest.limitSizeRange(ONE_MB, 5*ONE_MB);
-                            break;
-                        case FiveMbToTwentyFiveMb:
-                            mRequest.limitSizeRange(5*ONE_MB, 25*ONE_MB);
-                            break;
-                        case TwentyFiveMbToHundredMb:
-                            mRequest.limitSizeRange(25*ONE_MB, 100*ONE_MB);
-                            break;
-                        case HundredMbToOneGB:
-                            mRequest.limitSizeRange(100*ONE_MB, 1000*ONE_MB);
-                            break;
-                    }
+            if (mSearchFilters.mItemSize != BoxSearchFilters.ItemSize.Any) {
+                // Add filter for size
+                switch (mSearchFilters.mItemSize) {
+                    case lessThanOneMb:
+                        request.limitSizeRange(0, ONE_MB);
+                        break;
+                    case OneMbToFiveMb:
+                        request.limitSizeRange(ONE_MB, 5*ONE_MB);
+                        break;
+                    case FiveMbToTwentyFiveMb:
+                        request.limitSizeRange(5*ONE_MB, 25*ONE_MB);
+                        break;
+                    case TwentyFiveMbToHundredMb:
+                        request.limitSizeRange(25*ONE_MB, 100*ONE_MB);
+                        break;
+                    case HundredMbToOneGB:
+                        request.limitSizeRange(100*ONE_MB, 1000*ONE_MB);
+                        break;
                 }
             }
-
-            executeRequest();
         }
+
+        BoxSearchResultCache.setRequestKey(request,
+                BoxSearchResultCache.createKey(mSearchQuery, mSearchFilters, mParentFolder.getId(), mLimit));
+        return request;
     }
 
     @Override
@@ -390,14 +519,10 @@ public class BoxSearchFragment extends BoxBrowseFragment {
         // Search can potentially have a lot of results so incremental loading and de-duping logic is needed
         final int startRange = mAdapter.getItemCount() > 0 ? mAdapter.getItemCount() - 1: 0;
 
-        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>();
-        ArrayList<BoxItem> adapterItems = mAdapter.getItems();
-        HashSet<String> itemIdsInAdapter = new HashSet<String>(adapterItems.size());
-        for (BoxItem item : adapterItems){
-            itemIdsInAdapter.add(item.getId());
-        }
+        ArrayList<BoxItem> filteredItems = new ArrayList<BoxItem>(items.size());
+        BoxItemSnapshot itemsInAdapter = mAdapter.getSnapshot();
         for (BoxItem item : items) {
-            if ((getItemFilter() != null && !getItemFilter().accept(item)) || itemIdsInAdapter.contains(item.getId())) {
+            if ((getItemFilter() != null && !getItemFilter().accept(item)) || itemsInAdapter.contains(item.getId())) {
                 continue;
             }
             filteredItems.add(item);
@@ -412,6 +537,7 @@ public class BoxSearchFragment extends BoxBrowseFragment {
             }
             mAdapter.updateTo(mItems);
         }
+        addNextPageItem();
     }
 
     @Override
@@ -427,10 +553,10 @@ public class BoxSearchFragment extends BoxBrowseFragment {
     }
 
     @Override
-    protected void handleResponse(BoxResponseIntent intent) {
-        super.handleResponse(intent);
-        if (intent.getAction().equals(BoxRequestsSearch.Search.class.getName())) {
-            onItemsFetched(intent.getResponse());
+    protected void handleResponse(BoxResponse response) {
+        super.handleResponse(response);
+        if (response.getRequest() instanceof BoxRequestsSearch.Search) {
+            onItemsFetched(response);
         }
     }
 
@@ -440,39 +566,43 @@ public class BoxSearchFragment extends BoxBrowseFragment {
      * @param response the response received from Box server
      */
     protected void onItemsFetched(BoxResponse response) {
+        // Responses can arrive out of order, only those of the current request are shown. The first page may also be
+        // revalidated after it was served from the cache, which replaces it unless the user already loaded more pages.
+        boolean isRevalidatedFirstPage = response.getRequest() == mFirstPageRequest && mOffset <= mLimit;
+        if (response.getRequest() != mRequest && !isRevalidatedFirstPage) {
+            return;
+        }
         if (!response.isSuccess()) {
+            mAdapter.setLoadMoreError();
             checkConnectivity();
             return;
         }
 
-        if (response.getRequest().equals(mRequest)) {
-            ArrayList<String> removeIds = new ArrayList<String>(1);
-            removeIds.add(BoxSearchAdapter.LOAD_MORE_ID);
-            mAdapter.remove(removeIds);
+        ArrayList<String> removeIds = new ArrayList<String>(1);
+        removeIds.add(BoxSearchAdapter.LOAD_MORE_ID);
+        mAdapter.remove(removeIds);
+        mNextPageRequest = null;
 
-            if (response.getResult() instanceof BoxIteratorItems) {
-                BoxIteratorItems items = (BoxIteratorItems) response.getResult();
+        if (response.getResult() instanceof BoxIteratorItems) {
+            BoxIteratorItems items = (BoxIteratorItems) response.getResult();
 
-                if (((BoxRequestsSearch.Search) response.getRequest()).getOffset() == 0) {
-                    mOffset = 0;
-                    updateTo(items.getEntries());
-                } else {
-                    updateItems(items.getEntries());
-                }
-                mOffset += items.size();
-
-                // If not all entries were fetched add a task to fetch more items if user scrolls to last entry.
-                if (items.fullSize() != null && mOffset < items.fullSize()) {
-                    // The search endpoint returns a 400 bad request if the offset is not in multiples of the limit
-                    mOffset = calculateBestOffset(mOffset, mLimit);
-                    BoxRequestsSearch.Search incrementalSearchTask = mRequest
-                            .setOffset(mOffset)
-                            .setLimit(mLimit);
-                    ((BoxSearchAdapter) mAdapter).addLoadMoreItem(incrementalSearchTask);
-                }
+            if (((BoxRequestsSearch.Search) response.getRequest()).getOffset() == 0) {
+                mOffset = 0;
+                updateTo(mergeLocalMatches(items.getEntries()));
+            } else {
+                updateItems(items.getEntries());
+            }
+            mOffset += items.size();
+
+            // If not all entries were fetched add a task to fetch more items if user scrolls to last entry.
+            if (items.fullSize() != null && mOffset < items.fullSize()) {
+                // The search endpoint returns a 400 bad request if the offset is not in multiples of the limit
+                mOffset = calculateBestOffset(mOffset, mLimit);
+                mRequest = createSearchRequest(mOffset);
+                setNextPageRequest(mRequest);
             }
-            mSearchFiltersHeader.setVisibility(View.VISIBLE);
         }
+        mSearchFiltersHeader.setVisibility(View.VISIBLE);
     }
 
     /**
@@ -547,6 +677,28 @@ public class BoxSearchFragment extends BoxBrowseFragment {
             return this;
         }
 
+        /**
+         * Set the time the query must stay unchanged while typing before it is searched for
+         *
+         * @param debounceMillis the debounce interval in milliseconds, 0 to search on every change
+         * @return the builder
+         */
+        public BoxSearchFragment.Builder setDebounceMillis(long debounceMillis) {
+            mArgs.putLong(ARG_DEBOUNCE_MILLIS, debounceMillis);
+            return this;
+        }
+
+        /**
+         * Set the number of characters the query needs before it is searched for while typing
+         *
+         * @param minQueryLength the minimum query length
+         * @return the builder
+         */
+        public BoxSearchFragment.Builder setMinQueryLength(int minQueryLength) {
+            mArgs.putInt(ARG_MIN_QUERY_LENGTH, minQueryLength);
+            return this;
+        }
+
         @Override
         protected BoxSearchFragment getInstance() {
             return new BoxSearchFragment();
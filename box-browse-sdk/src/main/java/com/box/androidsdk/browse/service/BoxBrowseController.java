@@ -2,18 +2,25 @@ package com.box.androidsdk.browse.service;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.widget.Toast;
 
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
+import com.box.androidsdk.content.BoxApiBookmark;
 import com.box.androidsdk.content.BoxApiFile;
 import com.box.androidsdk.content.BoxApiFolder;
 import com.box.androidsdk.content.BoxApiSearch;
+import com.box.androidsdk.content.BoxCache;
 import com.box.androidsdk.content.BoxConfig;
 import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIteratorItems;
 import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.models.BoxSession;
 import com.box.androidsdk.content.models.BoxUser;
@@ -29,9 +36,10 @@ import com.eclipsesource.json.JsonArray;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -46,10 +54,10 @@ public class BoxBrowseController implements BrowseController {
     private static final int MAX_RECENT_SEARCHES = 10;
     private static final String TAG = BoxBrowseController.class.getName();
 
-
     // Static executors so that requests can be retained though activity/fragment lifecycle
-    private static ThreadPoolExecutor mApiExecutor;
+    private static RequestScheduler mDefaultScheduler;
     private static ThreadPoolExecutor mThumbnailExecutor;
+    private static BrowseMetrics mDefaultMetrics;
 
     protected final BoxApiFile mFileApi;
     protected final BoxApiFolder mFolderApi;
@@ -59,6 +67,13 @@ public class BoxBrowseController implements BrowseController {
     protected BoxFutureTask.OnCompletedListener mListener;
     protected static final int BITMAP_CACHE_DEFAULT_SIZE = 10000;
 
+    protected RequestScheduler mScheduler;
+    protected BrowseMetrics mMetrics;
+    protected BoxSearchResultCache mSearchResultCache = BoxSearchResultCache.getDefault();
+    protected BoxLocalNameIndex mNameIndex;
+    protected BoxFieldProfile mFieldProfile = BoxFieldProfile.LIST_ROW;
+    protected boolean mRevalidateFolders = true;
+    protected boolean mIsFolderCacheEnabled;
     protected BitmapLruCache mThumbnailCache = new BitmapLruCache(BITMAP_CACHE_DEFAULT_SIZE);
     protected LruCache<Integer, Bitmap> mIconResCache = new LruCache<Integer, Bitmap>(10);
 
@@ -76,6 +91,7 @@ public class BoxBrowseController implements BrowseController {
         mFolderApi = apiFolder;
         mSearchApi = apiSearch;
         mThumbnailManager = createThumbnailManager(mSession);
+        mNameIndex = BoxLocalNameIndex.getDefault(mSession.getUserId());
         final int maxMemory = (int) (Runtime.getRuntime().maxMemory() / 1024);
 
         // Use 1/8th of the available memory for this memory cache.
@@ -96,6 +112,7 @@ public class BoxBrowseController implements BrowseController {
         mFolderApi =  new BoxApiFolder(mSession);
         mSearchApi =  new BoxApiSearch(mSession);
         mThumbnailManager = createThumbnailManager(mSession);
+        mNameIndex = BoxLocalNameIndex.getDefault(mSession.getUserId());
     }
 
     private ThumbnailManager createThumbnailManager(BoxSession session) {
@@ -107,10 +124,73 @@ public class BoxBrowseController implements BrowseController {
         return null;
     }
 
+    /**
+     * Sets whether folder listings of this controller are persisted across process restarts, with separate listings
+     * for every user. The folder cache is off by default. Enabling it installs {@link BoxSessionFolderCache#getDefault()}
+     * as the cache of the Box sdk, see {@link BoxConfig#setCache(BoxCache)}, unless the app configured a cache of its
+     * own. Only folder requests created by controllers that enabled it are cached.
+     *
+     * @param enabled true to cache folder listings
+     * @return this
+     */
+    public BoxBrowseController setFolderCacheEnabled(boolean enabled) {
+        if (enabled && BoxConfig.getCache() == null && mSession.getCacheDir() != null) {
+            BoxConfig.setCache(BoxSessionFolderCache.getDefault());
+        }
+        mIsFolderCacheEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Gets the cache that persists folder listings across process restarts.
+     *
+     * @return the folder cache, or null if it is not enabled or the app configured a cache of its own
+     */
+    protected BoxSessionFolderCache getFolderCache() {
+        BoxCache cache = BoxConfig.getCache();
+        return mIsFolderCacheEnabled && cache instanceof BoxSessionFolderCache ? (BoxSessionFolderCache) cache : null;
+    }
+
     @Override
     public BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId) {
-        return mFolderApi.getFolderWithAllItems(folderId)
-                .setFields(BoxFolder.ALL_FIELDS);
+        String[] fields = mFieldProfile.plus(BoxFolder.FIELD_ITEM_COLLECTION).getFields();
+        BoxRequestsFolder.GetFolderWithAllItems request = mFolderApi.getFolderWithAllItems(folderId)
+                .setFields(fields);
+        BoxDiskFolderCache.setRequestFields(request, fields);
+        if (getFolderCache() != null) {
+            // Listings are cached per user, as folder ids like the root folder are the same for every account.
+            getFolderCache().register(request, mSession);
+        }
+        return request;
+    }
+
+    @Override
+    public BoxRequestsFolder.GetFolderItems getFolderItems(String folderId, int offset, int limit) {
+        return mFolderApi.getItemsRequest(folderId)
+                .setOffset(offset)
+                .setLimit(limit)
+                .setFields(mFieldProfile.minus(BoxFolder.FIELD_ITEM_COLLECTION).getFields());
+    }
+
+    @Override
+    public BrowseController setFieldProfile(BoxFieldProfile profile) {
+        mFieldProfile = profile != null ? profile : BoxFieldProfile.LIST_ROW;
+        return this;
+    }
+
+    @Override
+    public BoxFieldProfile getFieldProfile() {
+        return mFieldProfile;
+    }
+
+    @Override
+    public BoxRequest getItemDetailsRequest(BoxItem item) {
+        if (item instanceof BoxFolder) {
+            return mFolderApi.getInfoRequest(item.getId()).setFields(BoxFolder.ALL_FIELDS);
+        } else if (item instanceof BoxBookmark) {
+            return new BoxApiBookmark(mSession).getInfoRequest(item.getId()).setFields(BoxBookmark.ALL_FIELDS);
+        }
+        return mFileApi.getInfoRequest(item.getId()).setFields(BoxFile.ALL_FIELDS);
     }
 
     @Override
@@ -137,31 +217,418 @@ public class BoxBrowseController implements BrowseController {
 
     @Override
     public void execute(BoxRequest request) {
+        submit(request);
+    }
+
+    @Override
+    public RequestHandle submit(BoxRequest request) {
+        return submit(request, getLane(request));
+    }
+
+    @Override
+    public RequestHandle submit(BoxRequest request, RequestScheduler.Lane lane) {
         if (request == null) {
-            return;
+            return null;
+        }
+        final String searchKey = mSearchResultCache != null && request instanceof BoxRequestsSearch.Search ?
+                BoxSearchResultCache.getKey(mSession.getUserId(), (BoxRequestsSearch.Search) request) :
+                null;
+        final String metricsTag = request.getClass().getSimpleName();
+        BoxSearchResultCache.Entry cachedSearch = mSearchResultCache != null ? mSearchResultCache.get(searchKey) : null;
+        if (searchKey != null) {
+            getMetrics().increment(cachedSearch != null ? BrowseMetrics.SEARCH_CACHE_HIT : BrowseMetrics.SEARCH_CACHE_MISS, metricsTag);
         }
-        if (BoxConfig.getCache() != null && request instanceof BoxCacheableRequest){
+        if (cachedSearch != null && mSearchResultCache.isFresh(cachedSearch)) {
+            // Recent enough to skip the network entirely.
+            BoxContentTrace trace = BoxContentTrace.forRequest(request);
+            if (trace != null) {
+                trace.onCacheHit();
+            }
+            FutureTask<Void> cachedTask = createCachedResponseTask(new BoxResponse<BoxIteratorItems>(cachedSearch.getItems(), null, request), null);
+            RequestHandle handle = new RequestHandle(request, cachedTask);
+            handle.setFuture(getRequestScheduler().submit(RequestScheduler.Lane.CACHE, cachedTask));
+            return handle;
+        }
+
+        final boolean revalidate = mRevalidateFolders && request instanceof BoxRequestsFolder.GetFolderWithAllItems
+                && BoxConfig.getCache() != null && !isConditional(request);
+        // The etag of the cached listing is only known once it has been read, so revalidation sends a copy of the
+        // request that the etag can be set on without changing the request of the caller.
+        final BoxRequest networkRequest = revalidate ?
+                createRevalidationRequest((BoxRequestsFolder.GetFolderWithAllItems) request) :
+                request;
+        final BoxFutureTask task = networkRequest.toTask();
+        final RequestHandle handle = new RequestHandle(request, task);
+        task.addOnCompletedListener(new BoxFutureTask.OnCompletedListener() {
+            @Override
+            public void onCompleted(BoxResponse networkResponse) {
+                BoxResponse response = networkResponse.getRequest() == request ? networkResponse :
+                        new BoxResponse(networkResponse.getResult(), networkResponse.getException(), request);
+                if (!response.isSuccess() && !isNotModified(response) && !handle.isCancelled()) {
+                    getMetrics().increment(BrowseMetrics.REQUEST_ERROR, metricsTag);
+                }
+                if (searchKey != null && response.isSuccess() && response.getResult() instanceof BoxIteratorItems) {
+                    mSearchResultCache.put(searchKey, (BoxIteratorItems) response.getResult());
+                }
+                indexResponse(response);
+                // Nobody is waiting for the result of a cancelled request.
+                if (!handle.isCancelled()) {
+                    deliver(response);
+                }
+            }
+        });
+        if (cachedSearch != null && ((BoxRequestsSearch.Search) request).getOffset() == 0) {
+            // Show the outdated first page while the request revalidates it. Later pages are appended rather than
+            // replaced, so they are only served from the cache while fresh.
+            FutureTask<Void> cachedTask = createCachedResponseTask(new BoxResponse<BoxIteratorItems>(cachedSearch.getItems(), null, request), task);
+            handle.setCacheFuture(getRequestScheduler().submit(RequestScheduler.Lane.CACHE, cachedTask));
+        } else if (BoxConfig.getCache() != null && request instanceof BoxCacheableRequest && !isConditional(request)){
+            // The etag of a cached listing is only known once it has been read, so its revalidation is sent from
+            // the read's completion. A folder that is not cached at all is downloaded right away.
+            final boolean revalidateAfterRead = revalidate && isFolderCached((BoxRequestsFolder.GetFolderWithAllItems) request);
             try {
-                BoxFutureTask cacheTask = ((BoxCacheableRequest) request).toTaskForCachedResult();
-                if (mListener != null){
-                    cacheTask.addOnCompletedListener(mListener);
+                final BoxFutureTask cacheTask = ((BoxCacheableRequest) request).toTaskForCachedResult();
+                cacheTask.addOnCompletedListener(new BoxFutureTask.OnCompletedListener() {
+                    @Override
+                    public void onCompleted(BoxResponse response) {
+                        if (revalidateAfterRead) {
+                            submitRevalidation(handle, task, (BoxRequestsFolder.GetFolderWithAllItems) networkRequest,
+                                    response, lane);
+                        }
+                        getMetrics().increment(response.isSuccess() && response.getResult() != null ?
+                                BrowseMetrics.FOLDER_CACHE_HIT : BrowseMetrics.FOLDER_CACHE_MISS, metricsTag);
+                        indexResponse(response);
+                        // A cache miss is not an error, and a cached result arriving after the network result is stale.
+                        if (response.isSuccess() && response.getResult() != null
+                                && !hasChangedResult(task) && !handle.isCancelled()) {
+                            BoxContentTrace trace = BoxContentTrace.forRequest(request);
+                            if (trace != null) {
+                                trace.onCacheHit();
+                            }
+                            deliver(response);
+                        }
+                    }
+                });
+                // Cache reads have their own lane so that they are not queued behind network requests.
+                handle.setCacheFuture(getRequestScheduler().submit(RequestScheduler.Lane.CACHE,
+                        timed(cacheTask, request, BoxContentTrace.Phase.CACHE)));
+                if (revalidateAfterRead) {
+                    return handle;
                 }
-                getApiExecutor().execute(cacheTask);
             } catch (BoxException e){
                 BoxLogUtils.e("cache task error ", e);
             }
 
         }
-        BoxFutureTask task = request.toTask();
-        if (mListener != null) {
-            task.addOnCompletedListener(mListener);
-        }
 
         // Thumbnail request should be executed in their own executor pool
-        ThreadPoolExecutor executor = request instanceof BoxRequestsFile.DownloadThumbnail ?
-                getThumbnailExecutor() :
-                getApiExecutor();
-        executor.submit(task);
+        if (request instanceof BoxRequestsFile.DownloadThumbnail) {
+            handle.setFuture(getThumbnailExecutor().submit(task));
+        } else {
+            handle.setFuture(getRequestScheduler().submit(lane, timed(task, request, BoxContentTrace.Phase.NETWORK)));
+        }
+        return handle;
+    }
+
+    /**
+     * Wraps a task submitted to the request scheduler so that its run time is reported to the metrics and to the
+     * content trace of the request, if any. The time the task waits in its lane is reported by the scheduler.
+     *
+     * @param task    the task
+     * @param request the request the task executes
+     * @param phase   the phase the task runs, either {@link BoxContentTrace.Phase#CACHE} or {@link BoxContentTrace.Phase#NETWORK}
+     * @return the task to submit
+     */
+    protected Runnable timed(final Runnable task, final BoxRequest request, final BoxContentTrace.Phase phase) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                long startedAt = SystemClock.elapsedRealtime();
+                BoxContentTrace.beginSection(phase);
+                try {
+                    task.run();
+                } finally {
+                    BoxContentTrace.endSection();
+                }
+                long millis = SystemClock.elapsedRealtime() - startedAt;
+                getMetrics().recordLatency(phase == BoxContentTrace.Phase.CACHE ? BrowseMetrics.FOLDER_CACHE_READ : BrowseMetrics.REQUEST_NETWORK,
+                        request.getClass().getSimpleName(), millis);
+                BoxContentTrace trace = BoxContentTrace.forRequest(request);
+                if (trace != null) {
+                    trace.addPhase(phase, millis);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a copy of a folder request with the same folder and fields, that is sent instead of the request when
+     * the folder is revalidated.
+     *
+     * @param request the request
+     * @return the copy
+     */
+    protected BoxRequestsFolder.GetFolderWithAllItems createRevalidationRequest(BoxRequestsFolder.GetFolderWithAllItems request) {
+        String[] fields = BoxDiskFolderCache.getRequestFields(request);
+        BoxRequestsFolder.GetFolderWithAllItems copy = mFolderApi.getFolderWithAllItems(request.getId());
+        if (fields != null && fields.length > 0) {
+            copy.setFields(fields);
+        }
+        BoxDiskFolderCache.setRequestFields(copy, fields);
+        if (getFolderCache() != null) {
+            getFolderCache().register(copy, mSession);
+        }
+        return copy;
+    }
+
+    /**
+     * Whether a listing of the folder of a request is cached, without reading it.
+     *
+     * @param request the request of the folder
+     * @return true if a listing that has not expired is cached
+     */
+    protected boolean isFolderCached(BoxRequestsFolder.GetFolderWithAllItems request) {
+        BoxSessionFolderCache folderCache = getFolderCache();
+        return folderCache != null && folderCache.contains(request);
+    }
+
+    /**
+     * Sends the request revalidating a folder once its cached listing has been read. Called on the thread that read
+     * the listing. The folder is only downloaded again if its etag changed, or in full if the listing could not be
+     * read.
+     *
+     * @param handle         the handle of the request of the folder
+     * @param task           the task sending the revalidation request
+     * @param networkRequest the revalidation request, see {@link #createRevalidationRequest(BoxRequestsFolder.GetFolderWithAllItems)}
+     * @param cachedResponse the response of the cache read
+     * @param lane           the lane the request of the folder was submitted to
+     */
+    protected void submitRevalidation(RequestHandle handle, BoxFutureTask task, BoxRequestsFolder.GetFolderWithAllItems networkRequest,
+                                      BoxResponse cachedResponse, RequestScheduler.Lane lane) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        if (cachedResponse.isSuccess() && cachedResponse.getResult() instanceof BoxFolder) {
+            String etag = ((BoxFolder) cachedResponse.getResult()).getEtag();
+            if (etag != null) {
+                networkRequest.setIfNoneMatchEtag(etag);
+            }
+        }
+        handle.setFuture(getRequestScheduler().submit(lane, timed(task, handle.getRequest(), BoxContentTrace.Phase.NETWORK)));
+    }
+
+    /**
+     * Whether a network task has delivered a result that replaces the cached one. A revalidation that found the
+     * folder unchanged may complete before its cached listing was delivered, which then is still current.
+     *
+     * @param task the network task
+     * @return true if the task completed with anything but a not modified response
+     */
+    protected boolean hasChangedResult(BoxFutureTask task) {
+        if (!task.isDone()) {
+            return false;
+        }
+        try {
+            return !isNotModified((BoxResponse) task.get());
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * Whether a request only returns a result if it changed since the version the caller already has.
+     *
+     * @param request the request
+     * @return true if the request is conditional
+     */
+    protected boolean isConditional(BoxRequest request) {
+        return request instanceof BoxRequestsFolder.GetFolderWithAllItems
+                && ((BoxRequestsFolder.GetFolderWithAllItems) request).getIfNoneMatchEtag() != null;
+    }
+
+    /**
+     * Whether a response is the answer to a conditional request whose result did not change. The caller keeps
+     * showing what it has, nothing was downloaded.
+     *
+     * @param response the response
+     * @return true if the result has not been modified
+     */
+    public static boolean isNotModified(BoxResponse response) {
+        return !response.isSuccess() && response.getException() instanceof BoxException
+                && ((BoxException) response.getException()).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+    }
+
+    /**
+     * Sets whether folder listings are revalidated. When enabled the cached listing of a folder is delivered first and
+     * the listing is only downloaded again if the etag of the folder changed.
+     *
+     * @param revalidate true to revalidate cached folder listings, false to always download them
+     * @return this
+     */
+    public BoxBrowseController setRevalidateFolders(boolean revalidate) {
+        mRevalidateFolders = revalidate;
+        return this;
+    }
+
+    /**
+     * Delivers a response to the dispatcher of its request, see {@link BoxResponseDispatcher#register(BoxRequest)},
+     * or to the completion listener if the request was not registered with a dispatcher.
+     *
+     * @param response the response
+     */
+    protected void deliver(BoxResponse response) {
+        if (!BoxResponseDispatcher.dispatch(response) && mListener != null) {
+            mListener.onCompleted(response);
+        }
+    }
+
+    /**
+     * Creates a task that delivers a cached response to the completion listener.
+     *
+     * @param response    the cached response
+     * @param networkTask the task fetching the same result from the network, if any. A cached response arriving after
+     *                    the network response is not delivered.
+     * @return the task
+     */
+    protected FutureTask<Void> createCachedResponseTask(final BoxResponse response, final Future<?> networkTask) {
+        return new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                if (networkTask == null || !networkTask.isDone()) {
+                    deliver(response);
+                }
+            }
+        }, null);
+    }
+
+    /**
+     * Adds the items of a fetched folder listing to the local name index.
+     *
+     * @param response the response
+     */
+    protected void indexResponse(BoxResponse response) {
+        if (mNameIndex == null || !response.isSuccess()) {
+            return;
+        }
+        if (response.getRequest() instanceof BoxRequestsFolder.GetFolderWithAllItems && response.getResult() instanceof BoxFolder) {
+            BoxFolder folder = (BoxFolder) response.getResult();
+            if (folder.getItemCollection() != null) {
+                mNameIndex.putFolder(folder.getId(), folder.getItemCollection().getEntries());
+            }
+        } else if (response.getRequest() instanceof BoxRequestsFolder.GetFolderItems && response.getResult() instanceof BoxIteratorItems) {
+            mNameIndex.addItems(((BoxRequestsFolder.GetFolderItems) response.getRequest()).getId(),
+                    ((BoxIteratorItems) response.getResult()).getEntries());
+        }
+    }
+
+    /**
+     * Sets the index of item names that local search results are looked up in.
+     *
+     * @param index the index, or null to not index fetched folders
+     * @return this
+     */
+    public BoxBrowseController setNameIndex(BoxLocalNameIndex index) {
+        mNameIndex = index;
+        return this;
+    }
+
+    @Override
+    public BoxLocalNameIndex getNameIndex() {
+        return mNameIndex;
+    }
+
+    /**
+     * Sets the cache used for search results.
+     *
+     * @param cache the cache, or null to always search on the server
+     * @return this
+     */
+    public BoxBrowseController setSearchResultCache(BoxSearchResultCache cache) {
+        mSearchResultCache = cache;
+        return this;
+    }
+
+    /**
+     * Gets the lane a request is executed in when the caller did not choose one.
+     *
+     * @param request the request
+     * @return the lane
+     */
+    protected RequestScheduler.Lane getLane(BoxRequest request) {
+        if (request instanceof BoxRequestsSearch.Search && ((BoxRequestsSearch.Search) request).getOffset() > 0) {
+            return RequestScheduler.Lane.PAGINATION;
+        }
+        return RequestScheduler.Lane.USER;
+    }
+
+    /**
+     * Sets the scheduler used by this controller. All controllers share a default scheduler unless one is set.
+     *
+     * @param scheduler the scheduler, or null to use the default scheduler
+     * @return this
+     */
+    public BoxBrowseController setRequestScheduler(RequestScheduler scheduler) {
+        mScheduler = scheduler;
+        return this;
+    }
+
+    @Override
+    public RequestScheduler getRequestScheduler() {
+        if (mScheduler != null) {
+            return mScheduler;
+        }
+        return getDefaultScheduler();
+    }
+
+    /**
+     * Gets the scheduler shared by all controllers, so that requests can be retained though activity/fragment lifecycle.
+     *
+     * @return the default scheduler
+     */
+    public static synchronized RequestScheduler getDefaultScheduler() {
+        if (mDefaultScheduler == null) {
+            mDefaultScheduler = new BoxRequestScheduler();
+        }
+        return mDefaultScheduler;
+    }
+
+    /**
+     * Sets the metrics of this controller. All controllers share the default metrics unless metrics are set. The time
+     * requests wait in their lane is reported to the metrics of the scheduler, see
+     * {@link BoxRequestScheduler#setMetrics(BrowseMetrics)}.
+     *
+     * @param metrics the metrics, or null to use the default metrics
+     * @return this
+     */
+    public BoxBrowseController setMetrics(BrowseMetrics metrics) {
+        mMetrics = metrics;
+        return this;
+    }
+
+    @Override
+    public BrowseMetrics getMetrics() {
+        if (mMetrics != null) {
+            return mMetrics;
+        }
+        return getDefaultMetrics();
+    }
+
+    /**
+     * Sets the metrics shared by all controllers, e.g. to export them to the telemetry of the app.
+     *
+     * @param metrics the metrics, or null to discard them
+     */
+    public static synchronized void setDefaultMetrics(BrowseMetrics metrics) {
+        mDefaultMetrics = metrics;
+    }
+
+    /**
+     * Gets the metrics shared by all controllers.
+     *
+     * @return the default metrics
+     */
+    public static synchronized BrowseMetrics getDefaultMetrics() {
+        return mDefaultMetrics != null ? mDefaultMetrics : BrowseMetrics.NONE;
     }
 
     @Override
@@ -170,8 +637,16 @@ public class BoxBrowseController implements BrowseController {
         return this;
     }
 
+    @Override
+    public BoxFutureTask.OnCompletedListener getCompletedListener() {
+        return mListener;
+    }
+
     @Override
     public void onError(Context context, BoxResponse response) {
+        if (isNotModified(response)) {
+            return;
+        }
         if (response.getRequest() instanceof BoxRequestsFolder.GetFolderWithAllItems) {
             Toast.makeText(context, R.string.box_browsesdk_problem_fetching_folder, Toast.LENGTH_LONG);
         } else if (response.getRequest() instanceof BoxRequestsSearch.Search) {
@@ -197,18 +672,6 @@ public class BoxBrowseController implements BrowseController {
         return mThumbnailManager;
     }
 
-    /**
-     * Gets api executor.
-     *
-     * @return the api executor
-     */
-    protected ThreadPoolExecutor getApiExecutor() {
-        if (mApiExecutor == null || mApiExecutor.isShutdown()) {
-            mApiExecutor = new ThreadPoolExecutor(1, 1, 3600, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
-        }
-        return mApiExecutor;
-    }
-
     @Override
     public LruCache<File, Bitmap> getThumbnailCache() {
         return mThumbnailCache;
@@ -278,7 +741,7 @@ public class BoxBrowseController implements BrowseController {
     @Override
     public ThreadPoolExecutor getThumbnailExecutor() {
         if (mThumbnailExecutor == null || mThumbnailExecutor.isShutdown()) {
-            mThumbnailExecutor = new ThreadPoolExecutor(5, 10, 3600, TimeUnit.SECONDS, new LinkedBlockingDeque<Runnable>());
+            mThumbnailExecutor = new PriorityThreadPoolExecutor(5, 10, 3600, TimeUnit.SECONDS);
         }
         return mThumbnailExecutor;
     }
@@ -305,5 +768,13 @@ public class BoxBrowseController implements BrowseController {
         protected int sizeOf(File key, Bitmap value) {
             return value.getByteCount() / 1024;
         }
+
+        @Override
+        protected void entryRemoved(boolean evicted, File key, Bitmap oldValue, Bitmap newValue) {
+            // Hand the memory of evicted thumbnails to the bitmap pool once they are no longer displayed
+            if (oldValue != newValue && mThumbnailManager != null) {
+                mThumbnailManager.onThumbnailRemoved(oldValue);
+            }
+        }
     }
 }
@@ -0,0 +1,234 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import com.box.androidsdk.content.requests.BoxRequest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/***
+ * Trace of the time until a browse fragment shows its first content, i.e. from the user opening a folder or starting a
+ * search to the first item being bound. The time is split into phases and reported to the {@link Listener} set with
+ * {@link #setListener(Listener)}. Every phase is also marked as an android.os.Trace section, so that it shows in
+ * systrace and perfetto captures.
+ *
+ * The box sdk parses responses while receiving them, so parsing a downloaded listing is part of the network phase.
+ * Only parsing a cached listing is measured as its own phase.
+ */
+public class BoxContentTrace {
+
+    /**
+     * The steps between opening a folder and showing its items.
+     */
+    public enum Phase {
+        /** Reading a listing from the folder cache, including parsing it. */
+        CACHE,
+        /** Sending a request, receiving its response and parsing it. */
+        NETWORK,
+        /** Parsing a cached listing. */
+        PARSE,
+        /** Computing the difference between the items shown before and the new items. */
+        DIFF
+    }
+
+    private static final String SECTION_PREFIX = "BoxBrowse:";
+
+    // Traces of the requests a fragment executes to load its items
+    private static final Map<BoxRequest, BoxContentTrace> REQUEST_TRACES = Collections.synchronizedMap(new WeakHashMap<BoxRequest, BoxContentTrace>());
+
+    private static volatile Listener sListener;
+
+    private final String mName;
+    private final long mStartedAt;
+    private final EnumMap<Phase, Long> mPhaseMillis = new EnumMap<Phase, Long>(Phase.class);
+    private boolean mIsCacheHit;
+    private long mTotalMillis = -1;
+
+    /**
+     * Instantiates a new Box content trace.
+     *
+     * @param name      what is traced, e.g. the simple class name of the fragment
+     * @param startedAt the {@link SystemClock#elapsedRealtime()} the user opened the folder or started the search at
+     */
+    public BoxContentTrace(String name, long startedAt) {
+        mName = name;
+        mStartedAt = startedAt;
+    }
+
+    /**
+     * Sets the listener finished traces are reported to.
+     *
+     * @param listener the listener, or null to not report traces
+     */
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * Gets the listener finished traces are reported to.
+     *
+     * @return the listener, or null if traces are not reported
+     */
+    public static Listener getListener() {
+        return sListener;
+    }
+
+    /**
+     * Records the phases of a request in this trace. Must be called before the request is executed.
+     *
+     * @param request the request loading the traced content
+     */
+    public void attach(BoxRequest request) {
+        if (request != null) {
+            REQUEST_TRACES.put(request, this);
+        }
+    }
+
+    /**
+     * Gets the trace the phases of a request are recorded in.
+     *
+     * @param request the request
+     * @return the trace, or null if the request is not traced or its trace already finished
+     */
+    public static BoxContentTrace forRequest(BoxRequest request) {
+        if (request == null) {
+            return null;
+        }
+        BoxContentTrace trace = REQUEST_TRACES.get(request);
+        return trace != null && !trace.isFinished() ? trace : null;
+    }
+
+    /**
+     * Adds the time spent in a phase. Phases that run more than once, e.g. the network phase of a paged folder, add up.
+     *
+     * @param phase  the phase
+     * @param millis the time spent in milliseconds
+     */
+    public synchronized void addPhase(Phase phase, long millis) {
+        if (isFinished()) {
+            return;
+        }
+        Long total = mPhaseMillis.get(phase);
+        mPhaseMillis.put(phase, total == null ? millis : total + millis);
+    }
+
+    /**
+     * Records that a cached result was shown before the network result arrived.
+     */
+    public synchronized void onCacheHit() {
+        if (!isFinished()) {
+            mIsCacheHit = true;
+        }
+    }
+
+    /**
+     * Finishes the trace once the first item is bound, and reports it to the listener.
+     *
+     * @return true if the trace was finished by this call, false if it had finished already
+     */
+    public boolean finish() {
+        synchronized (this) {
+            if (isFinished()) {
+                return false;
+            }
+            mTotalMillis = SystemClock.elapsedRealtime() - mStartedAt;
+        }
+        Listener listener = sListener;
+        if (listener != null) {
+            listener.onFirstContent(this);
+        }
+        return true;
+    }
+
+    /**
+     * Whether the first item has been bound.
+     *
+     * @return true if the trace is finished
+     */
+    public synchronized boolean isFinished() {
+        return mTotalMillis >= 0;
+    }
+
+    /**
+     * Gets the name of what is traced.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Gets the time from opening the folder to the first item being bound.
+     *
+     * @return the time in milliseconds, or -1 if the trace has not finished
+     */
+    public synchronized long getTotalMillis() {
+        return mTotalMillis;
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase the phase
+     * @return the time in milliseconds, 0 if the phase did not run
+     */
+    public synchronized long getPhaseMillis(Phase phase) {
+        Long millis = mPhaseMillis.get(phase);
+        return millis != null ? millis : 0;
+    }
+
+    /**
+     * Whether the first items shown came from the cache.
+     *
+     * @return true if a cached result was shown before the network result arrived
+     */
+    public synchronized boolean isCacheHit() {
+        return mIsCacheHit;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return mName + " " + mTotalMillis + "ms cacheHit=" + mIsCacheHit + " " + mPhaseMillis;
+    }
+
+    /**
+     * Begins an android.os.Trace section for a phase on the calling thread. Must be followed by
+     * {@link #endSection()} on the same thread.
+     *
+     * @param phase the phase
+     */
+    public static void beginSection(Phase phase) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(SECTION_PREFIX + phase.name().toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * Ends the android.os.Trace section begun last on the calling thread.
+     */
+    public static void endSection() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Receiver of finished traces, e.g. to export them to the telemetry of the app.
+     */
+    public interface Listener {
+
+        /**
+         * Called on the main thread once a fragment bound its first item.
+         *
+         * @param trace the finished trace
+         */
+        void onFirstContent(BoxContentTrace trace);
+    }
+}
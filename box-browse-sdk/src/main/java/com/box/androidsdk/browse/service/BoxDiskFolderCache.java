@@ -0,0 +1,598 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.SystemClock;
+
+import com.box.androidsdk.content.BoxCache;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.models.BoxIterator;
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.requests.BoxCacheableRequest;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/***
+ * Implementation of BoxCache that persists folder listings to disk so that they survive process death.
+ *
+ * Each folder is stored in its own file as a small binary header followed by the gzipped json of the folder.
+ * Entries are keyed by user id, folder id and the fields that were requested, and are bounded by a total byte budget
+ * (least recently used entries are evicted first) and by a maximum age. Every user should have a cache of their own,
+ * see {@link BoxSessionFolderCache}.
+ */
+public class BoxDiskFolderCache implements BoxCache {
+
+    private static final String TAG = BoxDiskFolderCache.class.getName();
+
+    /** Default byte budget for all cached folder listings. */
+    public static final long DEFAULT_MAX_SIZE_BYTES = 10 * 1024 * 1024;
+
+    /** Default maximum age of a cached folder listing. */
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final int MAGIC = 0x424f5846; // "BOXF"
+    // Version 1 entries were keyed without the user id and are dropped when the index is loaded
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".folder";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Fields requested by a given request. BoxRequest does not expose the fields it was configured with, so
+     * requests created by the controller register them here in order to be part of the cache key.
+     */
+    private static final Map<BoxRequest, String> REQUEST_FIELDS = Collections.synchronizedMap(new WeakHashMap<BoxRequest, String>());
+
+    private final File mCacheDir;
+    private final String mUserId;
+    private final long mMaxSizeBytes;
+    private final long mMaxAgeMillis;
+
+    /**
+     * Index of the entries on disk ordered from least to most recently used. Lazily loaded from the
+     * cache directory as cache calls are never made on the ui thread.
+     */
+    private final LinkedHashMap<String, Entry> mIndex = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long mSizeBytes;
+    private boolean mIsIndexLoaded;
+
+    /**
+     * Instantiates a new Box disk folder cache using the default size and age limits.
+     *
+     * @param cacheDir directory where folder listings will be stored
+     * @param userId   the user whose folder listings are stored
+     */
+    public BoxDiskFolderCache(File cacheDir, String userId) {
+        this(cacheDir, userId, DEFAULT_MAX_SIZE_BYTES, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Instantiates a new Box disk folder cache.
+     *
+     * @param cacheDir     directory where folder listings will be stored
+     * @param userId       the user whose folder listings are stored
+     * @param maxSizeBytes the maximum number of bytes all entries may use on disk
+     * @param maxAgeMillis the maximum age of an entry before it is no longer returned
+     */
+    public BoxDiskFolderCache(File cacheDir, String userId, long maxSizeBytes, long maxAgeMillis) {
+        mCacheDir = cacheDir;
+        mUserId = userId;
+        mMaxSizeBytes = maxSizeBytes;
+        mMaxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Registers the fields a request was configured with so they can be used as part of the cache key.
+     *
+     * @param request the request
+     * @param fields  the fields set on the request
+     */
+    public static void setRequestFields(BoxRequest request, String... fields) {
+        if (request == null) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (fields != null) {
+            for (String field : fields) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append(field);
+            }
+        }
+        REQUEST_FIELDS.put(request, builder.toString());
+    }
+
+    /**
+     * Gets the fields a request was registered with.
+     *
+     * @param request the request
+     * @return the fields, or null if the request was not registered
+     */
+    public static String[] getRequestFields(BoxRequest request) {
+        String fields = request != null ? REQUEST_FIELDS.get(request) : null;
+        if (fields == null) {
+            return null;
+        }
+        return fields.length() > 0 ? fields.split(",") : new String[0];
+    }
+
+    @Override
+    public <T extends BoxObject> void put(BoxResponse<T> response) throws BoxException {
+        if (response.isSuccess() && response.getRequest() instanceof BoxRequestsFolder.GetFolderWithAllItems
+                && response.getResult() instanceof BoxFolder) {
+            String key = createKey((BoxRequestsFolder.GetFolderWithAllItems) response.getRequest());
+            write(key, (BoxFolder) response.getResult());
+        }
+    }
+
+    @Override
+    public <T extends BoxObject, R extends BoxRequest & BoxCacheableRequest> T get(R request) throws BoxException {
+        if (request instanceof BoxRequestsFolder.GetFolderWithAllItems) {
+            return (T) read(createKey((BoxRequestsFolder.GetFolderWithAllItems) request), BoxContentTrace.forRequest(request));
+        }
+        return null;
+    }
+
+    /**
+     * Whether a listing is cached for the given request, without reading it.
+     *
+     * @param request the request
+     * @return true if a listing that has not expired is cached
+     */
+    public synchronized boolean contains(BoxRequestsFolder.GetFolderWithAllItems request) {
+        loadIndexIfNecessary();
+        Entry entry = mIndex.get(getFileName(createKey(request)));
+        return entry != null && System.currentTimeMillis() - entry.mCreatedAt <= mMaxAgeMillis;
+    }
+
+    /**
+     * Removes every cached listing of the given folder regardless of the fields it was requested with.
+     *
+     * @param folderId the folder id
+     */
+    public synchronized void invalidate(String folderId) {
+        loadIndexIfNecessary();
+        Iterator<Map.Entry<String, Entry>> iterator = mIndex.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (folderId.equals(entry.mFolderId)) {
+                iterator.remove();
+                deleteEntryFile(entry);
+            }
+        }
+    }
+
+    /**
+     * Applies item level changes to every cached listing of the given folder, so that the listing does not need to
+     * be fetched again.
+     *
+     * @param folderId   the folder id
+     * @param upserts    items added to the folder or changed, in their new state
+     * @param removedIds ids of items removed from the folder
+     */
+    public synchronized void applyChanges(String folderId, Collection<? extends BoxItem> upserts, Collection<String> removedIds) {
+        loadIndexIfNecessary();
+        ArrayList<Entry> entries = new ArrayList<Entry>();
+        for (Entry entry : mIndex.values()) {
+            if (folderId.equals(entry.mFolderId)) {
+                entries.add(entry);
+            }
+        }
+        for (Entry entry : entries) {
+            String key = readKey(entry);
+            BoxFolder folder = key != null ? read(key, null) : null;
+            if (folder != null) {
+                write(key, applyChanges(folder, upserts, removedIds));
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of a folder listing with item level changes applied. Changed items keep the fields they were
+     * listed with and take the fields of their new state, added items are appended.
+     *
+     * @param folder     the folder with its items
+     * @param upserts    items added to the folder or changed, in their new state
+     * @param removedIds ids of items removed from the folder
+     * @return the changed folder
+     */
+    protected BoxFolder applyChanges(BoxFolder folder, Collection<? extends BoxItem> upserts, Collection<String> removedIds) {
+        JsonObject json = JsonObject.readFrom(folder.toJson());
+        JsonValue itemCollection = json.get(BoxFolder.FIELD_ITEM_COLLECTION);
+        if (itemCollection == null || !itemCollection.isObject()) {
+            return folder;
+        }
+        JsonValue entries = itemCollection.asObject().get(BoxIterator.FIELD_ENTRIES);
+        if (entries == null || !entries.isArray()) {
+            return folder;
+        }
+        HashSet<String> removed = new HashSet<String>(removedIds);
+        LinkedHashMap<String, BoxItem> pending = new LinkedHashMap<String, BoxItem>();
+        for (BoxItem item : upserts) {
+            pending.put(item.getId(), item);
+        }
+        JsonArray newEntries = new JsonArray();
+        for (JsonValue value : entries.asArray()) {
+            if (!value.isObject()) {
+                continue;
+            }
+            JsonObject item = value.asObject();
+            JsonValue id = item.get(BoxItem.FIELD_ID);
+            String itemId = id != null && id.isString() ? id.asString() : null;
+            if (removed.contains(itemId)) {
+                continue;
+            }
+            BoxItem upsert = pending.remove(itemId);
+            if (upsert != null) {
+                for (String key : upsert.getPropertiesKeySet()) {
+                    item.set(key, upsert.getPropertyValue(key));
+                }
+            }
+            newEntries.add(item);
+        }
+        for (BoxItem upsert : pending.values()) {
+            JsonObject item = new JsonObject();
+            for (String key : upsert.getPropertiesKeySet()) {
+                item.add(key, upsert.getPropertyValue(key));
+            }
+            newEntries.add(item);
+        }
+        itemCollection.asObject().set(BoxIterator.FIELD_ENTRIES, newEntries);
+        // The listing holds all items of the folder.
+        itemCollection.asObject().set(BoxIterator.FIELD_TOTAL_COUNT, newEntries.size());
+        return new BoxFolder(json);
+    }
+
+    /**
+     * Removes all cached folder listings.
+     */
+    public synchronized void clear() {
+        loadIndexIfNecessary();
+        for (Entry entry : mIndex.values()) {
+            deleteEntryFile(entry);
+        }
+        mIndex.clear();
+        mSizeBytes = 0;
+    }
+
+    /**
+     * Gets the user whose folder listings are stored.
+     *
+     * @return the user id
+     */
+    public String getUserId() {
+        return mUserId;
+    }
+
+    /**
+     * Gets the number of bytes currently used on disk by this cache.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSizeBytes() {
+        loadIndexIfNecessary();
+        return mSizeBytes;
+    }
+
+    /**
+     * Creates the key used for the given request.
+     *
+     * @param request the request
+     * @return key made of the user id, the folder id and the requested fields
+     */
+    protected String createKey(BoxRequestsFolder.GetFolderWithAllItems request) {
+        String fields = REQUEST_FIELDS.get(request);
+        return mUserId + "|" + request.getId() + "|" + (fields == null ? "" : fields);
+    }
+
+    private synchronized BoxFolder read(String key, BoxContentTrace trace) {
+        loadIndexIfNecessary();
+        String fileName = getFileName(key);
+        Entry entry = mIndex.get(fileName);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.mCreatedAt > mMaxAgeMillis) {
+            removeEntry(fileName);
+            return null;
+        }
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(entry.mFile)));
+            Header header = Header.read(input);
+            if (header == null || !key.equals(header.mKey)) {
+                // Either corrupt or a hash collision, in both cases the entry is not for this request.
+                return null;
+            }
+            byte[] data = new byte[input.readInt()];
+            input.readFully(data);
+            // Record the access so that the lru order survives a process restart.
+            entry.mFile.setLastModified(System.currentTimeMillis());
+            long parseStartedAt = SystemClock.elapsedRealtime();
+            BoxContentTrace.beginSection(BoxContentTrace.Phase.PARSE);
+            try {
+                return new BoxFolder(JsonObject.readFrom(new String(decompress(data), "UTF-8")));
+            } finally {
+                BoxContentTrace.endSection();
+                if (trace != null) {
+                    trace.addPhase(BoxContentTrace.Phase.PARSE, SystemClock.elapsedRealtime() - parseStartedAt);
+                }
+            }
+        } catch (Exception e) {
+            BoxLogUtils.e(TAG, "Unable to read cached folder " + key, e);
+            removeEntry(fileName);
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    private String readKey(Entry entry) {
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(entry.mFile)));
+            Header header = Header.read(input);
+            return header != null ? header.mKey : null;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    private synchronized void write(String key, BoxFolder folder) {
+        loadIndexIfNecessary();
+        if (!mCacheDir.exists() && !mCacheDir.mkdirs()) {
+            return;
+        }
+        String fileName = getFileName(key);
+        File file = new File(mCacheDir, fileName);
+        File tempFile = new File(mCacheDir, fileName + TEMP_FILE_EXTENSION);
+        long createdAt = System.currentTimeMillis();
+        DataOutputStream output = null;
+        try {
+            byte[] data = compress(folder.toJson().getBytes("UTF-8"));
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            new Header(key, folder.getId(), createdAt).write(output);
+            output.writeInt(data.length);
+            output.write(data);
+            output.close();
+            output = null;
+            // Rename so that a reader never sees a partially written entry.
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+                return;
+            }
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, "Unable to write cached folder " + key, e);
+            closeQuietly(output);
+            tempFile.delete();
+            return;
+        }
+
+        Entry previous = mIndex.remove(fileName);
+        if (previous != null) {
+            mSizeBytes -= previous.mSize;
+        }
+        Entry entry = new Entry(file, folder.getId(), file.length(), createdAt);
+        mIndex.put(fileName, entry);
+        mSizeBytes += entry.mSize;
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> iterator = mIndex.entrySet().iterator();
+        while (mSizeBytes > mMaxSizeBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            deleteEntryFile(eldest);
+        }
+    }
+
+    private void removeEntry(String fileName) {
+        Entry entry = mIndex.remove(fileName);
+        if (entry != null) {
+            deleteEntryFile(entry);
+        }
+    }
+
+    private void deleteEntryFile(Entry entry) {
+        mSizeBytes -= entry.mSize;
+        entry.mFile.delete();
+    }
+
+    /**
+     * Builds the in memory index by reading the header of each entry. Only headers are read, folder json
+     * is decompressed on demand.
+     */
+    private void loadIndexIfNecessary() {
+        if (mIsIndexLoaded) {
+            return;
+        }
+        mIsIndexLoaded = true;
+        File[] files = mCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        ArrayList<Entry> entries = new ArrayList<Entry>(files.length);
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_EXTENSION)) {
+                // Left over from a write interrupted by process death.
+                file.delete();
+                continue;
+            }
+            if (!file.getName().endsWith(FILE_EXTENSION)) {
+                continue;
+            }
+            DataInputStream input = null;
+            Header header = null;
+            try {
+                input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                header = Header.read(input);
+            } catch (IOException e) {
+                header = null;
+            } finally {
+                closeQuietly(input);
+            }
+            if (header == null || now - header.mCreatedAt > mMaxAgeMillis) {
+                file.delete();
+                continue;
+            }
+            entries.add(new Entry(file, header.mFolderId, file.length(), header.mCreatedAt, file.lastModified()));
+        }
+        // Restore the access order that was last recorded through the file modification time.
+        Collections.sort(entries, Entry.ACCESS_ORDER);
+        for (Entry entry : entries) {
+            mIndex.put(entry.mFile.getName(), entry);
+            mSizeBytes += entry.mSize;
+        }
+        trimToSize();
+    }
+
+    private static String getFileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder(hash.length * 2 + FILE_EXTENSION.length());
+            for (byte b : hash) {
+                builder.append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
+            }
+            return builder.append(FILE_EXTENSION).toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(key.hashCode()) + FILE_EXTENSION;
+        }
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        try {
+            gzip.write(data);
+        } finally {
+            gzip.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length * 4);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = gzip.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        } finally {
+            gzip.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Ignore errors closing cache files.
+            }
+        }
+    }
+
+    /**
+     * Binary header stored at the start of every entry.
+     */
+    private static class Header {
+        final String mKey;
+        final String mFolderId;
+        final long mCreatedAt;
+
+        Header(String key, String folderId, long createdAt) {
+            mKey = key;
+            mFolderId = folderId;
+            mCreatedAt = createdAt;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(mCreatedAt);
+            output.writeUTF(mKey);
+            output.writeUTF(mFolderId);
+        }
+
+        static Header read(DataInputStream input) throws IOException {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long createdAt = input.readLong();
+            String key = input.readUTF();
+            String folderId = input.readUTF();
+            return new Header(key, folderId, createdAt);
+        }
+    }
+
+    /**
+     * In memory representation of an entry on disk.
+     */
+    private static class Entry {
+        static final Comparator<Entry> ACCESS_ORDER = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry lhs, Entry rhs) {
+                return lhs.mLastAccess < rhs.mLastAccess ? -1 : (lhs.mLastAccess == rhs.mLastAccess ? 0 : 1);
+            }
+        };
+
+        final File mFile;
+        final String mFolderId;
+        final long mSize;
+        final long mCreatedAt;
+        final long mLastAccess;
+
+        Entry(File file, String folderId, long size, long createdAt) {
+            this(file, folderId, size, createdAt, createdAt);
+        }
+
+        Entry(File file, String folderId, long size, long createdAt, long lastAccess) {
+            mFile = file;
+            mFolderId = folderId;
+            mSize = size;
+            mCreatedAt = createdAt;
+            mLastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.List;
+
+/***
+ * Source of item changes the {@link BoxFolderSyncEngine} keeps open folders current with, e.g. a long poll of the Box
+ * events api. The engine starts the source while at least one folder is open and stops it afterwards.
+ */
+public interface BoxEventSource {
+
+    /**
+     * Starts reporting changes. Called at most once until {@link #stop()} is called.
+     *
+     * @param listener the listener to report changes to, from any thread
+     */
+    void start(Listener listener);
+
+    /**
+     * Stops reporting changes.
+     */
+    void stop();
+
+    /**
+     * Receiver of the changes reported by an event source.
+     */
+    interface Listener {
+
+        /**
+         * Called with changes in the order they happened.
+         *
+         * @param events the changes
+         */
+        void onEvents(List<BoxSyncEvent> events);
+
+        /**
+         * Called when changes may have been missed, e.g. because the position in the event stream expired, so that
+         * open folders need to be fetched again.
+         */
+        void onReset();
+    }
+}
@@ -0,0 +1,106 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/***
+ * A set of fields requested for the items of a folder. Requesting only what is displayed keeps
+ * payloads, json parsing and memory use small for large folders.
+ */
+public class BoxFieldProfile implements Serializable {
+
+    /**
+     * Fields needed to display a row in a list or grid of items.
+     */
+    public static final BoxFieldProfile LIST_ROW = new BoxFieldProfile(
+            BoxItem.FIELD_TYPE,
+            BoxItem.FIELD_NAME,
+            BoxItem.FIELD_ETAG,
+            BoxItem.FIELD_MODIFIED_AT,
+            BoxItem.FIELD_SIZE,
+            BoxItem.FIELD_PERMISSIONS,
+            BoxFile.FIELD_SHA1,
+            BoxFolder.FIELD_HAS_COLLABORATIONS,
+            BoxFolder.FIELD_IS_EXTERNALLY_OWNED,
+            BoxFolder.FIELD_ITEM_COLLECTION);
+
+    /**
+     * All fields of files, folders and bookmarks. Used when an item is opened or returned to the caller.
+     */
+    public static final BoxFieldProfile DETAIL = new BoxFieldProfile(BoxFile.ALL_FIELDS)
+            .plus(BoxFolder.ALL_FIELDS)
+            .plus(BoxBookmark.ALL_FIELDS);
+
+    private final String[] mFields;
+
+    /**
+     * Instantiates a new Box field profile.
+     *
+     * @param fields the fields to request
+     */
+    public BoxFieldProfile(String... fields) {
+        LinkedHashSet<String> uniqueFields = new LinkedHashSet<String>();
+        Collections.addAll(uniqueFields, fields);
+        mFields = uniqueFields.toArray(new String[uniqueFields.size()]);
+    }
+
+    /**
+     * Creates a profile containing the fields of this profile and the given fields.
+     *
+     * @param fields additional fields to request
+     * @return the new profile
+     */
+    public BoxFieldProfile plus(String... fields) {
+        String[] combined = Arrays.copyOf(mFields, mFields.length + fields.length);
+        System.arraycopy(fields, 0, combined, mFields.length, fields.length);
+        return new BoxFieldProfile(combined);
+    }
+
+    /**
+     * Creates a profile containing the fields of this profile except the given fields.
+     *
+     * @param fields fields that should not be requested
+     * @return the new profile
+     */
+    public BoxFieldProfile minus(String... fields) {
+        LinkedHashSet<String> remaining = new LinkedHashSet<String>(Arrays.asList(mFields));
+        remaining.removeAll(Arrays.asList(fields));
+        return new BoxFieldProfile(remaining.toArray(new String[remaining.size()]));
+    }
+
+    /**
+     * Gets the fields of this profile.
+     *
+     * @return the fields
+     */
+    public String[] getFields() {
+        return mFields.clone();
+    }
+
+    /**
+     * Checks whether this profile requests all the fields of the other profile.
+     *
+     * @param other the other profile
+     * @return true if all fields of the other profile are requested by this one
+     */
+    public boolean containsAll(BoxFieldProfile other) {
+        return Arrays.asList(mFields).containsAll(Arrays.asList(other.mFields));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoxFieldProfile && Arrays.equals(mFields, ((BoxFieldProfile) o).mFields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(mFields);
+    }
+}
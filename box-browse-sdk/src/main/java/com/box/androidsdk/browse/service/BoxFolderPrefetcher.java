@@ -0,0 +1,229 @@
+package com.box.androidsdk.browse.service;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+import com.box.androidsdk.content.BoxCache;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/***
+ * Warms the folder cache with the listings of the folders the user is likely to open next, so that navigating into
+ * them shows the cached listing right away instead of waiting for a round trip.
+ *
+ * The candidates are the first subfolders of the folder being shown, in the order they are listed. Prefetching starts
+ * once the main thread is idle, runs in the {@link RequestScheduler.Lane#PREFETCH} lane so that it yields to user
+ * facing requests, and is limited by a budget depending on the network and the battery: nothing is prefetched while
+ * offline, in battery saver or low on battery, and fewer folders are prefetched on metered networks.
+ */
+public class BoxFolderPrefetcher {
+
+    private static final String TAG = BoxFolderPrefetcher.class.getName();
+
+    /** Default number of folders prefetched on an unmetered network. */
+    public static final int DEFAULT_UNMETERED_BUDGET = 5;
+
+    /** Default number of folders prefetched on a metered network. */
+    public static final int DEFAULT_METERED_BUDGET = 2;
+
+    /** Battery percentage below which nothing is prefetched unless charging. */
+    protected static final int LOW_BATTERY_PERCENT = 20;
+
+    private final Context mContext;
+    private final BrowseController mController;
+    private int mUnmeteredBudget = DEFAULT_UNMETERED_BUDGET;
+    private int mMeteredBudget = DEFAULT_METERED_BUDGET;
+
+    // Folders waiting for the main thread to become idle. ui thread only
+    private List<BoxFolder> mCandidates;
+    private final ArrayList<Future<?>> mScheduled = new ArrayList<Future<?>>();
+
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            List<BoxFolder> candidates = mCandidates;
+            mCandidates = null;
+            if (candidates != null) {
+                schedule(candidates);
+            }
+            // Run once per call to prefetch.
+            return false;
+        }
+    };
+
+    /**
+     * Instantiates a new Box folder prefetcher.
+     *
+     * @param context    the context
+     * @param controller the controller used to create and schedule the requests
+     */
+    public BoxFolderPrefetcher(Context context, BrowseController controller) {
+        mContext = context.getApplicationContext();
+        mController = controller;
+    }
+
+    /**
+     * Sets the number of folders prefetched for each shown folder.
+     *
+     * @param unmeteredBudget the number of folders on an unmetered network, e.g. wifi
+     * @param meteredBudget   the number of folders on a metered network, e.g. cellular
+     * @return this
+     */
+    public BoxFolderPrefetcher setBudget(int unmeteredBudget, int meteredBudget) {
+        mUnmeteredBudget = unmeteredBudget;
+        mMeteredBudget = meteredBudget;
+        return this;
+    }
+
+    /**
+     * Prefetches the first subfolders among the items of a shown folder once the main thread is idle. Replaces the
+     * candidates of a previous call that have not been prefetched yet. Must be called from the main thread.
+     *
+     * @param items the items shown, in the order they are shown
+     */
+    public void prefetch(List<BoxItem> items) {
+        cancel();
+        ArrayList<BoxFolder> candidates = new ArrayList<BoxFolder>();
+        int maxBudget = Math.max(mUnmeteredBudget, mMeteredBudget);
+        for (int i = 0; i < items.size() && candidates.size() < maxBudget; i++) {
+            if (items.get(i) instanceof BoxFolder) {
+                candidates.add((BoxFolder) items.get(i));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        mCandidates = candidates;
+        Looper.myQueue().addIdleHandler(mIdleHandler);
+    }
+
+    /**
+     * Cancels the prefetches that have not started yet. Prefetches already in flight complete and are cached, as the
+     * user may be navigating into one of them. Must be called from the main thread.
+     */
+    public void cancel() {
+        mCandidates = null;
+        Looper.myQueue().removeIdleHandler(mIdleHandler);
+        for (Future<?> future : mScheduled) {
+            future.cancel(false);
+        }
+        mScheduled.clear();
+    }
+
+    /**
+     * Gets the number of folders that may be prefetched right now.
+     *
+     * @return the number of folders, 0 to not prefetch
+     */
+    protected int getBudget() {
+        if (isBatteryLow()) {
+            return 0;
+        }
+        NetworkInfo networkInfo;
+        boolean isMetered;
+        try {
+            ConnectivityManager connectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+            networkInfo = connectivityManager.getActiveNetworkInfo();
+            isMetered = connectivityManager.isActiveNetworkMetered();
+        } catch (SecurityException e) {
+            // The app does not hold the network state permission, assume the most conservative network.
+            return mMeteredBudget;
+        }
+        if (networkInfo == null || !networkInfo.isConnected()) {
+            return 0;
+        }
+        return isMetered ? mMeteredBudget : mUnmeteredBudget;
+    }
+
+    /**
+     * Whether the device is saving battery, or low on battery and not charging.
+     *
+     * @return true if prefetching should be skipped to save battery
+     */
+    protected boolean isBatteryLow() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && powerManager.isPowerSaveMode()) {
+                return true;
+            }
+        }
+        // The battery status is a sticky broadcast, registering without a receiver only reads its last value.
+        Intent battery = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null) {
+            return false;
+        }
+        int status = battery.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        if (status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL) {
+            return false;
+        }
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        return level >= 0 && scale > 0 && level * 100 / scale < LOW_BATTERY_PERCENT;
+    }
+
+    private void schedule(List<BoxFolder> candidates) {
+        int budget = Math.min(getBudget(), candidates.size());
+        for (int i = 0; i < budget; i++) {
+            final BoxRequestsFolder.GetFolderWithAllItems request = mController.getFolderWithAllItems(candidates.get(i).getId());
+            mScheduled.add(mController.getRequestScheduler().submit(RequestScheduler.Lane.PREFETCH, new Runnable() {
+                @Override
+                public void run() {
+                    prefetchFolder(request);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Fetches a folder listing unless it is already cached. Called on a prefetch thread.
+     *
+     * @param request the request of the folder listing
+     */
+    protected void prefetchFolder(BoxRequestsFolder.GetFolderWithAllItems request) {
+        BoxCache cache = BoxConfig.getCache();
+        if (cache == null || isCached(cache, request)) {
+            return;
+        }
+        long startedAt = SystemClock.elapsedRealtime();
+        try {
+            // The request writes its result to the folder cache once it has been received.
+            BoxFolder folder = request.send();
+            mController.getMetrics().recordLatency(BrowseMetrics.REQUEST_NETWORK, request.getClass().getSimpleName(),
+                    SystemClock.elapsedRealtime() - startedAt);
+            BoxLocalNameIndex nameIndex = mController.getNameIndex();
+            if (nameIndex != null && folder != null && folder.getItemCollection() != null) {
+                nameIndex.putFolder(folder.getId(), folder.getItemCollection().getEntries());
+            }
+        } catch (BoxException e) {
+            mController.getMetrics().increment(BrowseMetrics.REQUEST_ERROR, request.getClass().getSimpleName());
+            mController.Log(TAG, "Unable to prefetch folder " + request.getId(), e);
+        }
+    }
+
+    private boolean isCached(BoxCache cache, BoxRequestsFolder.GetFolderWithAllItems request) {
+        if (cache instanceof BoxSessionFolderCache) {
+            return ((BoxSessionFolderCache) cache).contains(request);
+        }
+        try {
+            return cache.get(request) != null;
+        } catch (BoxException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.box.androidsdk.content.BoxCache;
+import com.box.androidsdk.content.BoxConfig;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Keeps open folders current by applying item level changes reported by a {@link BoxEventSource}, instead of fetching
+ * the whole listing again.
+ *
+ * Changes are grouped per open folder, applied to the cached listings of the folder, and then delivered on the main
+ * thread to the listeners of the folder, which apply them to the items they show. The event source only runs while at
+ * least one folder is registered. Sync is off unless the app sets a default engine with {@link #setDefault(BoxFolderSyncEngine)}.
+ */
+public class BoxFolderSyncEngine implements BoxEventSource.Listener {
+
+    private static BoxFolderSyncEngine sDefault;
+
+    // Static executor so that cached listings of all engines are updated one at a time off the ui thread
+    private static ThreadPoolExecutor mCacheExecutor;
+
+    private final BoxEventSource mEventSource;
+    private final String mUserId;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final HashMap<String, ArrayList<FolderListener>> mListeners = new HashMap<String, ArrayList<FolderListener>>();
+    private boolean mIsStarted;
+
+    /**
+     * Instantiates a new Box folder sync engine. The user of the changes is not known, so cached listings of changed
+     * folders are dropped instead of updated.
+     *
+     * @param eventSource the source of the changes
+     */
+    public BoxFolderSyncEngine(BoxEventSource eventSource) {
+        this(eventSource, null);
+    }
+
+    /**
+     * Instantiates a new Box folder sync engine for the changes of a user.
+     *
+     * @param eventSource the source of the changes
+     * @param userId      the user the changes were made for
+     */
+    public BoxFolderSyncEngine(BoxEventSource eventSource, String userId) {
+        mEventSource = eventSource;
+        mUserId = userId;
+    }
+
+    /**
+     * Gets the engine used by the browse fragments.
+     *
+     * @return the default engine, or null if folders are not synced
+     */
+    public static synchronized BoxFolderSyncEngine getDefault() {
+        return sDefault;
+    }
+
+    /**
+     * Sets the engine used by the browse fragments.
+     *
+     * @param engine the engine, or null to not sync folders
+     */
+    public static synchronized void setDefault(BoxFolderSyncEngine engine) {
+        sDefault = engine;
+    }
+
+    /**
+     * Gets the user the changes are made for.
+     *
+     * @return the user id, or null if it is not known
+     */
+    public String getUserId() {
+        return mUserId;
+    }
+
+    /**
+     * Starts delivering the changes of a folder to a listener, e.g. while the folder is shown.
+     *
+     * @param folderId the folder id
+     * @param listener the listener
+     */
+    public synchronized void register(String folderId, FolderListener listener) {
+        ArrayList<FolderListener> listeners = mListeners.get(folderId);
+        if (listeners == null) {
+            listeners = new ArrayList<FolderListener>(1);
+            mListeners.put(folderId, listeners);
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (!mIsStarted) {
+            mIsStarted = true;
+            mEventSource.start(this);
+        }
+    }
+
+    /**
+     * Stops delivering the changes of a folder to a listener.
+     *
+     * @param folderId the folder id
+     * @param listener the listener
+     */
+    public synchronized void unregister(String folderId, FolderListener listener) {
+        ArrayList<FolderListener> listeners = mListeners.get(folderId);
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                mListeners.remove(folderId);
+            }
+        }
+        if (mIsStarted && mListeners.isEmpty()) {
+            mIsStarted = false;
+            mEventSource.stop();
+        }
+    }
+
+    @Override
+    public void onEvents(List<BoxSyncEvent> events) {
+        HashSet<String> openFolderIds;
+        synchronized (this) {
+            openFolderIds = new HashSet<String>(mListeners.keySet());
+        }
+        final LinkedHashMap<String, FolderChanges> changes = new LinkedHashMap<String, FolderChanges>();
+        for (BoxSyncEvent event : events) {
+            BoxItem item = event.getItem();
+            if (item == null || item.getId() == null) {
+                continue;
+            }
+            if (event.getType() == BoxSyncEvent.Type.MOVED) {
+                // The folder the item was moved from is not known, so it is removed from every other open folder.
+                for (String folderId : openFolderIds) {
+                    if (!folderId.equals(event.getParentId())) {
+                        getChanges(changes, folderId).remove(item.getId());
+                    }
+                }
+            }
+            if (event.getParentId() == null || !openFolderIds.contains(event.getParentId())) {
+                continue;
+            }
+            if (event.getType() == BoxSyncEvent.Type.DELETED) {
+                getChanges(changes, event.getParentId()).remove(item.getId());
+            } else {
+                getChanges(changes, event.getParentId()).upsert(item);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                BoxCache cache = BoxConfig.getCache();
+                if (cache instanceof BoxSessionFolderCache) {
+                    updateCachedListings((BoxSessionFolderCache) cache, changes);
+                }
+                postToMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Map.Entry<String, FolderChanges> entry : changes.entrySet()) {
+                            for (FolderListener listener : getListeners(entry.getKey())) {
+                                listener.onFolderChanged(entry.getKey(), entry.getValue().getUpserts(), entry.getValue().getRemovedIds());
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void onReset() {
+        postToMainThread(new Runnable() {
+            @Override
+            public void run() {
+                ArrayList<String> folderIds;
+                synchronized (BoxFolderSyncEngine.this) {
+                    folderIds = new ArrayList<String>(mListeners.keySet());
+                }
+                for (String folderId : folderIds) {
+                    for (FolderListener listener : getListeners(folderId)) {
+                        listener.onResyncRequired(folderId);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a task updating cached listings off the main thread, one at a time.
+     *
+     * @param task the task
+     */
+    protected void executeInBackground(Runnable task) {
+        getCacheExecutor().execute(task);
+    }
+
+    /**
+     * Runs a task delivering changes to the listeners on the main thread.
+     *
+     * @param task the task
+     */
+    protected void postToMainThread(Runnable task) {
+        mHandler.post(task);
+    }
+
+    private void updateCachedListings(BoxSessionFolderCache cache, Map<String, FolderChanges> changes) {
+        BoxDiskFolderCache userCache = mUserId != null ? cache.getUserCache(mUserId) : null;
+        for (Map.Entry<String, FolderChanges> entry : changes.entrySet()) {
+            if (userCache != null) {
+                userCache.applyChanges(entry.getKey(), entry.getValue().getUpserts(), entry.getValue().getRemovedIds());
+            } else if (mUserId == null) {
+                // Folder ids like the root folder are the same for every account, so no listing can be updated safely.
+                for (BoxDiskFolderCache folderCache : cache.getCaches()) {
+                    folderCache.invalidate(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private synchronized ArrayList<FolderListener> getListeners(String folderId) {
+        ArrayList<FolderListener> listeners = mListeners.get(folderId);
+        return listeners != null ? new ArrayList<FolderListener>(listeners) : new ArrayList<FolderListener>(0);
+    }
+
+    private static FolderChanges getChanges(Map<String, FolderChanges> changes, String folderId) {
+        FolderChanges folderChanges = changes.get(folderId);
+        if (folderChanges == null) {
+            folderChanges = new FolderChanges();
+            changes.put(folderId, folderChanges);
+        }
+        return folderChanges;
+    }
+
+    /**
+     * Returns the executor used to update cached listings.
+     *
+     * @return the cache executor
+     */
+    protected static synchronized ThreadPoolExecutor getCacheExecutor() {
+        if (mCacheExecutor == null || mCacheExecutor.isShutdown()) {
+            mCacheExecutor = new ThreadPoolExecutor(1, 1, 3600, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+        return mCacheExecutor;
+    }
+
+    /**
+     * The net changes of a folder within a batch of events. Later events on the same item replace earlier ones.
+     */
+    private static class FolderChanges {
+
+        private final LinkedHashMap<String, BoxItem> mUpserts = new LinkedHashMap<String, BoxItem>();
+        private final LinkedHashSet<String> mRemovedIds = new LinkedHashSet<String>();
+
+        void upsert(BoxItem item) {
+            mRemovedIds.remove(item.getId());
+            mUpserts.put(item.getId(), item);
+        }
+
+        void remove(String id) {
+            mUpserts.remove(id);
+            mRemovedIds.add(id);
+        }
+
+        List<BoxItem> getUpserts() {
+            return new ArrayList<BoxItem>(mUpserts.values());
+        }
+
+        List<String> getRemovedIds() {
+            return new ArrayList<String>(mRemovedIds);
+        }
+    }
+
+    /**
+     * Receiver of the changes of an open folder.
+     */
+    public interface FolderListener {
+
+        /**
+         * Called on the main thread with the net changes of a folder.
+         *
+         * @param folderId   the folder id
+         * @param upserts    items that were added to the folder or changed, in their new state
+         * @param removedIds ids of items that were removed from the folder
+         */
+        void onFolderChanged(String folderId, List<BoxItem> upserts, List<String> removedIds);
+
+        /**
+         * Called on the main thread when changes may have been missed and the folder needs to be fetched again.
+         *
+         * @param folderId the folder id
+         */
+        void onResyncRequired(String folderId);
+    }
+}
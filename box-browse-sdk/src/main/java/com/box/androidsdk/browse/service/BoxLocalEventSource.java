@@ -0,0 +1,64 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/***
+ * Event source whose changes are posted by the app itself, e.g. after it uploaded, renamed or deleted an item, or by
+ * tests standing in for the Box events api.
+ */
+public class BoxLocalEventSource implements BoxEventSource {
+
+    private volatile Listener mListener;
+
+    @Override
+    public void start(Listener listener) {
+        mListener = listener;
+    }
+
+    @Override
+    public void stop() {
+        mListener = null;
+    }
+
+    /**
+     * Reports changes to the sync engine. Changes posted while the source is stopped are dropped, as no folder is open.
+     *
+     * @param events the changes in the order they happened
+     */
+    public void post(BoxSyncEvent... events) {
+        post(Arrays.asList(events));
+    }
+
+    /**
+     * Reports changes to the sync engine. Changes posted while the source is stopped are dropped, as no folder is open.
+     *
+     * @param events the changes in the order they happened
+     */
+    public void post(List<BoxSyncEvent> events) {
+        Listener listener = mListener;
+        if (listener != null && !events.isEmpty()) {
+            listener.onEvents(new ArrayList<BoxSyncEvent>(events));
+        }
+    }
+
+    /**
+     * Requests every open folder to be fetched again.
+     */
+    public void reset() {
+        Listener listener = mListener;
+        if (listener != null) {
+            listener.onReset();
+        }
+    }
+
+    /**
+     * Whether the sync engine started this source, i.e. at least one folder is open.
+     *
+     * @return true if the source is started
+     */
+    public boolean isStarted() {
+        return mListener != null;
+    }
+}
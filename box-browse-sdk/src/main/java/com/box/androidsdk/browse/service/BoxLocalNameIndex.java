@@ -0,0 +1,342 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/***
+ * On device index of the names of items in folders that have already been fetched, so that search can show matches
+ * while the server search is still in flight.
+ *
+ * Names are split into words and every prefix of every word, up to {@link #MAX_PREFIX_LENGTH} characters, maps to the
+ * items containing it. A query matches an item when every word of the query is the prefix of a word of the name. The
+ * index remembers which folder every item was listed in, so that matches can be limited to a folder and its
+ * descendants, and is bounded by a number of folders (least recently indexed folders are dropped first).
+ *
+ * An index only holds the items of a single user, see {@link #getDefault(String)}.
+ */
+public class BoxLocalNameIndex {
+
+    /** Default number of folder listings kept in the index. */
+    public static final int DEFAULT_MAX_FOLDERS = 200;
+
+    /** Longest word prefix stored in the index. Longer query words are looked up by this prefix and then verified. */
+    protected static final int MAX_PREFIX_LENGTH = 12;
+
+    private static final HashMap<String, BoxLocalNameIndex> USER_INDEXES = new HashMap<String, BoxLocalNameIndex>();
+    // Drops the default index of a user once the user logged out
+    private static final BoxSessionCaches.UserCache DEFAULT_INDEXES = new BoxSessionCaches.UserCache() {
+        @Override
+        public void clear(String userId) {
+            removeDefault(userId);
+        }
+    };
+
+    private final int mMaxFolders;
+
+    // Ids of the items listed in each folder, from least to most recently indexed folder
+    private final LinkedHashMap<String, HashSet<String>> mFolderChildren = new LinkedHashMap<String, HashSet<String>>(16, 0.75f, true);
+    private final HashMap<String, IndexedItem> mItems = new HashMap<String, IndexedItem>();
+    private final HashMap<String, HashSet<String>> mPrefixes = new HashMap<String, HashSet<String>>();
+
+    /**
+     * Instantiates a new Box local name index.
+     *
+     * @param maxFolders the maximum number of folder listings kept in the index
+     */
+    public BoxLocalNameIndex(int maxFolders) {
+        mMaxFolders = maxFolders;
+    }
+
+    /**
+     * Gets the index shared by all controllers of a user. The index of a user is dropped when the user logs out.
+     *
+     * @param userId the user id
+     * @return the default index of the user, or null if the user is unknown
+     */
+    public static synchronized BoxLocalNameIndex getDefault(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        BoxSessionCaches.register(DEFAULT_INDEXES);
+        BoxLocalNameIndex index = USER_INDEXES.get(userId);
+        if (index == null) {
+            index = new BoxLocalNameIndex(DEFAULT_MAX_FOLDERS);
+            USER_INDEXES.put(userId, index);
+        }
+        return index;
+    }
+
+    /**
+     * Drops the default index of a user, e.g. once the user logged out.
+     *
+     * @param userId the user id
+     */
+    public static void removeDefault(String userId) {
+        BoxLocalNameIndex index;
+        synchronized (BoxLocalNameIndex.class) {
+            index = USER_INDEXES.remove(userId);
+        }
+        if (index != null) {
+            // Controllers of the user may still hold the index.
+            index.clear();
+        }
+    }
+
+    /**
+     * Replaces the indexed items of a folder with a complete listing of the folder.
+     *
+     * @param folderId the folder id
+     * @param items    all items of the folder
+     */
+    public synchronized void putFolder(String folderId, Collection<? extends BoxItem> items) {
+        if (folderId == null || items == null) {
+            return;
+        }
+        HashSet<String> previous = mFolderChildren.remove(folderId);
+        if (previous != null) {
+            for (String key : previous) {
+                removeItem(key, folderId);
+            }
+        }
+        addItems(folderId, items);
+    }
+
+    /**
+     * Adds a page of items of a folder to the index, keeping the items of the folder that were indexed before.
+     *
+     * @param folderId the folder id
+     * @param items    the items
+     */
+    public synchronized void addItems(String folderId, Collection<? extends BoxItem> items) {
+        if (folderId == null || items == null) {
+            return;
+        }
+        HashSet<String> children = mFolderChildren.get(folderId);
+        if (children == null) {
+            children = new HashSet<String>();
+            mFolderChildren.put(folderId, children);
+        }
+        for (BoxItem item : items) {
+            if (item == null || item.getId() == null || item.getName() == null) {
+                continue;
+            }
+            // Files and folders do not share an id space.
+            String key = getKey(item.getType(), item.getId());
+            IndexedItem previous = mItems.get(key);
+            if (previous != null) {
+                // The item was renamed or moved since it was indexed.
+                removeItem(key, previous.mParentId);
+                HashSet<String> previousSiblings = mFolderChildren.get(previous.mParentId);
+                if (previousSiblings != null) {
+                    previousSiblings.remove(key);
+                }
+            }
+            IndexedItem indexed = new IndexedItem(item, folderId);
+            mItems.put(key, indexed);
+            children.add(key);
+            for (String prefix : getPrefixes(indexed.mWords)) {
+                HashSet<String> ids = mPrefixes.get(prefix);
+                if (ids == null) {
+                    ids = new HashSet<String>();
+                    mPrefixes.put(prefix, ids);
+                }
+                ids.add(key);
+            }
+        }
+        trimToSize();
+    }
+
+    /**
+     * Finds indexed items whose name matches the query.
+     *
+     * @param query            the query
+     * @param ancestorFolderId id of the folder matches must be in, directly or in a descendant, or null for any folder
+     * @param limit            the maximum number of matches
+     * @return the matching items, folders first and then by name
+     */
+    public synchronized ArrayList<BoxItem> search(String query, String ancestorFolderId, int limit) {
+        ArrayList<BoxItem> matches = new ArrayList<BoxItem>();
+        String[] queryWords = splitWords(query);
+        if (queryWords.length == 0) {
+            return matches;
+        }
+
+        // Start from the smallest candidate set to keep the intersection cheap.
+        HashSet<String> smallest = null;
+        for (String word : queryWords) {
+            HashSet<String> ids = mPrefixes.get(word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word);
+            if (ids == null) {
+                return matches;
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+
+        ArrayList<IndexedItem> found = new ArrayList<IndexedItem>();
+        for (String key : smallest) {
+            IndexedItem indexed = mItems.get(key);
+            if (indexed != null && indexed.matches(queryWords) && isDescendant(indexed, ancestorFolderId)) {
+                found.add(indexed);
+            }
+        }
+        Collections.sort(found, new Comparator<IndexedItem>() {
+            @Override
+            public int compare(IndexedItem lhs, IndexedItem rhs) {
+                if (lhs.mIsFolder != rhs.mIsFolder) {
+                    return lhs.mIsFolder ? -1 : 1;
+                }
+                return lhs.mName.compareTo(rhs.mName);
+            }
+        });
+        for (int i = 0; i < found.size() && matches.size() < limit; i++) {
+            matches.add(found.get(i).mItem);
+        }
+        return matches;
+    }
+
+    /**
+     * Removes all indexed items.
+     */
+    public synchronized void clear() {
+        mFolderChildren.clear();
+        mItems.clear();
+        mPrefixes.clear();
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return the number of items
+     */
+    public synchronized int size() {
+        return mItems.size();
+    }
+
+    private boolean isDescendant(IndexedItem indexed, String ancestorFolderId) {
+        if (ancestorFolderId == null) {
+            return true;
+        }
+        String parentId = indexed.mParentId;
+        // Bounded walk in case the listings describe a cycle, e.g. after an item was moved.
+        for (int depth = 0; parentId != null && depth < 100; depth++) {
+            if (parentId.equals(ancestorFolderId)) {
+                return true;
+            }
+            IndexedItem parent = mItems.get(getKey(BoxFolder.TYPE, parentId));
+            parentId = parent != null ? parent.mParentId : null;
+        }
+        return false;
+    }
+
+    private void removeItem(String key, String parentId) {
+        IndexedItem indexed = mItems.get(key);
+        if (indexed == null || !indexed.mParentId.equals(parentId)) {
+            return;
+        }
+        mItems.remove(key);
+        for (String prefix : getPrefixes(indexed.mWords)) {
+            HashSet<String> ids = mPrefixes.get(prefix);
+            if (ids != null) {
+                ids.remove(key);
+                if (ids.isEmpty()) {
+                    mPrefixes.remove(prefix);
+                }
+            }
+        }
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, HashSet<String>>> iterator = mFolderChildren.entrySet().iterator();
+        while (mFolderChildren.size() > mMaxFolders && iterator.hasNext()) {
+            Map.Entry<String, HashSet<String>> oldest = iterator.next();
+            iterator.remove();
+            for (String key : oldest.getValue()) {
+                removeItem(key, oldest.getKey());
+            }
+        }
+    }
+
+    private static String getKey(String type, String id) {
+        return type + ":" + id;
+    }
+
+    private static HashSet<String> getPrefixes(String[] words) {
+        HashSet<String> prefixes = new HashSet<String>();
+        for (String word : words) {
+            int length = Math.min(word.length(), MAX_PREFIX_LENGTH);
+            for (int i = 1; i <= length; i++) {
+                prefixes.add(word.substring(0, i));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Splits a name or query into lower case words. Case is folded with the root locale so that names and queries
+     * match the same way whatever the language of the device.
+     *
+     * @param text the text
+     * @return the words
+     */
+    static String[] splitWords(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<String>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 0) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[words.size()]);
+    }
+
+    /**
+     * An item in the index.
+     */
+    private static class IndexedItem {
+
+        private final BoxItem mItem;
+        private final String mParentId;
+        private final String mName;
+        private final String[] mWords;
+        private final boolean mIsFolder;
+
+        IndexedItem(BoxItem item, String parentId) {
+            mItem = item;
+            mParentId = parentId;
+            mName = item.getName().toLowerCase(Locale.ROOT);
+            mWords = splitWords(item.getName());
+            mIsFolder = item instanceof BoxFolder;
+        }
+
+        boolean matches(String[] queryWords) {
+            for (String queryWord : queryWords) {
+                boolean found = false;
+                for (String word : mWords) {
+                    if (word.startsWith(queryWord)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Default implementation for the {@link RequestScheduler}. Every lane has its own thread pool and thread priority.
+ * Prefetch work is additionally held back while user facing or pagination work is pending, and released once those
+ * lanes drain. The scheduler measures how long every task waits and reports it as
+ * {@link BrowseMetrics#REQUEST_QUEUE_WAIT}.
+ */
+public class BoxRequestScheduler implements RequestScheduler {
+
+    /**
+     * Time after which a held prefetch task is released even though higher priority lanes are still busy. Held tasks
+     * are checked whenever a higher priority task finishes or a new prefetch task is submitted.
+     */
+    protected static final long MAX_YIELD_MILLIS = 2000;
+
+    private final EnumMap<Lane, LaneExecutor> mLanes = new EnumMap<Lane, LaneExecutor>(Lane.class);
+    private volatile BrowseMetrics mMetrics;
+
+    /**
+     * Instantiates a new Box request scheduler with default concurrency: two threads for cache reads and user facing
+     * requests and one thread each for pagination and prefetch.
+     */
+    public BoxRequestScheduler() {
+        mLanes.put(Lane.CACHE, new LaneExecutor(this, Lane.CACHE, 2, Process.THREAD_PRIORITY_DEFAULT));
+        mLanes.put(Lane.USER, new LaneExecutor(this, Lane.USER, 2, Process.THREAD_PRIORITY_DEFAULT));
+        mLanes.put(Lane.PAGINATION, new LaneExecutor(this, Lane.PAGINATION, 1, Process.THREAD_PRIORITY_DEFAULT));
+        mLanes.put(Lane.PREFETCH, new LaneExecutor(this, Lane.PREFETCH, 1, Process.THREAD_PRIORITY_BACKGROUND));
+        mLanes.get(Lane.PREFETCH).setYieldTo(mLanes.get(Lane.USER), mLanes.get(Lane.PAGINATION));
+    }
+
+    @Override
+    public Future<?> submit(Lane lane, Runnable task) {
+        return mLanes.get(lane).submit(task);
+    }
+
+    @Override
+    public LaneStats getStats(Lane lane) {
+        return mLanes.get(lane).getStats();
+    }
+
+    /**
+     * Sets the number of tasks of a lane that may run at the same time.
+     *
+     * @param lane    the lane
+     * @param threads the number of threads
+     * @return this
+     */
+    public BoxRequestScheduler setConcurrency(Lane lane, int threads) {
+        LaneExecutor executor = mLanes.get(lane);
+        // The maximum may never be below the core size, so the order of the updates depends on the direction.
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the metrics the queue wait of every task is reported to. Defaults to
+     * {@link BoxBrowseController#getDefaultMetrics()}.
+     *
+     * @param metrics the metrics
+     * @return this
+     */
+    public BoxRequestScheduler setMetrics(BrowseMetrics metrics) {
+        mMetrics = metrics;
+        return this;
+    }
+
+    /**
+     * Gets the metrics the queue wait of every task is reported to.
+     *
+     * @return the metrics
+     */
+    public BrowseMetrics getMetrics() {
+        BrowseMetrics metrics = mMetrics;
+        return metrics != null ? metrics : BoxBrowseController.getDefaultMetrics();
+    }
+
+    /**
+     * Gets the executor of a lane.
+     *
+     * @param lane the lane
+     * @return the executor
+     */
+    public ThreadPoolExecutor getExecutor(Lane lane) {
+        return mLanes.get(lane);
+    }
+
+    /**
+     * Thread pool of a single lane that measures how long tasks wait before they start. A lane that yields to other
+     * lanes keeps its tasks in a separate holding queue, without occupying a thread, until those lanes are idle.
+     */
+    static class LaneExecutor extends ThreadPoolExecutor {
+
+        private final BoxRequestScheduler mScheduler;
+        private final Lane mLane;
+        private final ConcurrentHashMap<Runnable, Long> mQueuedAt = new ConcurrentHashMap<Runnable, Long>();
+        private final AtomicLong mStartedCount = new AtomicLong();
+        private final AtomicLong mTotalWaitMillis = new AtomicLong();
+        private final AtomicLong mMaxWaitMillis = new AtomicLong();
+        /** Tasks submitted to this lane that have not finished yet, including tasks waiting in its queue. */
+        private final AtomicInteger mPendingCount = new AtomicInteger();
+        private final List<LaneExecutor> mYieldTo = new ArrayList<LaneExecutor>();
+        private final List<LaneExecutor> mYielding = new CopyOnWriteArrayList<LaneExecutor>();
+        /** Tasks held back while a lane this lane yields to is busy. Guarded by this. */
+        private final ArrayDeque<Runnable> mHeld = new ArrayDeque<Runnable>();
+
+        LaneExecutor(BoxRequestScheduler scheduler, final Lane lane, int threads, final int threadPriority) {
+            super(threads, threads, 3600, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger mCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    return new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(threadPriority);
+                            runnable.run();
+                        }
+                    }, "BoxBrowse-" + lane.name().toLowerCase(Locale.ENGLISH) + "-" + mCount.incrementAndGet());
+                }
+            });
+            mScheduler = scheduler;
+            mLane = lane;
+        }
+
+        void setYieldTo(LaneExecutor... executors) {
+            for (LaneExecutor executor : executors) {
+                mYieldTo.add(executor);
+                executor.mYielding.add(this);
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            mQueuedAt.put(command, SystemClock.elapsedRealtime());
+            if (mYieldTo.isEmpty()) {
+                dispatch(command);
+                return;
+            }
+            synchronized (this) {
+                mHeld.add(command);
+            }
+            releaseHeld();
+        }
+
+        private void dispatch(Runnable command) {
+            mPendingCount.incrementAndGet();
+            try {
+                super.execute(command);
+            } catch (RejectedExecutionException e) {
+                mPendingCount.decrementAndGet();
+                mQueuedAt.remove(command);
+                throw e;
+            }
+        }
+
+        /**
+         * Hands held tasks to the thread pool, in the order they were submitted, while the lanes this lane yields to
+         * are idle or the oldest held task has waited longer than {@link #MAX_YIELD_MILLIS}.
+         */
+        void releaseHeld() {
+            List<Runnable> released = new ArrayList<Runnable>();
+            synchronized (this) {
+                while (!mHeld.isEmpty() && (!isHigherLaneBusy() || hasWaitedTooLong(mHeld.peek()))) {
+                    released.add(mHeld.poll());
+                }
+            }
+            for (Runnable command : released) {
+                try {
+                    dispatch(command);
+                } catch (RejectedExecutionException e) {
+                    // The lane was shut down, so is the scheduler.
+                }
+            }
+        }
+
+        private boolean hasWaitedTooLong(Runnable command) {
+            Long queuedAt = mQueuedAt.get(command);
+            return queuedAt == null || SystemClock.elapsedRealtime() - queuedAt >= MAX_YIELD_MILLIS;
+        }
+
+        private boolean isHigherLaneBusy() {
+            for (LaneExecutor executor : mYieldTo) {
+                if (executor.mPendingCount.get() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean remove(Runnable task) {
+            synchronized (this) {
+                if (mHeld.remove(task)) {
+                    mQueuedAt.remove(task);
+                    return true;
+                }
+            }
+            if (super.remove(task)) {
+                mQueuedAt.remove(task);
+                onTaskDone();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable runnable) {
+            super.beforeExecute(thread, runnable);
+            Long queuedAt = mQueuedAt.remove(runnable);
+            if (queuedAt != null) {
+                long waitMillis = SystemClock.elapsedRealtime() - queuedAt;
+                mStartedCount.incrementAndGet();
+                mTotalWaitMillis.addAndGet(waitMillis);
+                long max = mMaxWaitMillis.get();
+                while (waitMillis > max && !mMaxWaitMillis.compareAndSet(max, waitMillis)) {
+                    max = mMaxWaitMillis.get();
+                }
+                mScheduler.getMetrics().recordLatency(BrowseMetrics.REQUEST_QUEUE_WAIT, mLane.name(), waitMillis);
+            }
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            super.afterExecute(runnable, throwable);
+            onTaskDone();
+        }
+
+        private void onTaskDone() {
+            mPendingCount.decrementAndGet();
+            for (LaneExecutor executor : mYielding) {
+                executor.releaseHeld();
+            }
+        }
+
+        LaneStats getStats() {
+            int held;
+            synchronized (this) {
+                held = mHeld.size();
+            }
+            return new LaneStats(getQueue().size() + held, getActiveCount(), mStartedCount.get(), mTotalWaitMillis.get(),
+                    mMaxWaitMillis.get());
+        }
+    }
+}
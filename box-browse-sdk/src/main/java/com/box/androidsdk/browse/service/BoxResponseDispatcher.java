@@ -0,0 +1,167 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxResponse;
+import com.box.androidsdk.content.utils.BoxLogUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/***
+ * Delivers responses straight to the component that executed the requests, instead of broadcasting them to every
+ * registered receiver. Every fragment has its own dispatcher and {@link #register(BoxRequest) registers} its requests
+ * with it, so that a controller shared by several fragments delivers each response to the fragment that asked for it.
+ * {@link BoxBrowseController} routes responses to the dispatcher of their request, and only the responses of other
+ * requests to its own completion listener. Other controllers need a completion listener created by
+ * {@link #createRouter(BoxFutureTask.OnCompletedListener)}.
+ *
+ * Responses completing on background threads are queued and delivered in a single main thread message, so a burst of
+ * completions costs one message instead of one per response. Responses completing while no subscriber is set are
+ * dropped, the subscriber is expected to reload when it subscribes again.
+ */
+public class BoxResponseDispatcher implements BoxFutureTask.OnCompletedListener {
+
+    private static final String TAG = BoxResponseDispatcher.class.getName();
+
+    // Dispatchers the responses of requests are delivered to
+    private static final Map<BoxRequest, BoxResponseDispatcher> REQUEST_DISPATCHERS = Collections.synchronizedMap(new WeakHashMap<BoxRequest, BoxResponseDispatcher>());
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ArrayList<BoxResponse> mQueue = new ArrayList<BoxResponse>();
+    private boolean mIsDeliveryScheduled;
+    private volatile Subscriber mSubscriber;
+
+    private final Runnable mDeliverRunnable = new Runnable() {
+        @Override
+        public void run() {
+            ArrayList<BoxResponse> batch;
+            synchronized (mQueue) {
+                batch = new ArrayList<BoxResponse>(mQueue);
+                mQueue.clear();
+                mIsDeliveryScheduled = false;
+            }
+            Subscriber subscriber = mSubscriber;
+            if (subscriber == null) {
+                return;
+            }
+            for (BoxResponse response : batch) {
+                subscriber.onResponse(response);
+                // The subscriber may unsubscribe while handling a response.
+                if (mSubscriber != subscriber) {
+                    return;
+                }
+            }
+        }
+    };
+
+    /**
+     * Sets the subscriber responses are delivered to. Must be called from the main thread.
+     *
+     * @param subscriber the subscriber, or null to drop responses until a subscriber is set
+     */
+    public void setSubscriber(Subscriber subscriber) {
+        mSubscriber = subscriber;
+        if (subscriber == null) {
+            synchronized (mQueue) {
+                mQueue.clear();
+            }
+        }
+    }
+
+    /**
+     * Delivers the response of a request to this dispatcher. Must be called before the request is executed.
+     *
+     * @param request the request
+     */
+    public void register(BoxRequest request) {
+        if (request != null) {
+            REQUEST_DISPATCHERS.put(request, this);
+        }
+    }
+
+    /**
+     * Delivers a response to the dispatcher its request was registered with.
+     *
+     * @param response the response
+     * @return true if the request was registered with a dispatcher
+     */
+    public static boolean dispatch(BoxResponse response) {
+        BoxResponseDispatcher dispatcher = response.getRequest() != null ? REQUEST_DISPATCHERS.get(response.getRequest()) : null;
+        if (dispatcher == null) {
+            return false;
+        }
+        dispatcher.onCompleted(response);
+        return true;
+    }
+
+    /**
+     * Creates a completion listener that delivers responses to the dispatcher their request was registered with, and
+     * the responses of other requests to a listener.
+     *
+     * @param listener the listener of responses of requests that were not registered, may be null
+     * @return the completion listener, or the given listener if it already routes responses
+     */
+    public static BoxFutureTask.OnCompletedListener createRouter(BoxFutureTask.OnCompletedListener listener) {
+        if (listener instanceof Router) {
+            return listener;
+        }
+        return new Router(listener);
+    }
+
+    @Override
+    public void onCompleted(BoxResponse response) {
+        // A folder that did not change is not a failure.
+        if (!response.isSuccess() && !BoxBrowseController.isNotModified(response)) {
+            BoxLogUtils.e(TAG, response.getException());
+        }
+        if (mSubscriber == null) {
+            return;
+        }
+        synchronized (mQueue) {
+            mQueue.add(response);
+            if (mIsDeliveryScheduled) {
+                return;
+            }
+            mIsDeliveryScheduled = true;
+        }
+        mHandler.post(mDeliverRunnable);
+    }
+
+    /**
+     * Completion listener routing responses to their dispatcher, see {@link #createRouter(BoxFutureTask.OnCompletedListener)}.
+     */
+    private static class Router implements BoxFutureTask.OnCompletedListener {
+
+        private final BoxFutureTask.OnCompletedListener mListener;
+
+        Router(BoxFutureTask.OnCompletedListener listener) {
+            mListener = listener;
+        }
+
+        @Override
+        public void onCompleted(BoxResponse response) {
+            if (!dispatch(response) && mListener != null) {
+                mListener.onCompleted(response);
+            }
+        }
+    }
+
+    /**
+     * Receiver of the responses of the requests executed by a controller.
+     */
+    public interface Subscriber {
+
+        /**
+         * Called on the main thread for every response.
+         *
+         * @param response the response
+         */
+        void onResponse(BoxResponse response);
+    }
+}
@@ -0,0 +1,263 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.browse.models.BoxSearchFilters;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestsSearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * In memory cache of search result pages so that repeating a recent search, e.g. picking it from the recent searches or
+ * returning from the filter screen, shows results without waiting for the network.
+ *
+ * Pages are keyed by the user, the normalized query, the filters, the ancestor folder, the page size and the offset,
+ * so that the results of one account are never shown to another, and are bounded by a number of entries (least recently used entries are evicted first). A page younger than the fresh age is
+ * served without a request; an older page is served while the request revalidates it, until it reaches the maximum age.
+ * The pages of a user are removed when the user logs out.
+ */
+public class BoxSearchResultCache implements BoxSessionCaches.UserCache {
+
+    /** Default number of result pages kept in memory. */
+    public static final int DEFAULT_MAX_ENTRIES = 50;
+
+    /** Default age up to which a page is served without revalidating it. */
+    public static final long DEFAULT_FRESH_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /** Default age after which a page is no longer served. */
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Keys of the search a request was created for. BoxRequestsSearch does not expose its query and filters, so
+     * requests created by the search fragment register them here in order to be cached.
+     */
+    private static final Map<BoxRequest, String> REQUEST_KEYS = Collections.synchronizedMap(new WeakHashMap<BoxRequest, String>());
+
+    private static BoxSearchResultCache sDefault;
+
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final int mMaxEntries;
+    private final long mFreshMillis;
+    private final long mMaxAgeMillis;
+
+    /**
+     * Instantiates a new Box search result cache.
+     *
+     * @param maxEntries   the maximum number of result pages
+     * @param freshMillis  the age up to which a page is served without revalidating it
+     * @param maxAgeMillis the age after which a page is no longer served
+     */
+    public BoxSearchResultCache(int maxEntries, long freshMillis, long maxAgeMillis) {
+        mMaxEntries = maxEntries;
+        mFreshMillis = freshMillis;
+        mMaxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Gets the cache shared by all controllers. Removes the results of a user when the user logs out.
+     *
+     * @return the default cache
+     */
+    public static synchronized BoxSearchResultCache getDefault() {
+        if (sDefault == null) {
+            sDefault = new BoxSearchResultCache(DEFAULT_MAX_ENTRIES, DEFAULT_FRESH_MILLIS, DEFAULT_MAX_AGE_MILLIS);
+            BoxSessionCaches.register(sDefault);
+        }
+        return sDefault;
+    }
+
+    /**
+     * Creates the key of a search, without the user and the offset of the page.
+     *
+     * @param query            the query
+     * @param filters          the filters, may be null
+     * @param ancestorFolderId id of the folder the search is limited to, may be null
+     * @param limit            the page size
+     * @return the key
+     */
+    public static String createKey(String query, BoxSearchFilters filters, String ancestorFolderId, int limit) {
+        StringBuilder builder = new StringBuilder(normalizeQuery(query));
+        builder.append('|').append(ancestorFolderId).append('|').append(limit).append('|');
+        if (filters != null) {
+            ArrayList<String> types = new ArrayList<String>();
+            if (filters.mItemTypes != null) {
+                for (BoxSearchFilters.ItemType type : filters.mItemTypes) {
+                    types.add(type.name());
+                }
+            }
+            Collections.sort(types);
+            builder.append(types).append('|').append(filters.mItemModifiedDate).append('|').append(filters.mItemSize);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Normalizes a query so that searches differing only in case or whitespace share their results. Case is folded
+     * with the root locale so that keys do not depend on the language of the device.
+     *
+     * @param query the query
+     * @return the normalized query
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers the search a request was created for so that its results can be cached.
+     *
+     * @param request the request
+     * @param key     the key created by {@link #createKey(String, BoxSearchFilters, String, int)}
+     */
+    public static void setRequestKey(BoxRequestsSearch.Search request, String key) {
+        if (request != null && key != null) {
+            REQUEST_KEYS.put(request, key);
+        }
+    }
+
+    /**
+     * Gets the key of the page a request fetches.
+     *
+     * @param userId  the user the request is made for
+     * @param request the request
+     * @return the key, or null if the user is unknown or the request was not registered
+     */
+    public static String getKey(String userId, BoxRequestsSearch.Search request) {
+        return getKey(userId, REQUEST_KEYS.get(request), request.getOffset());
+    }
+
+    /**
+     * Gets the key of a page of a search.
+     *
+     * @param userId    the user the search is made for
+     * @param searchKey the key created by {@link #createKey(String, BoxSearchFilters, String, int)}
+     * @param offset    the offset of the page
+     * @return the key, or null if the user or the search is unknown
+     */
+    public static String getKey(String userId, String searchKey, int offset) {
+        return searchKey == null || userId == null ? null : userId + "|" + searchKey + "|" + offset;
+    }
+
+    /**
+     * Caches a page of results.
+     *
+     * @param key   the key of the page
+     * @param items the results
+     */
+    public synchronized void put(String key, BoxIteratorItems items) {
+        if (key == null || items == null) {
+            return;
+        }
+        mEntries.put(key, new Entry(items, currentTimeMillis()));
+        Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        while (mEntries.size() > mMaxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets a cached page of results.
+     *
+     * @param key the key of the page
+     * @return the entry, or null if the page is not cached or too old
+     */
+    public synchronized Entry get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Entry entry = mEntries.get(key);
+        if (entry != null && getAgeMillis(entry) > mMaxAgeMillis) {
+            mEntries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Whether a cached page can be served without revalidating it.
+     *
+     * @param entry the entry
+     * @return true if the entry is fresh
+     */
+    public boolean isFresh(Entry entry) {
+        return getAgeMillis(entry) <= mFreshMillis;
+    }
+
+    /**
+     * Gets the current time the age of cached pages is measured with.
+     *
+     * @return the current time in milliseconds
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private long getAgeMillis(Entry entry) {
+        return currentTimeMillis() - entry.mCreatedAt;
+    }
+
+    /**
+     * Removes all cached results, e.g. after the user changed content so that results may be outdated.
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * Removes all cached results of a user, e.g. once the user logged out.
+     *
+     * @param userId the user id
+     */
+    @Override
+    public synchronized void clear(String userId) {
+        String prefix = userId + "|";
+        Iterator<String> iterator = mEntries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * A cached page of results.
+     */
+    public static class Entry {
+
+        private final BoxIteratorItems mItems;
+        private final long mCreatedAt;
+
+        Entry(BoxIteratorItems items, long createdAt) {
+            mItems = items;
+            mCreatedAt = createdAt;
+        }
+
+        /**
+         * Gets the cached results.
+         *
+         * @return the results
+         */
+        public BoxIteratorItems getItems() {
+            return mItems;
+        }
+
+        /**
+         * Gets the time since the results were fetched.
+         *
+         * @return the age in milliseconds
+         */
+        public long getAgeMillis() {
+            return System.currentTimeMillis() - mCreatedAt;
+        }
+    }
+}
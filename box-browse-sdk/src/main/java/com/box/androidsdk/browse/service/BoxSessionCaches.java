@@ -0,0 +1,91 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.auth.BoxAuthentication;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/***
+ * Registry of the caches that keep data of a user, e.g. folder listings or search results, so that all of them are
+ * cleared when the user logs out. A single listener is added to {@link BoxAuthentication} for all registered caches.
+ */
+public class BoxSessionCaches {
+
+    private static final CopyOnWriteArrayList<UserCache> CACHES = new CopyOnWriteArrayList<UserCache>();
+    private static boolean sIsListeningForLogout;
+
+    private BoxSessionCaches() {
+    }
+
+    /**
+     * Clears a cache when a user logs out. Registering a cache again has no effect.
+     *
+     * @param cache the cache
+     */
+    public static void register(UserCache cache) {
+        CACHES.addIfAbsent(cache);
+        listenForLogout();
+    }
+
+    /**
+     * Stops clearing a cache when a user logs out.
+     *
+     * @param cache the cache
+     */
+    public static void unregister(UserCache cache) {
+        CACHES.remove(cache);
+    }
+
+    /**
+     * Clears the data of a user from every registered cache, e.g. once the user logged out.
+     *
+     * @param userId the user id
+     */
+    public static void clear(String userId) {
+        if (userId == null) {
+            return;
+        }
+        for (UserCache cache : CACHES) {
+            cache.clear(userId);
+        }
+    }
+
+    private static synchronized void listenForLogout() {
+        if (sIsListeningForLogout) {
+            return;
+        }
+        sIsListeningForLogout = true;
+        BoxAuthentication.getInstance().addListener(new BoxAuthentication.AuthListener() {
+            @Override
+            public void onRefreshed(BoxAuthentication.BoxAuthenticationInfo info) {
+            }
+
+            @Override
+            public void onAuthCreated(BoxAuthentication.BoxAuthenticationInfo info) {
+            }
+
+            @Override
+            public void onAuthFailure(BoxAuthentication.BoxAuthenticationInfo info, Exception ex) {
+            }
+
+            @Override
+            public void onLoggedOut(BoxAuthentication.BoxAuthenticationInfo info, Exception ex) {
+                if (info != null && info.getUser() != null) {
+                    clear(info.getUser().getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * A cache keeping data of one or more users.
+     */
+    public interface UserCache {
+
+        /**
+         * Removes all data of a user.
+         *
+         * @param userId the user id
+         */
+        void clear(String userId);
+    }
+}
@@ -0,0 +1,193 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.BoxCache;
+import com.box.androidsdk.content.BoxException;
+import com.box.androidsdk.content.models.BoxObject;
+import com.box.androidsdk.content.models.BoxSession;
+import com.box.androidsdk.content.requests.BoxCacheableRequest;
+import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestsFolder;
+import com.box.androidsdk.content.requests.BoxResponse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/***
+ * BoxCache installed in {@link com.box.androidsdk.content.BoxConfig} that keeps a separate {@link BoxDiskFolderCache}
+ * for every user. The box sdk only has a single, process wide, cache slot while folder ids such as the root folder
+ * "0" are the same for every account, so each request is routed to the cache of the session that created it.
+ * Requests that were not registered with {@link #register(BoxRequest, BoxSession)} are neither cached nor served
+ * from the cache. The cache of a user is deleted when the user logs out.
+ */
+public class BoxSessionFolderCache implements BoxCache, BoxSessionCaches.UserCache {
+
+    private static final String FOLDER_CACHE_DIR_NAME = "BoxFolderCache";
+
+    private static BoxSessionFolderCache sDefault;
+
+    private final HashMap<String, BoxDiskFolderCache> mUserCaches = new HashMap<String, BoxDiskFolderCache>();
+    private File mCacheRoot;
+    private final Map<BoxRequest, BoxDiskFolderCache> mRequestCaches = Collections.synchronizedMap(new WeakHashMap<BoxRequest, BoxDiskFolderCache>());
+
+    /**
+     * Gets the cache shared by all controllers. Deletes the folder cache of a user when the user logs out.
+     *
+     * @return the default cache
+     */
+    public static synchronized BoxSessionFolderCache getDefault() {
+        if (sDefault == null) {
+            sDefault = new BoxSessionFolderCache();
+            BoxSessionCaches.register(sDefault);
+        }
+        return sDefault;
+    }
+
+    /**
+     * Gets the folder cache of the user of a session, creating it in the cache directory of the session.
+     *
+     * @param session the session
+     * @return the folder cache, or null if the session has no user or cache directory
+     */
+    public synchronized BoxDiskFolderCache getCache(BoxSession session) {
+        if (session == null || session.getUserId() == null || session.getCacheDir() == null) {
+            return null;
+        }
+        BoxDiskFolderCache cache = mUserCaches.get(session.getUserId());
+        if (cache == null) {
+            if (mCacheRoot == null) {
+                mCacheRoot = new File(session.getCacheDir(), FOLDER_CACHE_DIR_NAME);
+                deleteLegacyEntries(mCacheRoot);
+            }
+            cache = new BoxDiskFolderCache(new File(mCacheRoot, session.getUserId()), session.getUserId());
+            mUserCaches.put(session.getUserId(), cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the folder cache of a user if it has been created.
+     *
+     * @param userId the user id
+     * @return the folder cache, or null if there is none
+     */
+    public synchronized BoxDiskFolderCache getUserCache(String userId) {
+        return mUserCaches.get(userId);
+    }
+
+    /**
+     * Gets the folder caches of all users.
+     *
+     * @return the folder caches
+     */
+    public synchronized Collection<BoxDiskFolderCache> getCaches() {
+        return new ArrayList<BoxDiskFolderCache>(mUserCaches.values());
+    }
+
+    /**
+     * Caches the result of a request in the folder cache of the user of a session. Must be called before the
+     * request is executed.
+     *
+     * @param request the request
+     * @param session the session the request was created with
+     */
+    public void register(BoxRequest request, BoxSession session) {
+        BoxDiskFolderCache cache = getCache(session);
+        if (request != null && cache != null) {
+            mRequestCaches.put(request, cache);
+        }
+    }
+
+    /**
+     * Gets the folder cache a request was registered with.
+     *
+     * @param request the request
+     * @return the folder cache, or null if the request was not registered
+     */
+    public BoxDiskFolderCache getCache(BoxRequest request) {
+        return request != null ? mRequestCaches.get(request) : null;
+    }
+
+    /**
+     * Deletes the folder cache of a user, e.g. once the user logged out. Results of requests of the user that are
+     * still in flight are not cached anymore.
+     *
+     * @param userId the user id
+     */
+    @Override
+    public void clear(String userId) {
+        if (userId == null) {
+            return;
+        }
+        BoxDiskFolderCache cache;
+        File cacheRoot;
+        synchronized (this) {
+            cache = mUserCaches.remove(userId);
+            cacheRoot = mCacheRoot;
+        }
+        if (cache == null) {
+            // Not used since the process started, the listings may still be on disk.
+            if (cacheRoot != null) {
+                deleteFiles(new File(cacheRoot, userId));
+            }
+            return;
+        }
+        synchronized (mRequestCaches) {
+            mRequestCaches.values().removeAll(Collections.singleton(cache));
+        }
+        cache.clear();
+    }
+
+    /**
+     * Deletes listings cached by earlier versions, which kept the listings of all users in one directory.
+     */
+    private static void deleteLegacyEntries(File cacheRoot) {
+        File[] files = cacheRoot.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private static void deleteFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Override
+    public <T extends BoxObject> void put(BoxResponse<T> response) throws BoxException {
+        BoxDiskFolderCache cache = getCache(response.getRequest());
+        if (cache != null) {
+            cache.put(response);
+        }
+    }
+
+    @Override
+    public <T extends BoxObject, R extends BoxRequest & BoxCacheableRequest> T get(R request) throws BoxException {
+        BoxDiskFolderCache cache = getCache(request);
+        return cache != null ? cache.<T, R>get(request) : null;
+    }
+
+    /**
+     * Whether a listing is cached for the given request, without reading it.
+     *
+     * @param request the request
+     * @return true if a listing that has not expired is cached
+     */
+    public boolean contains(BoxRequestsFolder.GetFolderWithAllItems request) {
+        BoxDiskFolderCache cache = getCache(request);
+        return cache != null && cache.contains(request);
+    }
+}
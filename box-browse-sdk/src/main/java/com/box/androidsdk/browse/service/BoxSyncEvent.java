@@ -0,0 +1,81 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxItem;
+
+/***
+ * A change to a single item, reported by a {@link BoxEventSource} and applied by the {@link BoxFolderSyncEngine} to the
+ * folders that are open.
+ */
+public class BoxSyncEvent {
+
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        /** The item was created in, uploaded to or restored into its parent folder. */
+        CREATED,
+        /** The item was deleted or trashed from its parent folder. */
+        DELETED,
+        /** The item was renamed. */
+        RENAMED,
+        /** The content or other properties of the item changed. */
+        MODIFIED,
+        /** The item was moved into its parent folder from a folder that is not known. */
+        MOVED
+    }
+
+    private final Type mType;
+    private final BoxItem mItem;
+    private final String mParentId;
+
+    /**
+     * Instantiates a new Box sync event.
+     *
+     * @param type     the kind of change
+     * @param item     the item in its new state, or with at least its id and type if it was deleted
+     * @param parentId id of the folder the item is in, or was deleted from
+     */
+    public BoxSyncEvent(Type type, BoxItem item, String parentId) {
+        mType = type;
+        mItem = item;
+        mParentId = parentId;
+    }
+
+    /**
+     * Creates an event for an item, taking the parent folder from the item.
+     *
+     * @param type the kind of change
+     * @param item the item, with its parent
+     * @return the event
+     */
+    public static BoxSyncEvent create(Type type, BoxItem item) {
+        return new BoxSyncEvent(type, item, item.getParent() != null ? item.getParent().getId() : null);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * Gets the item.
+     *
+     * @return the item
+     */
+    public BoxItem getItem() {
+        return mItem;
+    }
+
+    /**
+     * Gets the id of the folder the item is in, or was deleted from.
+     *
+     * @return the parent folder id
+     */
+    public String getParentId() {
+        return mParentId;
+    }
+}
@@ -6,6 +6,7 @@ import androidx.collection.LruCache;
 
 import com.box.androidsdk.browse.uidata.ThumbnailManager;
 import com.box.androidsdk.content.BoxFutureTask;
+import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.models.BoxUser;
 import com.box.androidsdk.content.requests.BoxRequest;
@@ -20,6 +21,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 /***
  * Controller interface for the Box Browse SDK. This defines all of the requests that will be used by the SDK.
+ *
+ * Methods added after the first release have default implementations, so that controllers implemented by apps keep
+ * compiling. The defaults turn the feature off, e.g. folders are not paged and requests cannot be cancelled.
  */
 public interface BrowseController {
 
@@ -31,6 +35,48 @@ public interface BrowseController {
      */
     BoxRequestsFolder.GetFolderWithAllItems getFolderWithAllItems(String folderId);
 
+    /***
+     * Retrieves a single page of the items of a folder. Used to load large folders incrementally.
+     *
+     * @param folderId the folder id
+     * @param offset   the offset of the first item of the page
+     * @param limit    the maximum number of items in the page
+     * @return request for a page of folder items, or null if this controller does not page folders
+     */
+    default BoxRequestsFolder.GetFolderItems getFolderItems(String folderId, int offset, int limit) {
+        return null;
+    }
+
+    /***
+     * Sets the fields requested for the items of a folder.
+     *
+     * @param profile the field profile
+     * @return this
+     */
+    default BrowseController setFieldProfile(BoxFieldProfile profile) {
+        return this;
+    }
+
+    /***
+     * Gets the fields requested for the items of a folder. Defaults to {@link BoxFieldProfile#DETAIL}, i.e. items are
+     * never fetched again when they are opened.
+     *
+     * @return the field profile
+     */
+    default BoxFieldProfile getFieldProfile() {
+        return BoxFieldProfile.DETAIL;
+    }
+
+    /***
+     * Retrieves all fields of an item that was fetched with a smaller field profile, e.g. when the item is opened.
+     *
+     * @param item the item to hydrate
+     * @return request for the item with all of its fields, or null if the item cannot be hydrated
+     */
+    default BoxRequest getItemDetailsRequest(BoxItem item) {
+        return null;
+    }
+
     /***
      * Retrieves search results for the given query
      *
@@ -66,6 +112,55 @@ public interface BrowseController {
      */
     void execute(BoxRequest request);
 
+    /***
+     * Executes the request like {@link #execute(BoxRequest)} and returns a handle to cancel it
+     *
+     * @param request the request
+     * @return a handle to cancel the request, or null if there was no request to execute or it cannot be cancelled
+     */
+    default RequestHandle submit(BoxRequest request) {
+        execute(request);
+        return null;
+    }
+
+    /***
+     * Executes the request in the given lane of the request scheduler and returns a handle to cancel it
+     *
+     * @param request the request
+     * @param lane    the lane
+     * @return a handle to cancel the request, or null if there was no request to execute or it cannot be cancelled
+     */
+    default RequestHandle submit(BoxRequest request, RequestScheduler.Lane lane) {
+        return submit(request);
+    }
+
+    /***
+     * Gets the index of the names of items in fetched folders, used to show local search results
+     *
+     * @return the name index, or null if fetched folders are not indexed
+     */
+    default BoxLocalNameIndex getNameIndex() {
+        return null;
+    }
+
+    /***
+     * Gets the scheduler that network and cache requests are executed by, e.g. to read its queue metrics
+     *
+     * @return the request scheduler
+     */
+    default RequestScheduler getRequestScheduler() {
+        return BoxBrowseController.getDefaultScheduler();
+    }
+
+    /***
+     * Gets the metrics that request, cache and thumbnail timings are reported to
+     *
+     * @return the metrics, never null
+     */
+    default BrowseMetrics getMetrics() {
+        return BoxBrowseController.getDefaultMetrics();
+    }
+
     /***
      * Sets the default compeltion listener that will be used after the completion of a BoxRequest
      *
@@ -74,6 +169,16 @@ public interface BrowseController {
      */
     BrowseController setCompletedListener(BoxFutureTask.OnCompletedListener listener);
 
+    /***
+     * Gets the completion listener set with {@link #setCompletedListener(BoxFutureTask.OnCompletedListener)}, so that
+     * browse fragments can wrap it rather than replace it
+     *
+     * @return the listener, or null if it is not known
+     */
+    default BoxFutureTask.OnCompletedListener getCompletedListener() {
+        return null;
+    }
+
     /**
      * Error handler for whenever an error occurs from a request
      *
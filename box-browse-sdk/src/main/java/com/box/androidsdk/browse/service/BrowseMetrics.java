@@ -0,0 +1,84 @@
+package com.box.androidsdk.browse.service;
+
+/***
+ * Receiver of the counters and latencies measured by the browse sdk, so that the host app can export them to its own
+ * telemetry. Set it with {@link BoxBrowseController#setDefaultMetrics(BrowseMetrics)} for every controller or with
+ * {@link BoxBrowseController#setMetrics(BrowseMetrics)} for a single one.
+ *
+ * Every measurement has a name, one of the constants below, and a tag narrowing down what was measured, e.g. the
+ * simple class name of the request or of the fragment. Methods are called on any thread and should return quickly.
+ */
+public interface BrowseMetrics {
+
+    /** Latency: time a task waited in its scheduler lane before it started, reported by {@link BoxRequestScheduler}. Tagged with the lane. */
+    String REQUEST_QUEUE_WAIT = "request.queue_wait";
+
+    /** Latency: time to send a request and parse its result, which the box sdk does in one step. Tagged with the request. */
+    String REQUEST_NETWORK = "request.network";
+
+    /** Counter: requests that failed. Tagged with the request. */
+    String REQUEST_ERROR = "request.error";
+
+    /** Latency: time to read and parse a cached folder listing. Tagged with the request. */
+    String FOLDER_CACHE_READ = "folder_cache.read";
+
+    /** Counter: folder listings found in the folder cache. Tagged with the request. */
+    String FOLDER_CACHE_HIT = "folder_cache.hit";
+
+    /** Counter: folder listings not found in the folder cache. Tagged with the request. */
+    String FOLDER_CACHE_MISS = "folder_cache.miss";
+
+    /** Counter: search result pages served from the search result cache. Tagged with the request. */
+    String SEARCH_CACHE_HIT = "search_cache.hit";
+
+    /** Counter: search result pages not found in the search result cache. Tagged with the request. */
+    String SEARCH_CACHE_MISS = "search_cache.miss";
+
+    /** Counter: thumbnails found in the in memory thumbnail cache. Not tagged. */
+    String THUMBNAIL_CACHE_HIT = "thumbnail_cache.hit";
+
+    /** Counter: thumbnails not found in the in memory thumbnail cache. Not tagged. */
+    String THUMBNAIL_CACHE_MISS = "thumbnail_cache.miss";
+
+    /** Latency: time to decode a thumbnail file. Not tagged. */
+    String THUMBNAIL_DECODE = "thumbnail.decode";
+
+    /** Counter: thumbnails that could not be downloaded or decoded. Not tagged. */
+    String THUMBNAIL_ERROR = "thumbnail.error";
+
+    /**
+     * Latency: time from the user opening a folder or starting a search, or from a fragment starting to load its
+     * items, to the first item being bound. Tagged with the fragment. See {@link BoxContentTrace} for its phases.
+     */
+    String TIME_TO_FIRST_ROW = "fragment.time_to_first_row";
+
+    /**
+     * Metrics that are discarded.
+     */
+    BrowseMetrics NONE = new BrowseMetrics() {
+        @Override
+        public void increment(String name, String tag) {
+        }
+
+        @Override
+        public void recordLatency(String name, String tag, long millis) {
+        }
+    };
+
+    /**
+     * Increments a counter by one.
+     *
+     * @param name the name of the counter
+     * @param tag  what was counted, may be null
+     */
+    void increment(String name, String tag);
+
+    /**
+     * Adds a value to a latency histogram.
+     *
+     * @param name   the name of the histogram
+     * @param tag    what was measured, may be null
+     * @param millis the latency in milliseconds
+     */
+    void recordLatency(String name, String tag, long millis);
+}
@@ -0,0 +1,154 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Thread pool that runs queued work by priority instead of submission order. Lower priority values run first and
+ * work of equal priority runs newest first, so that the most recently bound rows are served before rows that were
+ * scrolled past.
+ */
+public class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /**
+     * Priority given to work that is not {@link Prioritized}, e.g. delivering an already decoded bitmap.
+     */
+    public static final int PRIORITY_IMMEDIATE = Integer.MIN_VALUE;
+
+    /**
+     * Priority of work for a row that is currently visible.
+     */
+    public static final int PRIORITY_VISIBLE = 0;
+
+    private static final Comparator<Runnable> PRIORITY_COMPARATOR = new Comparator<Runnable>() {
+        @Override
+        public int compare(Runnable lhs, Runnable rhs) {
+            Prioritized left = (Prioritized) lhs;
+            Prioritized right = (Prioritized) rhs;
+            if (left.getPriority() != right.getPriority()) {
+                return left.getPriority() < right.getPriority() ? -1 : 1;
+            }
+            // Newest first among equal priorities.
+            if (left.getSequence() != right.getSequence()) {
+                return left.getSequence() > right.getSequence() ? -1 : 1;
+            }
+            return 0;
+        }
+    };
+
+    private final AtomicLong mSequence = new AtomicLong();
+
+    /**
+     * Instantiates a new Priority thread pool executor.
+     *
+     * @param corePoolSize    the number of threads to keep in the pool
+     * @param maximumPoolSize the maximum number of threads in the pool
+     * @param keepAliveTime   how long idle threads above the core size are kept
+     * @param unit            the unit of keepAliveTime
+     */
+    public PriorityThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, new PriorityBlockingQueue<Runnable>(11, PRIORITY_COMPARATOR));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Prioritized prioritized = command instanceof Prioritized ?
+                (Prioritized) command :
+                new PrioritizedRunnable(command, PRIORITY_IMMEDIATE);
+        prioritized.setSequence(mSequence.incrementAndGet());
+        super.execute((Runnable) prioritized);
+    }
+
+    /**
+     * Changes the priority of work that is still queued. Work that already started or finished is left untouched.
+     *
+     * @param task     the queued task
+     * @param priority the new priority
+     * @return true if the task was still queued
+     */
+    public boolean reprioritize(Prioritized task, int priority) {
+        if (task.getPriority() == priority) {
+            return getQueue().contains(task);
+        }
+        // The queue orders on insertion, so the task must be taken out before its priority changes.
+        if (!getQueue().remove(task)) {
+            return false;
+        }
+        task.setPriority(priority);
+        return getQueue().offer((Runnable) task);
+    }
+
+    /**
+     * Work that can be ordered by a {@link PriorityThreadPoolExecutor}.
+     */
+    public interface Prioritized {
+
+        /**
+         * Gets the priority, lower values run first.
+         *
+         * @return the priority
+         */
+        int getPriority();
+
+        /**
+         * Sets the priority. Use {@link PriorityThreadPoolExecutor#reprioritize(Prioritized, int)} once queued.
+         *
+         * @param priority the priority
+         */
+        void setPriority(int priority);
+
+        /**
+         * Gets the order in which this work was submitted.
+         *
+         * @return the sequence
+         */
+        long getSequence();
+
+        /**
+         * Sets the order in which this work was submitted. Called by the executor.
+         *
+         * @param sequence the sequence
+         */
+        void setSequence(long sequence);
+    }
+
+    private static class PrioritizedRunnable implements Runnable, Prioritized {
+
+        private final Runnable mRunnable;
+        private volatile int mPriority;
+        private volatile long mSequence;
+
+        PrioritizedRunnable(Runnable runnable, int priority) {
+            mRunnable = runnable;
+            mPriority = priority;
+        }
+
+        @Override
+        public void run() {
+            mRunnable.run();
+        }
+
+        @Override
+        public int getPriority() {
+            return mPriority;
+        }
+
+        @Override
+        public void setPriority(int priority) {
+            mPriority = priority;
+        }
+
+        @Override
+        public long getSequence() {
+            return mSequence;
+        }
+
+        @Override
+        public void setSequence(long sequence) {
+            mSequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.requests.BoxRequest;
+
+import java.util.concurrent.Future;
+
+/***
+ * Handle to a request submitted through {@link BrowseController#submit(BoxRequest)} that can be used to cancel it,
+ * e.g. when the fragment that needs its result goes away or a newer request supersedes it. A cancelled request that
+ * has not started yet is never sent, and the result of a cancelled request is not delivered to the completion listener.
+ */
+public class RequestHandle {
+
+    private final BoxRequest mRequest;
+    private final Future<?> mTask;
+    private volatile Future<?> mFuture;
+    private volatile Future<?> mCacheFuture;
+    private volatile boolean mIsCancelled;
+
+    /**
+     * Instantiates a new Request handle.
+     *
+     * @param request the request
+     * @param task    the task executing the request, or delivering its cached result
+     */
+    public RequestHandle(BoxRequest request, Future<?> task) {
+        mRequest = request;
+        mTask = task;
+    }
+
+    /**
+     * Sets the future returned by the executor the task was submitted to.
+     *
+     * @param future the future
+     */
+    void setFuture(Future<?> future) {
+        mFuture = future;
+        if (mIsCancelled) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Sets the future of the task reading the cached result of the request.
+     *
+     * @param cacheFuture the future
+     */
+    void setCacheFuture(Future<?> cacheFuture) {
+        mCacheFuture = cacheFuture;
+        if (mIsCancelled) {
+            cacheFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Gets the request.
+     *
+     * @return the request
+     */
+    public BoxRequest getRequest() {
+        return mRequest;
+    }
+
+    /**
+     * Cancels the request and the read of its cached result. Has no effect if the request has already completed.
+     *
+     * @return true if the request was cancelled before it completed
+     */
+    public boolean cancel() {
+        mIsCancelled = true;
+        boolean cancelled = mTask.cancel(true);
+        Future<?> future = mFuture;
+        if (future != null) {
+            future.cancel(true);
+        }
+        Future<?> cacheFuture = mCacheFuture;
+        if (cacheFuture != null) {
+            cacheFuture.cancel(true);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Whether {@link #cancel()} has been called.
+     *
+     * @return true if the request has been cancelled
+     */
+    public boolean isCancelled() {
+        return mIsCancelled;
+    }
+
+    /**
+     * Whether the request has completed, failed or been cancelled.
+     *
+     * @return true if the request is done
+     */
+    public boolean isDone() {
+        return mIsCancelled || mTask.isDone();
+    }
+}
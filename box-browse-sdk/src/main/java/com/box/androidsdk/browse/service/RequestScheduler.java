@@ -0,0 +1,122 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.concurrent.Future;
+
+/***
+ * Schedules the execution of requests made by a {@link BrowseController}. Requests are assigned to lanes so that
+ * slow work of one kind, e.g. a large folder listing, does not delay work of another kind, e.g. a cache read or a
+ * search the user is waiting for.
+ */
+public interface RequestScheduler {
+
+    /**
+     * Kinds of work executed by the scheduler.
+     */
+    enum Lane {
+        /** Reads of cached results, which are fast and should never wait for the network. */
+        CACHE,
+        /** Requests whose result the user is waiting for, e.g. opening a folder or searching. */
+        USER,
+        /** Requests for further pages of a list the user is scrolling through. */
+        PAGINATION,
+        /** Speculative requests for content the user may open next. */
+        PREFETCH
+    }
+
+    /***
+     * Submits a task to the given lane.
+     *
+     * @param lane the lane
+     * @param task the task
+     * @return a future that can be used to cancel the task
+     */
+    Future<?> submit(Lane lane, Runnable task);
+
+    /***
+     * Gets a snapshot of the queue depth and wait time metrics of a lane.
+     *
+     * @param lane the lane
+     * @return the lane statistics
+     */
+    LaneStats getStats(Lane lane);
+
+    /**
+     * Snapshot of the load of a lane.
+     */
+    class LaneStats {
+
+        private final int mQueueDepth;
+        private final int mActiveCount;
+        private final long mStartedCount;
+        private final long mTotalWaitMillis;
+        private final long mMaxWaitMillis;
+
+        /**
+         * Instantiates new lane statistics.
+         *
+         * @param queueDepth      the number of tasks waiting to start
+         * @param activeCount     the number of tasks running
+         * @param startedCount    the number of tasks started so far
+         * @param totalWaitMillis the time started tasks spent queued, in total
+         * @param maxWaitMillis   the longest time a started task spent queued
+         */
+        public LaneStats(int queueDepth, int activeCount, long startedCount, long totalWaitMillis, long maxWaitMillis) {
+            mQueueDepth = queueDepth;
+            mActiveCount = activeCount;
+            mStartedCount = startedCount;
+            mTotalWaitMillis = totalWaitMillis;
+            mMaxWaitMillis = maxWaitMillis;
+        }
+
+        /**
+         * Gets the number of tasks waiting to start.
+         *
+         * @return the queue depth
+         */
+        public int getQueueDepth() {
+            return mQueueDepth;
+        }
+
+        /**
+         * Gets the number of tasks running.
+         *
+         * @return the active count
+         */
+        public int getActiveCount() {
+            return mActiveCount;
+        }
+
+        /**
+         * Gets the number of tasks started so far.
+         *
+         * @return the started count
+         */
+        public long getStartedCount() {
+            return mStartedCount;
+        }
+
+        /**
+         * Gets the average time tasks spent queued before they started.
+         *
+         * @return the average wait in milliseconds
+         */
+        public long getAverageWaitMillis() {
+            return mStartedCount == 0 ? 0 : mTotalWaitMillis / mStartedCount;
+        }
+
+        /**
+         * Gets the longest time a task spent queued before it started.
+         *
+         * @return the maximum wait in milliseconds
+         */
+        public long getMaxWaitMillis() {
+            return mMaxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "queued=" + mQueueDepth + " active=" + mActiveCount + " started=" + mStartedCount
+                    + " avgWaitMs=" + getAverageWaitMillis() + " maxWaitMs=" + mMaxWaitMillis;
+        }
+    }
+}
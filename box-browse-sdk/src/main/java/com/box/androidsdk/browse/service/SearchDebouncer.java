@@ -0,0 +1,149 @@
+package com.box.androidsdk.browse.service;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/***
+ * Turns the text of a search box into search queries. A query is only dispatched once the text has not changed for the
+ * debounce interval and is at least the minimum length, so typing a phrase costs one or two searches instead of one per
+ * keystroke. Must be used from the main thread, listeners are called on the main thread.
+ */
+public class SearchDebouncer {
+
+    /** Default time the text must stay unchanged before it is searched for. */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    /** Default number of characters a query needs before it is searched for while typing. */
+    public static final int DEFAULT_MIN_QUERY_LENGTH = 2;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final OnQueryListener mListener;
+    private long mDebounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    private int mMinQueryLength = DEFAULT_MIN_QUERY_LENGTH;
+    private String mPendingQuery;
+
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            String query = mPendingQuery;
+            mPendingQuery = null;
+            if (query != null) {
+                mListener.onQuery(query);
+            }
+        }
+    };
+
+    /**
+     * Instantiates a new Search debouncer.
+     *
+     * @param listener the listener queries are dispatched to
+     */
+    public SearchDebouncer(OnQueryListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Sets the time the text must stay unchanged before it is searched for.
+     *
+     * @param debounceMillis the debounce interval in milliseconds, 0 to search on every change
+     * @return this
+     */
+    public SearchDebouncer setDebounceMillis(long debounceMillis) {
+        mDebounceMillis = Math.max(0, debounceMillis);
+        return this;
+    }
+
+    /**
+     * Sets the number of characters a query needs before it is searched for while typing.
+     *
+     * @param minQueryLength the minimum query length
+     * @return this
+     */
+    public SearchDebouncer setMinQueryLength(int minQueryLength) {
+        mMinQueryLength = Math.max(1, minQueryLength);
+        return this;
+    }
+
+    /**
+     * Submits the current text of the search box. Replaces a query that is still waiting for the debounce interval.
+     * Text that is shorter than the minimum length clears the search right away.
+     *
+     * @param text the text
+     */
+    public void submit(String text) {
+        if (text == null) {
+            return;
+        }
+        String query = text.trim();
+        mHandler.removeCallbacks(mDispatchRunnable);
+        if (!isSearchable(query)) {
+            mPendingQuery = null;
+            mListener.onQueryCleared(query);
+            return;
+        }
+        mPendingQuery = query;
+        if (mDebounceMillis == 0) {
+            mDispatchRunnable.run();
+        } else {
+            mHandler.postDelayed(mDispatchRunnable, mDebounceMillis);
+        }
+    }
+
+    /**
+     * Searches for the text right away, e.g. when the user submits the search. Any non blank text is searched for,
+     * regardless of the minimum length.
+     *
+     * @param text the text
+     */
+    public void submitNow(String text) {
+        if (text == null) {
+            return;
+        }
+        String query = text.trim();
+        mHandler.removeCallbacks(mDispatchRunnable);
+        mPendingQuery = null;
+        if (query.length() == 0) {
+            mListener.onQueryCleared(query);
+        } else {
+            mListener.onQuery(query);
+        }
+    }
+
+    /**
+     * Drops a query that is still waiting for the debounce interval.
+     */
+    public void cancel() {
+        mHandler.removeCallbacks(mDispatchRunnable);
+        mPendingQuery = null;
+    }
+
+    /**
+     * Whether the text is long enough to be searched for while typing.
+     *
+     * @param text the text
+     * @return true if the text is searchable
+     */
+    public boolean isSearchable(String text) {
+        return text != null && text.trim().length() >= mMinQueryLength;
+    }
+
+    /**
+     * Listener for queries that are ready to be searched for.
+     */
+    public interface OnQueryListener {
+
+        /**
+         * Called when a query should be searched for.
+         *
+         * @param query the trimmed query
+         */
+        void onQuery(String query);
+
+        /**
+         * Called when the text became too short to search for, so that previous results can be cleared.
+         *
+         * @param query the trimmed text
+         */
+        void onQueryCleared(String query);
+    }
+}
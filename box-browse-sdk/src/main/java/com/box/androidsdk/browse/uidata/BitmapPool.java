@@ -0,0 +1,228 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pool of bitmaps that are no longer displayed or cached, bucketed by allocation size. Thumbnails are decoded into
+ * pooled bitmaps so that scrolling through thumbnails of the same few sizes stops allocating new bitmap memory.
+ */
+public class BitmapPool {
+
+    /** Largest factor by which a pooled bitmap may exceed the size needed to be handed out. */
+    private static final int MAX_OVERSIZE_FACTOR = 2;
+
+    private static BitmapPool sDefault;
+
+    private final TreeMap<Integer, LinkedList<Bitmap>> mBuckets = new TreeMap<Integer, LinkedList<Bitmap>>();
+    private int mSizeBytes;
+    private int mMaxSizeBytes;
+
+    /**
+     * Instantiates a new Bitmap pool.
+     *
+     * @param maxSizeBytes the maximum number of bytes held by the pool
+     */
+    public BitmapPool(int maxSizeBytes) {
+        mMaxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Gets the pool shared by all thumbnail managers. Defaults to 1/16th of the available memory.
+     *
+     * @return the default pool
+     */
+    public static synchronized BitmapPool getDefault() {
+        if (sDefault == null) {
+            sDefault = new BitmapPool((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16));
+        }
+        return sDefault;
+    }
+
+    /**
+     * Adds a bitmap to the pool. The bitmap must not be displayed or referenced by a cache anymore.
+     *
+     * @param bitmap the bitmap
+     * @return true if the bitmap was pooled, false if it was recycled instead
+     */
+    public synchronized boolean put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return false;
+        }
+        int size = getAllocationByteCount(bitmap);
+        if (!bitmap.isMutable() || size > mMaxSizeBytes / 2) {
+            bitmap.recycle();
+            return false;
+        }
+        LinkedList<Bitmap> bucket = mBuckets.get(size);
+        if (bucket == null) {
+            bucket = new LinkedList<Bitmap>();
+            mBuckets.put(size, bucket);
+        }
+        bucket.addFirst(bitmap);
+        mSizeBytes += size;
+        trimToSize(mMaxSizeBytes);
+        return true;
+    }
+
+    /**
+     * Takes a bitmap out of the pool that the decoder can use as inBitmap for the given options.
+     *
+     * @param options options of the image to decode, with bounds and sample size set
+     * @return a reusable bitmap or null if none fits
+     */
+    public synchronized Bitmap get(BitmapFactory.Options options) {
+        int needed = getByteCount(options, options.inPreferredConfig);
+        Map.Entry<Integer, LinkedList<Bitmap>> entry = mBuckets.ceilingEntry(needed);
+        while (entry != null && entry.getKey() <= needed * MAX_OVERSIZE_FACTOR) {
+            Iterator<Bitmap> iterator = entry.getValue().iterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+                if (candidate.isRecycled()) {
+                    removeFromBucket(iterator, entry);
+                } else if (canUseForInBitmap(candidate, options)) {
+                    removeFromBucket(iterator, entry);
+                    return candidate;
+                }
+            }
+            entry = mBuckets.higherEntry(entry.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * Takes a bitmap out of the pool with the given dimensions, e.g. to draw a cropped thumbnail into. The content of
+     * the returned bitmap is undefined.
+     *
+     * @param width  the width
+     * @param height the height
+     * @param config the config
+     * @return a bitmap of the given size or null if none fits
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int needed = width * height * getBytesPerPixel(config);
+        Map.Entry<Integer, LinkedList<Bitmap>> entry = mBuckets.ceilingEntry(needed);
+        while (entry != null && entry.getKey() <= needed * MAX_OVERSIZE_FACTOR) {
+            Iterator<Bitmap> iterator = entry.getValue().iterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+                if (candidate.isRecycled()) {
+                    removeFromBucket(iterator, entry);
+                } else if (candidate.getWidth() == width && candidate.getHeight() == height && candidate.getConfig() == config) {
+                    removeFromBucket(iterator, entry);
+                    return candidate;
+                } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                        && needed <= getAllocationByteCount(candidate)) {
+                    // reconfigure throws if the allocation of the candidate is too small for the new size.
+                    removeFromBucket(iterator, entry);
+                    reconfigure(candidate, width, height, config);
+                    return candidate;
+                }
+            }
+            entry = mBuckets.higherEntry(entry.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * Sets the maximum number of bytes held by the pool, recycling bitmaps if needed.
+     *
+     * @param maxSizeBytes the maximum size in bytes
+     */
+    public synchronized void setMaxSize(int maxSizeBytes) {
+        mMaxSizeBytes = maxSizeBytes;
+        trimToSize(maxSizeBytes);
+    }
+
+    /**
+     * Gets the number of bytes currently held by the pool.
+     *
+     * @return the size in bytes
+     */
+    public synchronized int getSize() {
+        return mSizeBytes;
+    }
+
+    /**
+     * Recycles all pooled bitmaps, e.g. when the system is low on memory.
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    private void trimToSize(int maxSizeBytes) {
+        while (mSizeBytes > maxSizeBytes && !mBuckets.isEmpty()) {
+            // Dropping the largest bitmaps frees the most memory for the fewest future misses.
+            Map.Entry<Integer, LinkedList<Bitmap>> largest = mBuckets.lastEntry();
+            Bitmap bitmap = largest.getValue().removeLast();
+            mSizeBytes -= largest.getKey();
+            if (largest.getValue().isEmpty()) {
+                mBuckets.remove(largest.getKey());
+            }
+            bitmap.recycle();
+        }
+    }
+
+    private void removeFromBucket(Iterator<Bitmap> iterator, Map.Entry<Integer, LinkedList<Bitmap>> entry) {
+        iterator.remove();
+        mSizeBytes -= entry.getKey();
+        if (entry.getValue().isEmpty()) {
+            mBuckets.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * Checks whether the decoder can write the image described by the options into the candidate bitmap.
+     *
+     * @param candidate the bitmap to reuse
+     * @param options   the options of the image being decoded, with bounds and sample size set
+     * @return true if the candidate can be used as inBitmap
+     */
+    static boolean canUseForInBitmap(Bitmap candidate, BitmapFactory.Options options) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return getByteCount(options, candidate.getConfig()) <= getAllocationByteCount(candidate);
+        }
+        // Before KitKat the bitmap must match the decoded size exactly.
+        return options.inSampleSize <= 1
+                && candidate.getWidth() == options.outWidth
+                && candidate.getHeight() == options.outHeight;
+    }
+
+    private static int getByteCount(BitmapFactory.Options options, Bitmap.Config config) {
+        int sampleSize = Math.max(1, options.inSampleSize);
+        int width = (int) Math.ceil((double) options.outWidth / sampleSize);
+        int height = (int) Math.ceil((double) options.outHeight / sampleSize);
+        return width * height * getBytesPerPixel(config);
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static int getAllocationByteCount(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static void reconfigure(Bitmap bitmap, int width, int height, Bitmap.Config config) {
+        bitmap.reconfigure(width, height, config);
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.RGBA_F16) {
+            return 8;
+        }
+        return 4;
+    }
+}
@@ -0,0 +1,77 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Runs ui updates posted from any thread together at the start of the next frame. Thumbnails finishing during a fast
+ * scroll then cost one layout and draw pass per frame instead of one per thumbnail.
+ */
+public class FrameBatcher {
+
+    private static FrameBatcher sDefault;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Object mLock = new Object();
+    private ArrayList<Runnable> mPending = new ArrayList<Runnable>();
+    private boolean mIsFrameScheduled;
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            ArrayList<Runnable> batch;
+            synchronized (mLock) {
+                batch = mPending;
+                mPending = new ArrayList<Runnable>();
+                mIsFrameScheduled = false;
+            }
+            for (Runnable action : batch) {
+                action.run();
+            }
+        }
+    };
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            // Choreographer instances are per thread, so the callback must be posted from the main thread.
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    };
+
+    /**
+     * Gets the batcher shared by all thumbnail managers and fragments.
+     *
+     * @return the default batcher
+     */
+    public static synchronized FrameBatcher getDefault() {
+        if (sDefault == null) {
+            sDefault = new FrameBatcher();
+        }
+        return sDefault;
+    }
+
+    /**
+     * Runs the action on the main thread at the start of the next frame, together with all other actions posted
+     * before that frame.
+     *
+     * @param action the action
+     */
+    public void post(Runnable action) {
+        synchronized (mLock) {
+            mPending.add(action);
+            if (mIsFrameScheduled) {
+                return;
+            }
+            mIsFrameScheduled = true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mScheduleFrame.run();
+        } else {
+            mHandler.post(mScheduleFrame);
+        }
+    }
+}
@@ -2,10 +2,11 @@ package com.box.androidsdk.browse.uidata;
 
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.drawable.BitmapDrawable;
+import android.os.SystemClock;
 import android.widget.ImageView;
 
+import com.box.androidsdk.browse.service.PriorityThreadPoolExecutor;
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.models.BoxDownload;
 import com.box.androidsdk.content.models.BoxItem;
@@ -73,10 +74,12 @@ public class LoaderDrawable extends BitmapDrawable {
     /**
      * This class is a BoxFutureTask used for downloading thumbnails.
      */
-    static class ThumbnailTask extends BoxFutureTask<BoxDownload> {
+    static class ThumbnailTask extends BoxFutureTask<BoxDownload> implements PriorityThreadPoolExecutor.Prioritized {
 
         private final String mKey;
         private final BoxItem mBoxItem;
+        private volatile int mPriority = PriorityThreadPoolExecutor.PRIORITY_VISIBLE;
+        private volatile long mSequence;
 
 
         /**
@@ -127,6 +130,26 @@ public class LoaderDrawable extends BitmapDrawable {
             return mBoxItem;
         }
 
+        @Override
+        public int getPriority() {
+            return mPriority;
+        }
+
+        @Override
+        public void setPriority(int priority) {
+            mPriority = priority;
+        }
+
+        @Override
+        public long getSequence() {
+            return mSequence;
+        }
+
+        @Override
+        public void setSequence(long sequence) {
+            mSequence = sequence;
+        }
+
         /**
          * Create a thumbnail task.
          *
@@ -144,14 +167,21 @@ public class LoaderDrawable extends BitmapDrawable {
                     BoxDownload ret = null;
                     Exception ex = null;
                     try {
-                        File imageFile = request.getTarget();
-                        boolean isCached = imageFile.exists() && imageFile.length() > 0;
-                        if (!isCached) {
-                            // If the image has not been cached we make the remote call
-                            ret = (BoxDownload)request.send();
-                        }
+                        File imageFile = ThumbnailManager.getThumbnailFile(request.getTarget());
+                        // Makes the remote call if the image has not been cached, or waits for the same
+                        // image being downloaded for another view.
+                        ret = ThumbnailManager.downloadIfNecessary(request);
                         final ImageView target = targetRef.get();
-                        Bitmap bm = BitmapFactory.decodeFile(imageFile.getAbsolutePath());
+                        // Decode at the size the view displays rather than the size of the image on disk
+                        long decodeStartedAt = SystemClock.elapsedRealtime();
+                        Bitmap bm = target == null ? null :
+                                ThumbnailDecoder.decode(imageFile, target.getMeasuredWidth(), target.getMeasuredHeight());
+                        if (bm != null && imageReadyListener instanceof ThumbnailManager) {
+                            ((ThumbnailManager) imageReadyListener).onThumbnailDecoded(SystemClock.elapsedRealtime() - decodeStartedAt);
+                        }
+                        if (bm == null && target != null && ret == null) {
+                            ThumbnailManager.onThumbnailUnreadable(imageFile);
+                        }
 
                         // Ensure that the image view has not been recycled before setting the image
                         final String key = createRequestKey(request);
@@ -0,0 +1,100 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+
+import java.io.File;
+
+/**
+ * Decodes thumbnail files at the size of the view they are displayed in rather than at their full size.
+ */
+final class ThumbnailDecoder {
+
+    private ThumbnailDecoder() {
+    }
+
+    /**
+     * Decodes the image file subsampled so that it is no smaller than the requested size. A bitmap from the
+     * {@link BitmapPool#getDefault() default pool} is decoded into when one fits.
+     *
+     * @param file      the image file
+     * @param reqWidth  the width of the target view, or 0 if unknown
+     * @param reqHeight the height of the target view, or 0 if unknown
+     * @return the decoded bitmap or null if the file could not be decoded
+     */
+    static Bitmap decode(File file, int reqWidth, int reqHeight) {
+        String path = file.getAbsolutePath();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inBitmap = BitmapPool.getDefault().get(options);
+        try {
+            return BitmapFactory.decodeFile(path, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap was rejected by the decoder, decode into a new one.
+            BitmapPool.getDefault().put(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(path, options);
+        }
+    }
+
+    /**
+     * Calculates the largest power of two sample size that keeps both dimensions at least as large as requested,
+     * so that cropping to the view afterwards never upscales.
+     *
+     * @param width     the width of the image
+     * @param height    the height of the image
+     * @param reqWidth  the requested width, or 0 if unknown
+     * @param reqHeight the requested height, or 0 if unknown
+     * @return the sample size
+     */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize;
+        }
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Scales and center crops the source to exactly the given size, drawing into a pooled bitmap when available.
+     * The source is left untouched.
+     *
+     * @param source the decoded bitmap
+     * @param width  the width of the target view
+     * @param height the height of the target view
+     * @return the cropped bitmap, or the source if it already has the given size
+     */
+    static Bitmap centerCrop(Bitmap source, int width, int height) {
+        if (source.getWidth() == width && source.getHeight() == height) {
+            return source;
+        }
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap target = BitmapPool.getDefault().get(width, height, config);
+        if (target == null) {
+            target = Bitmap.createBitmap(width, height, config);
+        } else {
+            target.eraseColor(Color.TRANSPARENT);
+        }
+        float scale = Math.max((float) width / source.getWidth(), (float) height / source.getHeight());
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((width - source.getWidth() * scale) / 2f, (height - source.getHeight() * scale) / 2f);
+        new Canvas(target).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return target;
+    }
+}
@@ -0,0 +1,454 @@
+package com.box.androidsdk.browse.uidata;
+
+import com.box.androidsdk.content.utils.BoxLogUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the thumbnail directory within a byte budget by evicting the least recently used thumbnails. Sizes and
+ * access order are kept in memory and persisted in a journal file inside the directory, so the directory never
+ * has to be listed after the first start. All disk work happens on a background thread.
+ */
+public class ThumbnailDiskCache {
+
+    /** Default budget for the thumbnail directory. */
+    public static final long DEFAULT_MAX_SIZE_BYTES = 50L * 1024 * 1024;
+
+    private static final String TAG = ThumbnailDiskCache.class.getName();
+    static final String JOURNAL_FILE_NAME = "thumbnails.journal";
+    private static final String JOURNAL_FILE_TEMP_NAME = "thumbnails.journal.tmp";
+    private static final String JOURNAL_HEADER = "box-thumbnails 1";
+    private static final String ADD = "A";
+    private static final String READ = "R";
+    private static final String DELETE = "D";
+    /** Journal operations not reflected in the index after which the journal is compacted. */
+    private static final int REDUNDANT_OP_COMPACT_THRESHOLD = 2000;
+
+    private static final HashMap<File, ThumbnailDiskCache> CACHES = new HashMap<File, ThumbnailDiskCache>();
+
+    private final File mDirectory;
+    private final ThreadPoolExecutor mExecutor;
+    // Access ordered, the eldest entry is evicted first
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<String, Long>(64, 0.75f, true);
+    private long mMaxSizeBytes = DEFAULT_MAX_SIZE_BYTES;
+    private long mSizeBytes;
+    private int mRedundantOps;
+    // Number of clear() calls whose files are still being deleted, and the thumbnails written since then
+    private int mPendingClears;
+    private final HashSet<String> mWrittenSinceClear = new HashSet<String>();
+    private volatile boolean mIsLoaded;
+    private Writer mJournalWriter;
+
+    private ThumbnailDiskCache(File directory) {
+        mDirectory = directory;
+        mExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        mExecutor.allowCoreThreadTimeOut(true);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Gets the cache managing the given thumbnail directory. All managers using the same directory share one cache.
+     *
+     * @param directory the thumbnail directory
+     * @return the disk cache
+     */
+    public static ThumbnailDiskCache forDirectory(File directory) {
+        synchronized (CACHES) {
+            ThumbnailDiskCache cache = CACHES.get(directory);
+            if (cache == null) {
+                cache = new ThumbnailDiskCache(directory);
+                CACHES.put(directory, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Sets the byte budget of the thumbnail directory. Thumbnails above the budget are evicted in the background.
+     *
+     * @param maxSizeBytes the maximum size in bytes
+     */
+    public synchronized void setMaxSize(long maxSizeBytes) {
+        mMaxSizeBytes = maxSizeBytes;
+        scheduleTrim();
+    }
+
+    /**
+     * Gets the number of bytes used by the thumbnails known to this cache.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return mSizeBytes;
+    }
+
+    /**
+     * Whether the journal has been read. Until then {@link #contains(String)} returns false for every thumbnail.
+     *
+     * @return true once the index is loaded
+     */
+    public boolean isLoaded() {
+        return mIsLoaded;
+    }
+
+    /**
+     * Checks whether a complete thumbnail with the given file name is on disk, without touching the file system.
+     *
+     * @param fileName the name of the thumbnail file
+     * @return true if the thumbnail is known to be on disk
+     */
+    public synchronized boolean contains(String fileName) {
+        // containsKey does not count as an access in the LinkedHashMap
+        return mEntries.containsKey(fileName);
+    }
+
+    /**
+     * Records that a thumbnail was read so that it is evicted last.
+     *
+     * @param file the thumbnail file
+     */
+    void onFileRead(final File file) {
+        synchronized (this) {
+            if (mEntries.get(file.getName()) == null) {
+                return;
+            }
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                appendToJournal(READ, file.getName(), null);
+            }
+        });
+    }
+
+    /**
+     * Records a thumbnail that was written completely. Older versions of the same file, which have another sha1 in
+     * their name, are deleted and the directory is trimmed to the budget in the background.
+     *
+     * @param file the thumbnail file
+     */
+    void onFileWritten(final File file) {
+        final long length = file.length();
+        synchronized (this) {
+            Long previous = mEntries.put(file.getName(), length);
+            mSizeBytes += length - (previous == null ? 0 : previous);
+            if (mPendingClears > 0) {
+                mWrittenSinceClear.add(file.getName());
+            }
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                appendToJournal(ADD, file.getName(), length);
+                removeStaleVersions(file.getName());
+                trimToSize();
+            }
+        });
+    }
+
+    /**
+     * Removes a thumbnail that is no longer on disk or cannot be read from the index.
+     *
+     * @param file the thumbnail file
+     */
+    void onFileMissing(final File file) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (ThumbnailDiskCache.this) {
+                    remove(file.getName());
+                }
+            }
+        });
+    }
+
+    /**
+     * Resets the index and deletes all files in the thumbnail directory in the background. Thumbnails written after
+     * this call are kept.
+     */
+    public void clear() {
+        synchronized (this) {
+            mEntries.clear();
+            mSizeBytes = 0;
+            mPendingClears++;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deleteFiles();
+            }
+        });
+    }
+
+    private void deleteFiles() {
+        ArrayList<String> deleted = new ArrayList<String>();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!file.isFile() || name.startsWith(JOURNAL_FILE_NAME)) {
+                    continue;
+                }
+                synchronized (this) {
+                    if (mWrittenSinceClear.contains(name)) {
+                        continue;
+                    }
+                }
+                if (file.delete()) {
+                    deleted.add(name);
+                }
+            }
+        }
+        synchronized (this) {
+            // Entries read from the journal if the index was loaded after clear() was called
+            for (String name : deleted) {
+                Long length = mEntries.remove(name);
+                mSizeBytes -= length == null ? 0 : length;
+            }
+            if (--mPendingClears == 0) {
+                mWrittenSinceClear.clear();
+            }
+            if (mIsLoaded) {
+                rebuildJournal();
+            }
+        }
+    }
+
+    private void scheduleTrim() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                trimToSize();
+            }
+        });
+    }
+
+    private void load() {
+        File journal = new File(mDirectory, JOURNAL_FILE_NAME);
+        synchronized (this) {
+            if (!journal.exists() || !readJournal(journal)) {
+                rebuildIndexFromDirectory();
+                rebuildJournal();
+            }
+            mIsLoaded = true;
+        }
+        trimToSize();
+    }
+
+    private boolean readJournal(File journal) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(journal));
+            if (!JOURNAL_HEADER.equals(reader.readLine())) {
+                return false;
+            }
+            int ops = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ops++;
+                String[] parts = line.split(" ");
+                if (ADD.equals(parts[0]) && parts.length == 3) {
+                    Long previous = mEntries.put(parts[1], Long.parseLong(parts[2]));
+                    mSizeBytes += Long.parseLong(parts[2]) - (previous == null ? 0 : previous);
+                } else if (READ.equals(parts[0]) && parts.length == 2) {
+                    mEntries.get(parts[1]);
+                } else if (DELETE.equals(parts[0]) && parts.length == 2) {
+                    Long previous = mEntries.remove(parts[1]);
+                    mSizeBytes -= previous == null ? 0 : previous;
+                } else {
+                    // E.g. a line cut short when the process died while writing it
+                    throw new IOException("Unexpected thumbnail journal line: " + line);
+                }
+            }
+            mRedundantOps = ops - mEntries.size();
+            return true;
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, "Unable to read thumbnail journal", e);
+        } catch (NumberFormatException e) {
+            BoxLogUtils.e(TAG, "Corrupt thumbnail journal", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+        mEntries.clear();
+        mSizeBytes = 0;
+        return false;
+    }
+
+    private void rebuildIndexFromDirectory() {
+        mEntries.clear();
+        mSizeBytes = 0;
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long left = lhs.lastModified();
+                long right = rhs.lastModified();
+                return left < right ? -1 : (left == right ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (!file.isFile() || file.getName().startsWith(JOURNAL_FILE_NAME)) {
+                continue;
+            }
+            if (file.length() == 0 || file.getName().endsWith(ThumbnailManager.DOWNLOAD_FILE_EXTENSION)) {
+                // Placeholder or partial download left behind by a download that never completed
+                file.delete();
+                continue;
+            }
+            mEntries.put(file.getName(), file.length());
+            mSizeBytes += file.length();
+        }
+    }
+
+    private synchronized void removeStaleVersions(String fileName) {
+        String id = getFileId(fileName);
+        String version = getFileVersion(fileName);
+        if (id == null || version == null) {
+            return;
+        }
+        ArrayList<String> stale = new ArrayList<String>();
+        for (String name : mEntries.keySet()) {
+            if (id.equals(getFileId(name)) && !version.equals(getFileVersion(name))) {
+                stale.add(name);
+            }
+        }
+        for (String name : stale) {
+            remove(name);
+        }
+    }
+
+    private synchronized void trimToSize() {
+        if (!mIsLoaded) {
+            return;
+        }
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSizeBytes > mMaxSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            mSizeBytes -= eldest.getValue();
+            new File(mDirectory, eldest.getKey()).delete();
+            appendToJournal(DELETE, eldest.getKey(), null);
+        }
+    }
+
+    private void remove(String fileName) {
+        Long length = mEntries.remove(fileName);
+        if (length != null) {
+            mSizeBytes -= length;
+            new File(mDirectory, fileName).delete();
+            appendToJournal(DELETE, fileName, null);
+        }
+    }
+
+    private synchronized void appendToJournal(String op, String fileName, Long length) {
+        if (!mIsLoaded) {
+            // Replayed from the directory when the index is built
+            return;
+        }
+        try {
+            if (mJournalWriter == null) {
+                mJournalWriter = new BufferedWriter(new FileWriter(new File(mDirectory, JOURNAL_FILE_NAME), true));
+            }
+            mJournalWriter.write(length == null ? op + " " + fileName + "\n" : op + " " + fileName + " " + length + "\n");
+            mJournalWriter.flush();
+            mRedundantOps++;
+            if (mRedundantOps >= REDUNDANT_OP_COMPACT_THRESHOLD && mRedundantOps >= mEntries.size()) {
+                rebuildJournal();
+            }
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, "Unable to write thumbnail journal", e);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Writes the current index as a fresh journal and atomically replaces the old one.
+     */
+    private void rebuildJournal() {
+        closeJournal();
+        File temp = new File(mDirectory, JOURNAL_FILE_TEMP_NAME);
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new FileWriter(temp, false));
+            writer.write(JOURNAL_HEADER + "\n");
+            for (Map.Entry<String, Long> entry : mEntries.entrySet()) {
+                writer.write(ADD + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+            writer.close();
+            writer = null;
+            if (temp.renameTo(new File(mDirectory, JOURNAL_FILE_NAME))) {
+                mRedundantOps = 0;
+            }
+        } catch (IOException e) {
+            BoxLogUtils.e(TAG, "Unable to rebuild thumbnail journal", e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    private void closeJournal() {
+        if (mJournalWriter != null) {
+            try {
+                mJournalWriter.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            mJournalWriter = null;
+        }
+    }
+
+    // Thumbnail files are named <id>_<sha1>.thumbnail, representations <id>_<sha1>_<dimension>.<type>
+    private static String getFileId(String fileName) {
+        int separator = fileName.indexOf('_');
+        return separator > 0 ? fileName.substring(0, separator) : null;
+    }
+
+    private static String getFileVersion(String fileName) {
+        int start = fileName.indexOf('_');
+        if (start <= 0) {
+            return null;
+        }
+        int end = start + 1;
+        while (end < fileName.length() && fileName.charAt(end) != '_' && fileName.charAt(end) != '.') {
+            end++;
+        }
+        return fileName.substring(start + 1, end);
+    }
+}
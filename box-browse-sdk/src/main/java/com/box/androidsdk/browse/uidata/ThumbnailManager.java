@@ -2,36 +2,48 @@ package com.box.androidsdk.browse.uidata;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.media.ThumbnailUtils;
 import android.os.Handler;
 import android.os.Looper;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.ViewParent;
 import android.widget.ImageView;
 
 import com.box.androidsdk.browse.R;
 import com.box.androidsdk.browse.service.BrowseController;
+import com.box.androidsdk.browse.service.BrowseMetrics;
+import com.box.androidsdk.browse.service.PriorityThreadPoolExecutor;
+import com.box.androidsdk.content.BoxException;
 import com.box.androidsdk.content.BoxFutureTask;
 import com.box.androidsdk.content.models.BoxBookmark;
+import com.box.androidsdk.content.models.BoxDownload;
 import com.box.androidsdk.content.models.BoxFile;
 import com.box.androidsdk.content.models.BoxFolder;
 import com.box.androidsdk.content.models.BoxItem;
 import com.box.androidsdk.content.models.BoxIteratorRepresentations;
 import com.box.androidsdk.content.models.BoxRepresentation;
 import com.box.androidsdk.content.requests.BoxRequest;
+import com.box.androidsdk.content.requests.BoxRequestDownload;
 import com.box.androidsdk.content.requests.BoxRequestsFile;
 import com.box.androidsdk.content.requests.BoxResponse;
-import com.box.androidsdk.content.utils.BoxLogUtils;
 import com.box.androidsdk.content.utils.SdkUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 
 /**
@@ -39,12 +51,20 @@ import java.util.WeakHashMap;
  */
 public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
 
+    private static final String TAG = ThumbnailManager.class.getName();
+
     /** The extension added for thumbnails in this manager. */
     private static final String THUMBNAIL_FILE_EXTENSION = ".thumbnail";
 
+    /** The extension of thumbnails that are still being downloaded. */
+    static final String DOWNLOAD_FILE_EXTENSION = ".download";
+
     /** Controller used for all requests */
     private final BrowseController mController;
 
+    /** Directory of the thumbnails, resolved once so that binding rows does not touch the file system */
+    private final File mThumbnailDirectory;
+
     public static final String TYPE_MEDIA = "MEDIA";
     public static final String TYPE_REPRESENTATION = "REPS";
 
@@ -53,6 +73,26 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      */
     WeakHashMap<Object, BoxFutureTask> mTargetToTask = new WeakHashMap<Object, BoxFutureTask>();
 
+    /**
+     * Recycler views whose scrolling is used to prioritize thumbnails
+     */
+    WeakHashMap<RecyclerView, Boolean> mTrackedRecyclerViews = new WeakHashMap<RecyclerView, Boolean>();
+
+    /**
+     * Bitmaps from the thumbnail cache displayed by image views. Also used as lock for the bitmap bookkeeping below.
+     */
+    private final WeakHashMap<ImageView, Bitmap> mDisplayedBitmaps = new WeakHashMap<ImageView, Bitmap>();
+
+    /**
+     * Bitmaps taken from the thumbnail cache that are on their way to a view, with the number of pending displays
+     */
+    private final IdentityHashMap<Bitmap, Integer> mClaimedBitmaps = new IdentityHashMap<Bitmap, Integer>();
+
+    /**
+     * Bitmaps removed from the thumbnail cache while still displayed. They are pooled once no view displays them.
+     */
+    private final Set<Bitmap> mRemovedBitmaps = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+
     protected final static HashMap<String, Integer> DEFAULT_ICON_RESORCE_MAP = new HashMap<String, Integer>();
 
     public static final String[] DOCUMENTS_EXTENSIONS_ARRAY = {"csv", "doc", "docx", "gdoc", "gsheet", "htm", "html", "msg", "odp", "odt", "ods", "pdf",
@@ -138,6 +178,12 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         DEFAULT_ICON_RESORCE_MAP.put("ai", R.drawable.ic_box_browsesdk_illustrator);
     }
 
+    /**
+     * Downloads in progress keyed by the file they write to. Shared by all managers so that the same thumbnail shown
+     * by several fragments at once is downloaded only once.
+     */
+    private static final HashMap<File, FutureTask<BoxDownload>> IN_FLIGHT_DOWNLOADS = new HashMap<File, FutureTask<BoxDownload>>();
+
     // Main thread looper for posting runnable to UI
     private Handler mHandler = new Handler(Looper.getMainLooper());
 
@@ -149,11 +195,14 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      */
     public ThumbnailManager(BrowseController controller) throws FileNotFoundException {
         mController = controller;
+        mThumbnailDirectory = mController.getThumbnailCacheDir();
 
         // Ensure that parent cache directory is present
-        if (!mController.getThumbnailCacheDir().exists()) {
-            mController.getThumbnailCacheDir().mkdirs();
+        if (!mThumbnailDirectory.exists()) {
+            mThumbnailDirectory.mkdirs();
         }
+        // Start loading the disk cache index
+        getDiskCache();
 
     }
 
@@ -178,7 +227,7 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         } else {
             String name = boxItem.getName();
             if (name != null) {
-                String ext = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+                String ext = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ENGLISH);
                 Integer resId = DEFAULT_ICON_RESORCE_MAP.get(ext);
                 if (resId != null){
                     return resId;
@@ -209,21 +258,33 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      * @return a File object where the thumbnail is saved to or should be saved to.
      */
     public File getThumbnailForBoxFile(final BoxFile boxFile) {
-        File file = new File(getThumbnailDirectory(), getCacheName(boxFile));
-        try{
-            file.createNewFile();
+        // The file is only created once the thumbnail has been downloaded completely.
+        return new File(getThumbnailDirectory(), getCacheName(boxFile));
+    }
 
-        } catch (IOException e){
-            // Ignore errors in creating the file to store thumbnails to.
-            mController.Log("getThumbnailForBoxFile ",  "file.getAbsolutePath()  " + file.getAbsolutePath() + " isFile " + file.isFile(), null);
-            mController.Log("getThumbnailForBoxFile ", "file.getParentFile().exists() "
-                    + Boolean.toString(file.getParentFile().exists()) + " isDirectory " + file.getParentFile().isDirectory(), null);
-            mController.Log("getThumbnailForBoxFile ", "file.getParentFile().getParentFile.exists() " + Boolean.toString(
-                    file.getParentFile().getParentFile().exists()) + " isDirectory " + file.getParentFile().getParentFile().isDirectory(), null);
-            mController.Log("getThumbnailForBoxFile" , " IOException " , e);
+    /**
+     * Gets the file a thumbnail is downloaded to before it is renamed to its final location, so that a thumbnail
+     * file is either missing or complete.
+     *
+     * @param thumbnailFile the final location of the thumbnail
+     * @return the file to download to
+     */
+    protected static File getDownloadFile(File thumbnailFile) {
+        return new File(thumbnailFile.getParentFile(), thumbnailFile.getName() + DOWNLOAD_FILE_EXTENSION);
+    }
 
+    /**
+     * Gets the final location of a thumbnail downloaded to the given file.
+     *
+     * @param downloadFile the target of a thumbnail request
+     * @return the final location of the thumbnail
+     */
+    static File getThumbnailFile(File downloadFile) {
+        String name = downloadFile.getName();
+        if (!name.endsWith(DOWNLOAD_FILE_EXTENSION)) {
+            return downloadFile;
         }
-        return file;
+        return new File(downloadFile.getParentFile(), name.substring(0, name.length() - DOWNLOAD_FILE_EXTENSION.length()));
     }
 
     /**
@@ -236,7 +297,9 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         if (boxFile == null || SdkUtils.isBlank(boxFile.getId()) || SdkUtils.isBlank(boxFile.getSha1())) {
             throw new IllegalArgumentException("BoxFile argument must not be null and must also contain an id and sha1");
         }
-        return String.format(Locale.ENGLISH, "%s_%s%s", boxFile.getId(), boxFile.getSha1(), THUMBNAIL_FILE_EXTENSION);
+        // Called for every bound row, so avoid the cost of parsing a format string.
+        return new StringBuilder(boxFile.getId().length() + boxFile.getSha1().length() + 1 + THUMBNAIL_FILE_EXTENSION.length())
+                .append(boxFile.getId()).append('_').append(boxFile.getSha1()).append(THUMBNAIL_FILE_EXTENSION).toString();
     }
 
     private String getRepCacheName(BoxFile boxFile, BoxRepresentation representation) {
@@ -244,11 +307,92 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             representation == null) {
             throw new IllegalArgumentException("BoxFile argument must not be null and must also contain an id, sha1 and representation");
         }
-        return String.format(Locale.ENGLISH, "%s_%s_%s.%s", boxFile.getId(), boxFile.getSha1(),
-                             representation.getProperties().getDimension(),
-                             representation.getRepresentationType());
+        return new StringBuilder().append(boxFile.getId()).append('_').append(boxFile.getSha1()).append('_')
+                .append(representation.getProperties().getDimension()).append('.')
+                .append(representation.getRepresentationType()).toString();
+    }
+
+
+    /**
+     * Downloads the target of the request unless it is already on disk. Concurrent calls for the same target file
+     * wait for the download in progress instead of starting another one writing to the same file. Returns once the
+     * file is complete, so it can be decoded safely.
+     *
+     * @param request the download request
+     * @return the download, or null if the file was already cached or downloaded by another caller
+     * @throws BoxException if the download failed
+     */
+    static BoxDownload downloadIfNecessary(final BoxRequestDownload request) throws BoxException {
+        final File downloadFile = request.getTarget();
+        final File target = getThumbnailFile(downloadFile);
+        final ThumbnailDiskCache diskCache = ThumbnailDiskCache.forDirectory(target.getParentFile());
+        FutureTask<BoxDownload> download;
+        boolean isOwner = false;
+        synchronized (IN_FLIGHT_DOWNLOADS) {
+            download = IN_FLIGHT_DOWNLOADS.get(target);
+            if (download == null) {
+                // Thumbnails are renamed into place once complete, so an existing file that is not in flight can be
+                // decoded. The file system is only checked until the index of the disk cache is loaded.
+                boolean isCached = diskCache.isLoaded() ? diskCache.contains(target.getName()) : target.length() > 0;
+                if (isCached) {
+                    diskCache.onFileRead(target);
+                    return null;
+                }
+                download = new FutureTask<BoxDownload>(new Callable<BoxDownload>() {
+                    @Override
+                    public BoxDownload call() throws Exception {
+                        try {
+                            BoxDownload result = (BoxDownload) request.send();
+                            if (!downloadFile.equals(target) && !downloadFile.renameTo(target)) {
+                                target.delete();
+                                if (!downloadFile.renameTo(target)) {
+                                    throw new IOException("Unable to move thumbnail to " + target.getName());
+                                }
+                            }
+                            diskCache.onFileWritten(target);
+                            return result;
+                        } catch (Exception e) {
+                            // Never leave a partially written thumbnail behind.
+                            downloadFile.delete();
+                            throw e;
+                        }
+                    }
+                });
+                IN_FLIGHT_DOWNLOADS.put(target, download);
+                isOwner = true;
+            }
+        }
+        if (isOwner) {
+            try {
+                download.run();
+            } finally {
+                synchronized (IN_FLIGHT_DOWNLOADS) {
+                    IN_FLIGHT_DOWNLOADS.remove(target);
+                }
+            }
+        }
+        try {
+            BoxDownload result = download.get();
+            return isOwner ? result : null;
+        } catch (InterruptedException e) {
+            throw new BoxException("Interrupted while waiting for thumbnail download", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BoxException) {
+                throw (BoxException) e.getCause();
+            }
+            throw new BoxException("Thumbnail download failed", e.getCause());
+        }
     }
 
+    /**
+     * Called when a thumbnail the disk cache knows about could not be decoded, e.g. because it was deleted by
+     * another component using the same directory. It is downloaded again the next time it is displayed.
+     *
+     * @param thumbnailFile the thumbnail file
+     */
+    static void onThumbnailUnreadable(File thumbnailFile) {
+        ThumbnailDiskCache.forDirectory(thumbnailFile.getParentFile()).onFileMissing(thumbnailFile);
+    }
 
     /**
      * Gets thumbnail directory.
@@ -256,21 +400,23 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
      * @return the cacheDirectory of this thumbnail manager.
      */
     public File getThumbnailDirectory() {
-        return mController.getThumbnailCacheDir();
+        return mThumbnailDirectory;
     }
 
     /**
      * Convenience method to delete all files in the provided cache directory.
      */
     public void deleteFilesInCacheDirectory() {
-        File[] files = mController.getThumbnailCacheDir().listFiles();
-        if (files != null) {
-            for (int index = 0; index < files.length; index++) {
-                if (files[index].isFile()) {
-                    files[index].delete();
-                }
-            }
-        }
+        getDiskCache().clear();
+    }
+
+    /**
+     * Gets the disk cache that keeps the thumbnail directory within its byte budget.
+     *
+     * @return the disk cache of the thumbnail directory
+     */
+    public ThumbnailDiskCache getDiskCache() {
+        return ThumbnailDiskCache.forDirectory(getThumbnailDirectory());
     }
 
     /**
@@ -286,7 +432,7 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
 
         int index = item.getName().lastIndexOf(".");
         if (index > 0) {
-            String extension = item.getName().substring(index + 1).toLowerCase();
+            String extension = item.getName().substring(index + 1).toLowerCase(Locale.ENGLISH);
             return IMAGE_EXTENSIONS.contains(extension)
                     || VIDEO_EXTENSIONS.contains(extension);
         }
@@ -301,7 +447,7 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
 
         int index = item.getName().lastIndexOf(".");
         if (index > 0) {
-            return VIDEO_EXTENSIONS.contains(item.getName().substring(index + 1).toLowerCase());
+            return VIDEO_EXTENSIONS.contains(item.getName().substring(index + 1).toLowerCase(Locale.ENGLISH));
         }
         return false;
     }
@@ -321,15 +467,13 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
                 && isThumbnailAvailable(item)) {
 
             // Cancel pending task upon recycle.
-            BoxFutureTask task = mTargetToTask.remove(targetImage);
-            if (task != null) {
-                task.cancel(false);
-            }
+            cancelThumbnail(targetImage);
 
             File thumbnailFile = getThumbnailForBoxFile((BoxFile) item);
-            if (mController.getThumbnailCache() != null && mController.getThumbnailCache().get(thumbnailFile) != null){
-                Bitmap bm = mController.getThumbnailCache().get(thumbnailFile);
-                targetImage.setImageBitmap(mController.getThumbnailCache().get(thumbnailFile));
+            Bitmap bm = lookUpCachedThumbnail(thumbnailFile);
+            if (bm != null){
+                targetImage.setImageBitmap(bm);
+                onBitmapDisplayed(targetImage, bm);
                 return;
             }
 
@@ -352,9 +496,10 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             }
 
             // Set the drawable to our loader drawable, which will show a placeholder before loading the thumbnail into the view
-            BoxRequestsFile.DownloadThumbnail request = mController.getThumbnailRequest(item.getId(), thumbnailFile);
+            BoxRequestsFile.DownloadThumbnail request = mController.getThumbnailRequest(item.getId(), getDownloadFile(thumbnailFile));
             LoaderDrawable loaderDrawable = LoaderDrawable.create(request, item, targetImage, placeHolderBitmap, this);
             targetImage.setImageDrawable(loaderDrawable);
+            onBitmapDisplayed(targetImage, null);
             BoxFutureTask thumbnailTask = loaderDrawable.getTask();
             if (thumbnailTask != null) {
                 mTargetToTask.put(targetImage, thumbnailTask);
@@ -363,7 +508,96 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         } else {
             if (!isMediaType) {
                 targetImage.setImageResource(getDefaultIconResource(item));
+                onBitmapDisplayed(targetImage, null);
+            }
+        }
+    }
+
+    /**
+     * Cancels the thumbnail being loaded into the target image view and removes it from the executor queue if it
+     * has not started yet. Should be called when the view holding the image is recycled.
+     *
+     * @param targetImage the target image
+     * @return true if a pending thumbnail was cancelled
+     */
+    public boolean cancelThumbnail(final ImageView targetImage) {
+        BoxFutureTask task = mTargetToTask.remove(targetImage);
+        if (task == null || task.isDone()) {
+            return false;
+        }
+        task.cancel(false);
+        mController.getThumbnailExecutor().remove(task);
+        return true;
+    }
+
+    /**
+     * Reorders queued thumbnails of the given recycler view by their distance from its visible rows whenever it
+     * scrolls, so that rows on screen load before rows that were scrolled past.
+     *
+     * @param recyclerView the recycler view displaying thumbnails
+     */
+    public void trackScrolling(final RecyclerView recyclerView) {
+        if (mTrackedRecyclerViews.containsKey(recyclerView)) {
+            return;
+        }
+        mTrackedRecyclerViews.put(recyclerView, Boolean.TRUE);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            int mFirstVisible = RecyclerView.NO_POSITION;
+            int mLastVisible = RecyclerView.NO_POSITION;
+
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+                    return;
+                }
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (first != mFirstVisible || last != mLastVisible) {
+                    mFirstVisible = first;
+                    mLastVisible = last;
+                    reprioritizeThumbnails(recyclerView, first, last);
+                }
+            }
+        });
+    }
+
+    /**
+     * Updates the priority of queued thumbnails displayed in the recycler view and drops the ones whose view is
+     * no longer bound to a row.
+     *
+     * @param recyclerView the recycler view
+     * @param first        the first visible adapter position
+     * @param last         the last visible adapter position
+     */
+    protected void reprioritizeThumbnails(RecyclerView recyclerView, int first, int last) {
+        if (!(mController.getThumbnailExecutor() instanceof PriorityThreadPoolExecutor) || first == RecyclerView.NO_POSITION) {
+            return;
+        }
+        PriorityThreadPoolExecutor executor = (PriorityThreadPoolExecutor) mController.getThumbnailExecutor();
+        ArrayList<ImageView> detached = new ArrayList<ImageView>();
+        for (Map.Entry<Object, BoxFutureTask> entry : mTargetToTask.entrySet()) {
+            if (!(entry.getKey() instanceof ImageView) || !(entry.getValue() instanceof PriorityThreadPoolExecutor.Prioritized)
+                    || entry.getValue().isDone()) {
+                continue;
+            }
+            ImageView imageView = (ImageView) entry.getKey();
+            RecyclerView.ViewHolder holder = recyclerView.findContainingViewHolder(imageView);
+            if (holder == null) {
+                // Belongs to another list or is not attached to a row right now.
+                continue;
             }
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                detached.add(imageView);
+                continue;
+            }
+            int distance = position < first ? first - position : position > last ? position - last : 0;
+            executor.reprioritize((PriorityThreadPoolExecutor.Prioritized) entry.getValue(),
+                    PriorityThreadPoolExecutor.PRIORITY_VISIBLE + distance);
+        }
+        for (ImageView imageView : detached) {
+            cancelThumbnail(imageView);
         }
     }
 
@@ -399,20 +633,17 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
                     if(contentLink != null) {
                         String url = contentLink.getUrl();
                         if(url != null) {
-                            File f = new File(mController.getThumbnailCacheDir(), getRepCacheName(file, rep));
-                            Bitmap b = mController.getThumbnailCache().get(f);
+                            File f = new File(getThumbnailDirectory(), getRepCacheName(file, rep));
+                            Bitmap b = lookUpCachedThumbnail(f);
+                            cancelThumbnail(targetImage);
                             if(b != null) {
                                 loadThumbnail(b, targetImage);
                                 return true;
                             }
-                            try {
-                                f.createNewFile();
-                            } catch (IOException e) {
-                                BoxLogUtils.e(getClass().getSimpleName(), "Could not create rep file:" + f.getName());
-                            }
-                            BoxRequestsFile.DownloadRepresentation request = mController.getRepresentationThumbnailRequest(file.getId(), rep, f);
+                            BoxRequestsFile.DownloadRepresentation request = mController.getRepresentationThumbnailRequest(file.getId(), rep, getDownloadFile(f));
                             LoaderDrawable loaderDrawable = LoaderDrawable.create(request, file, targetImage, null, this);
                             targetImage.setImageDrawable(loaderDrawable);
+                            onBitmapDisplayed(targetImage, null);
                             BoxFutureTask thumbnailTask = loaderDrawable.getTask();
                             if (thumbnailTask != null) {
                                 mTargetToTask.put(targetImage, thumbnailTask);
@@ -428,6 +659,119 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
     }
 
 
+    /**
+     * Looks up the thumbnail of a view being bound in the cache, see {@link #claimCachedThumbnail(File)}, and counts
+     * the hit or miss.
+     *
+     * @param file the thumbnail file
+     * @return the cached bitmap or null
+     */
+    protected Bitmap lookUpCachedThumbnail(File file) {
+        Bitmap bitmap = claimCachedThumbnail(file);
+        if (mController.getThumbnailCache() != null) {
+            mController.getMetrics().increment(bitmap != null ? BrowseMetrics.THUMBNAIL_CACHE_HIT : BrowseMetrics.THUMBNAIL_CACHE_MISS, null);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Reports the time it took to decode a downloaded thumbnail. Called on a thumbnail thread.
+     *
+     * @param millis the decode time in milliseconds
+     */
+    public void onThumbnailDecoded(long millis) {
+        mController.getMetrics().recordLatency(BrowseMetrics.THUMBNAIL_DECODE, null, millis);
+    }
+
+    /**
+     * Gets a thumbnail from the cache and marks it as about to be displayed, so that it is not handed to the
+     * {@link BitmapPool} if it is evicted before it reaches the view.
+     *
+     * @param file the thumbnail file
+     * @return the cached bitmap or null
+     */
+    protected Bitmap claimCachedThumbnail(File file) {
+        if (mController.getThumbnailCache() == null) {
+            return null;
+        }
+        synchronized (mDisplayedBitmaps) {
+            Bitmap bitmap = mController.getThumbnailCache().get(file);
+            if (bitmap != null) {
+                Integer claims = mClaimedBitmaps.get(bitmap);
+                mClaimedBitmaps.put(bitmap, claims == null ? 1 : claims + 1);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Records the bitmap an image view now displays. Must be called on the ui thread after the image of the view
+     * was changed. The bitmap the view displayed before is pooled if it was removed from the cache meanwhile.
+     *
+     * @param view   the image view
+     * @param bitmap the displayed bitmap, or null if the view no longer displays a cached thumbnail
+     */
+    protected void onBitmapDisplayed(ImageView view, Bitmap bitmap) {
+        Bitmap previous;
+        synchronized (mDisplayedBitmaps) {
+            if (bitmap != null) {
+                removeClaim(bitmap);
+                previous = mDisplayedBitmaps.put(view, bitmap);
+            } else {
+                previous = mDisplayedBitmaps.remove(view);
+            }
+            if (previous == null || previous == bitmap || !isReleasable(previous)) {
+                return;
+            }
+            mRemovedBitmaps.remove(previous);
+        }
+        BitmapPool.getDefault().put(previous);
+    }
+
+    /**
+     * Called when a thumbnail is evicted or replaced in the thumbnail cache. The bitmap is pooled right away unless
+     * it is still displayed, in which case it is pooled once no view displays it anymore.
+     *
+     * @param bitmap the bitmap removed from the cache
+     */
+    public void onThumbnailRemoved(Bitmap bitmap) {
+        synchronized (mDisplayedBitmaps) {
+            if (mClaimedBitmaps.containsKey(bitmap) || mDisplayedBitmaps.containsValue(bitmap)) {
+                mRemovedBitmaps.add(bitmap);
+                return;
+            }
+        }
+        BitmapPool.getDefault().put(bitmap);
+    }
+
+    private void releaseClaim(Bitmap bitmap) {
+        synchronized (mDisplayedBitmaps) {
+            removeClaim(bitmap);
+            if (!isReleasable(bitmap)) {
+                return;
+            }
+            mRemovedBitmaps.remove(bitmap);
+        }
+        BitmapPool.getDefault().put(bitmap);
+    }
+
+    private void removeClaim(Bitmap bitmap) {
+        Integer claims = mClaimedBitmaps.get(bitmap);
+        if (claims == null) {
+            return;
+        }
+        if (claims > 1) {
+            mClaimedBitmaps.put(bitmap, claims - 1);
+        } else {
+            mClaimedBitmaps.remove(bitmap);
+        }
+    }
+
+    private boolean isReleasable(Bitmap bitmap) {
+        return mRemovedBitmaps.contains(bitmap) && !mClaimedBitmaps.containsKey(bitmap)
+                && !mDisplayedBitmaps.containsValue(bitmap);
+    }
+
     @Override
     public void onImageReady(final File bitmapSourceFile, final BoxRequest request, final Bitmap bitmap, final ImageView view) {
         if (bitmap == null || bitmapSourceFile == null || view == null){
@@ -435,14 +779,14 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
             return;
         }
         if(TYPE_REPRESENTATION.equals(ViewData.getImageType(view))) {
-            // No resizing for representation images
+            // No cropping for representation images, they are already subsampled to the size of the view
             mController.getThumbnailCache().put(bitmapSourceFile, bitmap);
         } else {
             if (view.getMeasuredWidth() > 0 && view.getMeasuredHeight() > 0) {
-                Bitmap resizedBitmap = ThumbnailUtils.extractThumbnail(bitmap, view.getMeasuredWidth(), view.getMeasuredHeight());
+                Bitmap resizedBitmap = ThumbnailDecoder.centerCrop(bitmap, view.getMeasuredWidth(), view.getMeasuredHeight());
                 mController.getThumbnailCache().put(bitmapSourceFile, resizedBitmap);
                 if (resizedBitmap != bitmap) {
-                    bitmap.recycle();
+                    BitmapPool.getDefault().put(bitmap);
                 }
             } else {
                 postLaterToView(bitmapSourceFile, request, bitmap, view);
@@ -450,15 +794,18 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
 
             }
         }
-        Bitmap scaledBitmap = mController.getThumbnailCache().get(bitmapSourceFile);
+        Bitmap scaledBitmap = claimCachedThumbnail(bitmapSourceFile);
         if (scaledBitmap != null && isRequestStillApplicable(request, view)){
             loadThumbnail(scaledBitmap, view);
+        } else if (scaledBitmap != null) {
+            releaseClaim(scaledBitmap);
         }
     }
 
     @Override
     public void onImageException(BoxResponse response, ImageView view) {
-        response.getException().printStackTrace();
+        mController.getMetrics().increment(BrowseMetrics.THUMBNAIL_ERROR, null);
+        mController.Log(TAG, "Unable to load thumbnail", response.getException());
         ViewData.getImageLoadListener(view).onError();
     }
 
@@ -533,12 +880,15 @@ public class ThumbnailManager implements LoaderDrawable.ImageReadyListener{
         boolean isMediaType = TYPE_MEDIA.equals(ViewData.getImageType(imageView));
         if (isScrolling && !isMediaType){
             // do nothing we will handle this with the scroll listener.
+            releaseClaim(bitmap);
         } else {
-            mHandler.post(new Runnable() {
+            // Bitmaps finishing within the same frame are set together so they share a single layout pass.
+            FrameBatcher.getDefault().post(new Runnable() {
                 @Override
                 public void run() {
                     //TODO decide whether to use two views for crossfading animation.
                     imageView.setImageBitmap(bitmap);
+                    onBitmapDisplayed(imageView, bitmap);
                     ViewData.getImageLoadListener(imageView).onSuccess();
                 }
             });
@@ -0,0 +1,177 @@
+package com.box.androidsdk.browse.adapters;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BoxItemSnapshotTest {
+
+    @Test
+    public void createCopiesItems() {
+        ArrayList<BoxItem> items = createFiles(0, 100);
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(items);
+        items.clear();
+
+        Assert.assertEquals(100, snapshot.size());
+        Assert.assertEquals("0", snapshot.get(0).getId());
+        Assert.assertEquals("99", snapshot.get(99).getId());
+        Assert.assertEquals(99, snapshot.indexOf("99"));
+        Assert.assertEquals(-1, snapshot.indexOf("100"));
+        Assert.assertEquals(-1, snapshot.indexOf(null));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getPastEndThrows() {
+        // Chunks hold more slots than items, the size must still be checked.
+        new BoxItemSnapshot(createFiles(0, 10)).get(10);
+    }
+
+    @Test
+    public void appendAddsItemsAcrossChunks() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, BoxItemSnapshot.CHUNK_SIZE - 1));
+        snapshot.indexOf("0");
+        BoxItemSnapshot appended = snapshot.append(createFiles(1000, 3));
+
+        Assert.assertEquals(BoxItemSnapshot.CHUNK_SIZE + 2, appended.size());
+        Assert.assertEquals("1002", appended.get(BoxItemSnapshot.CHUNK_SIZE + 1).getId());
+        Assert.assertEquals(BoxItemSnapshot.CHUNK_SIZE - 1, appended.indexOf("1000"));
+        Assert.assertEquals(0, appended.indexOf("0"));
+        // The original snapshot shares the index but does not see the appended items.
+        Assert.assertEquals(BoxItemSnapshot.CHUNK_SIZE - 1, snapshot.size());
+        Assert.assertEquals(-1, snapshot.indexOf("1000"));
+    }
+
+    @Test
+    public void removeTrailingItemsWithTruncate() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 10));
+        snapshot.indexOf("0");
+        BoxItemSnapshot truncated = snapshot.truncate(8);
+
+        Assert.assertEquals(8, truncated.size());
+        Assert.assertEquals(-1, truncated.indexOf("8"));
+        Assert.assertFalse(truncated.contains("9"));
+        Assert.assertEquals(7, truncated.indexOf("7"));
+    }
+
+    @Test
+    public void removeItemsFromTheMiddle() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 10));
+        ArrayList<BoxItem> items = new ArrayList<BoxItem>(snapshot.getItems());
+        items.remove(3);
+        BoxItemSnapshot removed = new BoxItemSnapshot(items);
+
+        Assert.assertEquals(9, removed.size());
+        Assert.assertEquals(-1, removed.indexOf("3"));
+        Assert.assertEquals(3, removed.indexOf("4"));
+        Assert.assertEquals(3, snapshot.indexOf("3"));
+    }
+
+    @Test
+    public void replaceWithSameIdKeepsPositions() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 200));
+        snapshot.indexOf("0");
+        BoxFile changed = createFile(130, "1");
+        BoxItemSnapshot replaced = snapshot.replace(130, changed);
+
+        Assert.assertSame(changed, replaced.get(130));
+        Assert.assertEquals(130, replaced.indexOf("130"));
+        Assert.assertEquals("0", ((BoxFile) snapshot.get(130)).getEtag());
+        Assert.assertEquals("0", ((BoxFile) replaced.get(129)).getEtag());
+    }
+
+    @Test
+    public void replaceWithOtherIdRebuildsPositions() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 10));
+        snapshot.indexOf("0");
+        BoxItemSnapshot replaced = snapshot.replace(5, createFile(500, "0"));
+
+        Assert.assertEquals(5, replaced.indexOf("500"));
+        Assert.assertEquals(-1, replaced.indexOf("5"));
+        Assert.assertEquals(5, snapshot.indexOf("5"));
+        Assert.assertEquals(-1, snapshot.indexOf("500"));
+    }
+
+    @Test
+    public void indexOfAfterTruncateAndExtend() {
+        // Replacing the load more item of a page by the next page, as the adapter does.
+        BoxItemSnapshot page = new BoxItemSnapshot(createFiles(0, 100)).append(createFiles(9999, 1));
+        Assert.assertEquals(100, page.indexOf("9999"));
+        BoxItemSnapshot nextPage = page.truncate(100).append(createFiles(100, 100));
+
+        Assert.assertEquals(200, nextPage.size());
+        Assert.assertEquals(-1, nextPage.indexOf("9999"));
+        Assert.assertEquals(100, nextPage.indexOf("100"));
+        Assert.assertEquals(199, nextPage.indexOf("199"));
+        Assert.assertEquals(50, nextPage.indexOf("50"));
+    }
+
+    @Test
+    public void snapshotsAppendingToTheSameSnapshotAreIsolated() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 70));
+        snapshot.indexOf("0");
+        BoxItemSnapshot first = snapshot.append(createFiles(1000, 10));
+        BoxItemSnapshot second = snapshot.append(createFiles(2000, 10));
+
+        Assert.assertEquals("1000", first.get(70).getId());
+        Assert.assertEquals("2000", second.get(70).getId());
+        Assert.assertEquals(70, first.indexOf("1000"));
+        Assert.assertEquals(-1, first.indexOf("2000"));
+        Assert.assertEquals(70, second.indexOf("2000"));
+        Assert.assertEquals(-1, second.indexOf("1000"));
+        Assert.assertEquals(-1, snapshot.indexOf("1000"));
+    }
+
+    @Test
+    public void appendingAfterTruncateDoesNotChangeTheOriginal() {
+        BoxItemSnapshot original = new BoxItemSnapshot(createFiles(0, 100));
+        original.indexOf("0");
+        BoxItemSnapshot other = original.truncate(60).append(createFiles(1000, 40));
+
+        // The truncated snapshot shares the chunks past its end with the original, which must keep its items.
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.toString(i), original.get(i).getId());
+        }
+        Assert.assertEquals("1000", other.get(60).getId());
+        Assert.assertEquals(60, other.indexOf("1000"));
+        Assert.assertEquals(-1, other.indexOf("60"));
+        Assert.assertEquals(59, original.indexOf("59"));
+    }
+
+    @Test
+    public void getItemsIsAReadOnlyView() {
+        BoxItemSnapshot snapshot = new BoxItemSnapshot(createFiles(0, 3));
+        List<BoxItem> items = snapshot.getItems();
+
+        Assert.assertEquals(Arrays.asList(snapshot.get(0), snapshot.get(1), snapshot.get(2)), items);
+        try {
+            items.add(createFile(3, "0"));
+            Assert.fail("The items of a snapshot must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    private static ArrayList<BoxItem> createFiles(int firstId, int count) {
+        ArrayList<BoxItem> items = new ArrayList<BoxItem>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(createFile(firstId + i, "0"));
+        }
+        return items;
+    }
+
+    private static BoxFile createFile(int id, String etag) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, Integer.toString(id));
+        object.add(BoxItem.FIELD_TYPE, BoxFile.TYPE);
+        object.add(BoxItem.FIELD_NAME, "file " + id);
+        object.add(BoxItem.FIELD_ETAG, etag);
+        return new BoxFile(object);
+    }
+}
@@ -0,0 +1,212 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BoxFolderSyncEngineTest {
+
+    private FakeEventSource mEventSource;
+    private BoxFolderSyncEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mEventSource = new FakeEventSource();
+        // Runs background and main thread work right away, so changes are delivered before report() returns.
+        mEngine = new BoxFolderSyncEngine(mEventSource, "user") {
+            @Override
+            protected void executeInBackground(Runnable task) {
+                task.run();
+            }
+
+            @Override
+            protected void postToMainThread(Runnable task) {
+                task.run();
+            }
+        };
+    }
+
+    @Test
+    public void eventSourceRunsWhileFoldersAreRegistered() {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        Assert.assertFalse(mEventSource.isStarted());
+
+        mEngine.register("1", first);
+        mEngine.register("2", second);
+        Assert.assertTrue(mEventSource.isStarted());
+        Assert.assertEquals(1, mEventSource.getStartCount());
+
+        mEngine.unregister("1", first);
+        Assert.assertTrue(mEventSource.isStarted());
+        mEngine.unregister("2", second);
+        Assert.assertFalse(mEventSource.isStarted());
+        Assert.assertEquals(1, mEventSource.getStopCount());
+    }
+
+    @Test
+    public void createdItemIsAddedToItsFolderOnly() {
+        RecordingListener folder = register("1");
+        RecordingListener other = register("2");
+
+        BoxFile file = createFile("10", "new.pdf");
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.CREATED, file, "1"));
+
+        Assert.assertEquals(1, folder.mChanges.size());
+        Assert.assertEquals(Collections.singletonList(file), folder.lastUpserts());
+        Assert.assertTrue(folder.lastRemovedIds().isEmpty());
+        Assert.assertTrue(other.mChanges.isEmpty());
+    }
+
+    @Test
+    public void updatedItemKeepsItsLatestState() {
+        RecordingListener folder = register("1");
+
+        BoxFile renamed = createFile("10", "renamed.pdf");
+        BoxFile modified = createFile("10", "renamed again.pdf");
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.RENAMED, renamed, "1"),
+                new BoxSyncEvent(BoxSyncEvent.Type.MODIFIED, modified, "1"));
+
+        Assert.assertEquals(1, folder.mChanges.size());
+        Assert.assertEquals(Collections.singletonList(modified), folder.lastUpserts());
+    }
+
+    @Test
+    public void deletedItemIsRemoved() {
+        RecordingListener folder = register("1");
+
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.DELETED, createFile("10", "old.pdf"), "1"));
+
+        Assert.assertTrue(folder.lastUpserts().isEmpty());
+        Assert.assertEquals(Collections.singletonList("10"), folder.lastRemovedIds());
+    }
+
+    @Test
+    public void itemCreatedAndDeletedInOneBatchIsOnlyRemoved() {
+        RecordingListener folder = register("1");
+
+        BoxFile file = createFile("10", "temp.pdf");
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.CREATED, file, "1"),
+                new BoxSyncEvent(BoxSyncEvent.Type.DELETED, file, "1"));
+
+        Assert.assertTrue(folder.lastUpserts().isEmpty());
+        Assert.assertEquals(Collections.singletonList("10"), folder.lastRemovedIds());
+    }
+
+    @Test
+    public void movedItemIsAddedToItsNewFolderAndRemovedFromOtherOpenFolders() {
+        RecordingListener source = register("1");
+        RecordingListener target = register("2");
+        RecordingListener unrelated = register("3");
+
+        BoxFolder moved = createFolder("20", "moved");
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.MOVED, moved, "2"));
+
+        Assert.assertEquals(Collections.singletonList(moved), target.lastUpserts());
+        Assert.assertTrue(target.lastRemovedIds().isEmpty());
+        Assert.assertEquals(Collections.singletonList("20"), source.lastRemovedIds());
+        Assert.assertTrue(source.lastUpserts().isEmpty());
+        Assert.assertEquals(Collections.singletonList("20"), unrelated.lastRemovedIds());
+    }
+
+    @Test
+    public void itemMovedOutOfOpenFoldersIsRemovedFromThem() {
+        RecordingListener source = register("1");
+
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.MOVED, createFile("10", "moved.pdf"), "99"));
+
+        Assert.assertEquals(Collections.singletonList("10"), source.lastRemovedIds());
+    }
+
+    @Test
+    public void eventsOfFoldersThatAreNotOpenAreIgnored() {
+        RecordingListener folder = register("1");
+
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.CREATED, createFile("10", "a.pdf"), "2"),
+                new BoxSyncEvent(BoxSyncEvent.Type.DELETED, createFile("11", "b.pdf"), null));
+
+        Assert.assertTrue(folder.mChanges.isEmpty());
+    }
+
+    @Test
+    public void unregisteredListenerIsNotCalled() {
+        RecordingListener folder = register("1");
+        RecordingListener stays = register("1");
+        mEngine.unregister("1", folder);
+
+        mEventSource.report(new BoxSyncEvent(BoxSyncEvent.Type.CREATED, createFile("10", "a.pdf"), "1"));
+
+        Assert.assertTrue(folder.mChanges.isEmpty());
+        Assert.assertEquals(1, stays.mChanges.size());
+    }
+
+    @Test
+    public void resetRequiresEveryOpenFolderToResync() {
+        RecordingListener first = register("1");
+        RecordingListener second = register("2");
+
+        mEventSource.reset();
+
+        Assert.assertEquals(Collections.singletonList("1"), first.mResyncs);
+        Assert.assertEquals(Collections.singletonList("2"), second.mResyncs);
+    }
+
+    private RecordingListener register(String folderId) {
+        RecordingListener listener = new RecordingListener();
+        mEngine.register(folderId, listener);
+        return listener;
+    }
+
+    private static BoxFile createFile(String id, String name) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, id);
+        object.add(BoxItem.FIELD_TYPE, BoxFile.TYPE);
+        object.add(BoxItem.FIELD_NAME, name);
+        return new BoxFile(object);
+    }
+
+    private static BoxFolder createFolder(String id, String name) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, id);
+        object.add(BoxItem.FIELD_TYPE, BoxFolder.TYPE);
+        object.add(BoxItem.FIELD_NAME, name);
+        return new BoxFolder(object);
+    }
+
+    /**
+     * Listener that keeps every change it receives.
+     */
+    private static class RecordingListener implements BoxFolderSyncEngine.FolderListener {
+
+        final List<List<?>> mChanges = new ArrayList<List<?>>();
+        final List<String> mResyncs = new ArrayList<String>();
+
+        @Override
+        public void onFolderChanged(String folderId, List<BoxItem> upserts, List<String> removedIds) {
+            mChanges.add(Arrays.asList(upserts, removedIds));
+        }
+
+        @Override
+        public void onResyncRequired(String folderId) {
+            mResyncs.add(folderId);
+        }
+
+        List<?> lastUpserts() {
+            return (List<?>) mChanges.get(mChanges.size() - 1).get(0);
+        }
+
+        List<?> lastRemovedIds() {
+            return (List<?>) mChanges.get(mChanges.size() - 1).get(1);
+        }
+    }
+}
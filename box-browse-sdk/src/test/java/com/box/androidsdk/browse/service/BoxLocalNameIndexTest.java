@@ -0,0 +1,146 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.content.models.BoxFile;
+import com.box.androidsdk.content.models.BoxFolder;
+import com.box.androidsdk.content.models.BoxItem;
+import com.eclipsesource.json.JsonObject;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class BoxLocalNameIndexTest {
+
+    private BoxLocalNameIndex mIndex;
+
+    @Before
+    public void setUp() {
+        mIndex = new BoxLocalNameIndex(3);
+    }
+
+    @Test
+    public void splitWordsLowerCasesAndDropsSeparators() {
+        Assert.assertArrayEquals(new String[]{"q3", "budget", "final", "xlsx"},
+                BoxLocalNameIndex.splitWords("Q3 Budget_(FINAL).xlsx"));
+        Assert.assertEquals(0, BoxLocalNameIndex.splitWords(" - ").length);
+        Assert.assertEquals(0, BoxLocalNameIndex.splitWords(null).length);
+    }
+
+    @Test
+    public void queryWordsMatchPrefixesOfNameWords() {
+        mIndex.putFolder("0", Arrays.asList(createFile("1", "Quarterly Report.pdf"), createFile("2", "Notes.txt")));
+
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("quart", null, 10)));
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("REP", null, 10)));
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("pdf", null, 10)));
+        Assert.assertTrue(mIndex.search("port", null, 10).isEmpty());
+    }
+
+    @Test
+    public void everyQueryWordMustMatchAWordInAnyOrder() {
+        mIndex.putFolder("0", Arrays.asList(createFile("1", "Budget draft 2016.xlsx"), createFile("2", "Budget final.xlsx")));
+
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("2016 bud", null, 10)));
+        Assert.assertEquals(Arrays.asList("1", "2"), ids(mIndex.search("budget", null, 10)));
+        Assert.assertTrue(mIndex.search("budget invoice", null, 10).isEmpty());
+    }
+
+    @Test
+    public void wordsLongerThanTheIndexedPrefixAreVerified() {
+        mIndex.putFolder("0", Arrays.asList(createFile("1", "internationalization.md"),
+                createFile("2", "internationalisation.md")));
+
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("internationaliz", null, 10)));
+        Assert.assertEquals(Arrays.asList("2", "1"), ids(mIndex.search("internationali", null, 10)));
+    }
+
+    @Test
+    public void matchingDoesNotDependOnDeviceLanguage() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            mIndex.putFolder("0", Collections.singletonList(createFile("1", "INVOICE.pdf")));
+            Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("invoice", null, 10)));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void matchesAreFoldersFirstThenByNameAndLimited() {
+        mIndex.putFolder("0", Arrays.asList(createFile("1", "b plan.doc"), createFolder("2", "plans"),
+                createFile("3", "a plan.doc")));
+
+        Assert.assertEquals(Arrays.asList("2", "3", "1"), ids(mIndex.search("plan", null, 10)));
+        Assert.assertEquals(Arrays.asList("2", "3"), ids(mIndex.search("plan", null, 2)));
+    }
+
+    @Test
+    public void matchesCanBeLimitedToAFolderAndItsDescendants() {
+        mIndex.putFolder("0", Arrays.asList(createFolder("10", "Projects"), createFile("1", "report root.pdf")));
+        mIndex.putFolder("10", Collections.singletonList(createFolder("11", "Alpha")));
+        mIndex.putFolder("11", Collections.singletonList(createFile("2", "report alpha.pdf")));
+
+        Assert.assertEquals(Collections.singletonList("2"), ids(mIndex.search("report", "10", 10)));
+        Assert.assertEquals(Arrays.asList("2", "1"), ids(mIndex.search("report", "0", 10)));
+        Assert.assertTrue(mIndex.search("report", "99", 10).isEmpty());
+    }
+
+    @Test
+    public void renamedItemIsOnlyFoundByItsNewName() {
+        mIndex.putFolder("0", Collections.singletonList(createFile("1", "draft.doc")));
+        mIndex.addItems("0", Collections.singletonList(createFile("1", "final.doc")));
+
+        Assert.assertTrue(mIndex.search("draft", null, 10).isEmpty());
+        Assert.assertEquals(Collections.singletonList("1"), ids(mIndex.search("final", null, 10)));
+        Assert.assertEquals(1, mIndex.size());
+    }
+
+    @Test
+    public void putFolderReplacesTheItemsOfTheFolder() {
+        mIndex.putFolder("0", Arrays.asList(createFile("1", "old.doc"), createFile("2", "kept.doc")));
+        mIndex.putFolder("0", Collections.singletonList(createFile("2", "kept.doc")));
+
+        Assert.assertTrue(mIndex.search("old", null, 10).isEmpty());
+        Assert.assertEquals(1, mIndex.size());
+    }
+
+    @Test
+    public void leastRecentlyIndexedFolderIsDropped() {
+        for (int i = 0; i < 4; i++) {
+            mIndex.putFolder("folder" + i, Collections.singletonList(createFile(Integer.toString(i), "file " + i)));
+        }
+
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), ids(mIndex.search("file", null, 10)));
+    }
+
+    private static List<String> ids(List<BoxItem> items) {
+        ArrayList<String> ids = new ArrayList<String>(items.size());
+        for (BoxItem item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static BoxFile createFile(String id, String name) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, id);
+        object.add(BoxItem.FIELD_TYPE, BoxFile.TYPE);
+        object.add(BoxItem.FIELD_NAME, name);
+        return new BoxFile(object);
+    }
+
+    private static BoxFolder createFolder(String id, String name) {
+        JsonObject object = new JsonObject();
+        object.add(BoxItem.FIELD_ID, id);
+        object.add(BoxItem.FIELD_TYPE, BoxFolder.TYPE);
+        object.add(BoxItem.FIELD_NAME, name);
+        return new BoxFolder(object);
+    }
+}
@@ -0,0 +1,132 @@
+package com.box.androidsdk.browse.service;
+
+import com.box.androidsdk.browse.models.BoxSearchFilters;
+import com.box.androidsdk.content.models.BoxIteratorItems;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+public class BoxSearchResultCacheTest {
+
+    private static final long FRESH_MILLIS = 1000;
+    private static final long MAX_AGE_MILLIS = 5000;
+
+    private long mNow;
+    private BoxSearchResultCache mCache;
+
+    @Before
+    public void setUp() {
+        mNow = 100000;
+        mCache = new BoxSearchResultCache(3, FRESH_MILLIS, MAX_AGE_MILLIS) {
+            @Override
+            protected long currentTimeMillis() {
+                return mNow;
+            }
+        };
+    }
+
+    @Test
+    public void normalizeQueryFoldsCaseAndWhitespace() {
+        Assert.assertEquals("quarterly report", BoxSearchResultCache.normalizeQuery("  Quarterly \t REPORT\n"));
+        Assert.assertEquals("", BoxSearchResultCache.normalizeQuery(null));
+    }
+
+    @Test
+    public void normalizeQueryDoesNotDependOnDeviceLanguage() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            Assert.assertEquals("invoice", BoxSearchResultCache.normalizeQuery("INVOICE"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void equivalentSearchesShareTheirKey() {
+        BoxSearchFilters filters = new BoxSearchFilters();
+        filters.addItemType(BoxSearchFilters.ItemType.Pdf);
+        filters.addItemType(BoxSearchFilters.ItemType.Image);
+        BoxSearchFilters sameFilters = new BoxSearchFilters();
+        sameFilters.addItemType(BoxSearchFilters.ItemType.Image);
+        sameFilters.addItemType(BoxSearchFilters.ItemType.Pdf);
+
+        Assert.assertEquals(BoxSearchResultCache.createKey("Budget  2016", filters, "0", 50),
+                BoxSearchResultCache.createKey("budget 2016 ", sameFilters, "0", 50));
+    }
+
+    @Test
+    public void differentSearchesHaveDifferentKeys() {
+        String key = BoxSearchResultCache.createKey("budget", null, "0", 50);
+        BoxSearchFilters filters = new BoxSearchFilters();
+        filters.addItemType(BoxSearchFilters.ItemType.Pdf);
+
+        Assert.assertNotEquals(key, BoxSearchResultCache.createKey("budgets", null, "0", 50));
+        Assert.assertNotEquals(key, BoxSearchResultCache.createKey("budget", filters, "0", 50));
+        Assert.assertNotEquals(key, BoxSearchResultCache.createKey("budget", null, "123", 50));
+        Assert.assertNotEquals(key, BoxSearchResultCache.createKey("budget", null, "0", 25));
+    }
+
+    @Test
+    public void pagesAreKeyedPerUserAndOffset() {
+        String searchKey = BoxSearchResultCache.createKey("budget", null, null, 50);
+        String firstUserPage = BoxSearchResultCache.getKey("1", searchKey, 0);
+        String secondUserPage = BoxSearchResultCache.getKey("2", searchKey, 0);
+        BoxIteratorItems items = new BoxIteratorItems();
+
+        mCache.put(firstUserPage, items);
+
+        Assert.assertSame(items, mCache.get(firstUserPage).getItems());
+        Assert.assertNull(mCache.get(secondUserPage));
+        Assert.assertNull(mCache.get(BoxSearchResultCache.getKey("1", searchKey, 50)));
+        Assert.assertNull(BoxSearchResultCache.getKey(null, searchKey, 0));
+        Assert.assertNull(BoxSearchResultCache.getKey("1", null, 0));
+    }
+
+    @Test
+    public void clearingAUserKeepsThePagesOfOtherUsers() {
+        String searchKey = BoxSearchResultCache.createKey("budget", null, null, 50);
+        mCache.put(BoxSearchResultCache.getKey("1", searchKey, 0), new BoxIteratorItems());
+        mCache.put(BoxSearchResultCache.getKey("12", searchKey, 0), new BoxIteratorItems());
+
+        mCache.clear("1");
+
+        Assert.assertNull(mCache.get(BoxSearchResultCache.getKey("1", searchKey, 0)));
+        Assert.assertNotNull(mCache.get(BoxSearchResultCache.getKey("12", searchKey, 0)));
+    }
+
+    @Test
+    public void pagesAreFreshThenStaleThenExpired() {
+        String key = BoxSearchResultCache.getKey("1", BoxSearchResultCache.createKey("budget", null, null, 50), 0);
+        mCache.put(key, new BoxIteratorItems());
+
+        mNow += FRESH_MILLIS;
+        Assert.assertTrue(mCache.isFresh(mCache.get(key)));
+
+        mNow += 1;
+        BoxSearchResultCache.Entry stale = mCache.get(key);
+        Assert.assertNotNull(stale);
+        Assert.assertFalse(mCache.isFresh(stale));
+
+        mNow += MAX_AGE_MILLIS;
+        Assert.assertNull(mCache.get(key));
+    }
+
+    @Test
+    public void leastRecentlyUsedPageIsEvicted() {
+        for (int i = 0; i < 3; i++) {
+            mCache.put("page" + i, new BoxIteratorItems());
+        }
+        mCache.get("page0");
+
+        mCache.put("page3", new BoxIteratorItems());
+
+        Assert.assertNotNull(mCache.get("page0"));
+        Assert.assertNull(mCache.get("page1"));
+        Assert.assertNotNull(mCache.get("page2"));
+        Assert.assertNotNull(mCache.get("page3"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.box.androidsdk.browse.service;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BoxSessionCachesTest {
+
+    private final RecordingCache mFirst = new RecordingCache();
+    private final RecordingCache mSecond = new RecordingCache();
+
+    @After
+    public void tearDown() {
+        BoxSessionCaches.unregister(mFirst);
+        BoxSessionCaches.unregister(mSecond);
+    }
+
+    @Test
+    public void clearingAUserClearsEveryRegisteredCacheOnce() {
+        BoxSessionCaches.register(mFirst);
+        BoxSessionCaches.register(mSecond);
+        BoxSessionCaches.register(mFirst);
+
+        BoxSessionCaches.clear("1");
+
+        Assert.assertEquals(Collections.singletonList("1"), mFirst.mClearedUserIds);
+        Assert.assertEquals(Collections.singletonList("1"), mSecond.mClearedUserIds);
+    }
+
+    @Test
+    public void unregisteredCacheIsNotCleared() {
+        BoxSessionCaches.register(mFirst);
+        BoxSessionCaches.register(mSecond);
+        BoxSessionCaches.unregister(mSecond);
+
+        BoxSessionCaches.clear("1");
+        BoxSessionCaches.clear("2");
+
+        Assert.assertEquals(Arrays.asList("1", "2"), mFirst.mClearedUserIds);
+        Assert.assertTrue(mSecond.mClearedUserIds.isEmpty());
+    }
+
+    @Test
+    public void unknownUserIsIgnored() {
+        BoxSessionCaches.register(mFirst);
+
+        BoxSessionCaches.clear(null);
+
+        Assert.assertTrue(mFirst.mClearedUserIds.isEmpty());
+    }
+
+    private static class RecordingCache implements BoxSessionCaches.UserCache {
+
+        final List<String> mClearedUserIds = new ArrayList<String>();
+
+        @Override
+        public void clear(String userId) {
+            mClearedUserIds.add(userId);
+        }
+    }
+}
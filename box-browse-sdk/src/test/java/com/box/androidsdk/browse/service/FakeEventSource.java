@@ -0,0 +1,57 @@
+package com.box.androidsdk.browse.service;
+
+import java.util.Arrays;
+
+/**
+ * Event source that reports the events a test gives it.
+ */
+public class FakeEventSource implements BoxEventSource {
+
+    private Listener mListener;
+    private int mStartCount;
+    private int mStopCount;
+
+    @Override
+    public void start(Listener listener) {
+        mListener = listener;
+        mStartCount++;
+    }
+
+    @Override
+    public void stop() {
+        mListener = null;
+        mStopCount++;
+    }
+
+    /**
+     * Reports events to the listener, if the source is started.
+     *
+     * @param events the events, in the order they happened
+     */
+    public void report(BoxSyncEvent... events) {
+        if (mListener != null) {
+            mListener.onEvents(Arrays.asList(events));
+        }
+    }
+
+    /**
+     * Reports that events may have been missed, if the source is started.
+     */
+    public void reset() {
+        if (mListener != null) {
+            mListener.onReset();
+        }
+    }
+
+    public boolean isStarted() {
+        return mListener != null;
+    }
+
+    public int getStartCount() {
+        return mStartCount;
+    }
+
+    public int getStopCount() {
+        return mStopCount;
+    }
+}
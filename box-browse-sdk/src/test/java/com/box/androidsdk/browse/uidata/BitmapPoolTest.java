@@ -0,0 +1,124 @@
+package com.box.androidsdk.browse.uidata;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BitmapPoolTest {
+
+    private static final int MAX_SIZE_BYTES = 100 * 1000;
+
+    private BitmapPool mPool;
+
+    @Before
+    public void setUp() {
+        mPool = new BitmapPool(MAX_SIZE_BYTES);
+    }
+
+    @Test
+    public void getTakesBitmapOfTheSameSizeOutOfThePool() {
+        Bitmap large = createBitmap(100, 100);
+        Bitmap small = createBitmap(50, 50);
+        mPool.put(large);
+        mPool.put(small);
+
+        Assert.assertSame(small, mPool.get(50, 50, Bitmap.Config.ARGB_8888));
+        Assert.assertEquals(100 * 100 * 4, mPool.getSize());
+        Assert.assertNull(mPool.get(50, 50, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void getReconfiguresASlightlyLargerBitmap() {
+        Bitmap bitmap = createBitmap(60, 60);
+        mPool.put(bitmap);
+
+        Bitmap reused = mPool.get(50, 50, Bitmap.Config.ARGB_8888);
+
+        Assert.assertSame(bitmap, reused);
+        Assert.assertEquals(50, reused.getWidth());
+        Assert.assertEquals(50, reused.getHeight());
+        Assert.assertEquals(0, mPool.getSize());
+    }
+
+    @Test
+    public void getSkipsBitmapsMoreThanTwiceTheNeededSize() {
+        mPool.put(createBitmap(100, 100));
+
+        Assert.assertNull(mPool.get(40, 40, Bitmap.Config.ARGB_8888));
+        Assert.assertEquals(100 * 100 * 4, mPool.getSize());
+    }
+
+    @Test
+    public void getDoesNotReconfigureABitmapWhoseAllocationIsTooSmall() {
+        Bitmap bitmap = createBitmap(60, 60);
+        mPool.put(bitmap);
+        // The bucket still holds the bitmap by the size it had when it was pooled.
+        bitmap.reconfigure(30, 30, Bitmap.Config.ARGB_8888);
+
+        Assert.assertNull(mPool.get(50, 50, Bitmap.Config.ARGB_8888));
+        Assert.assertEquals(30, bitmap.getWidth());
+    }
+
+    @Test
+    public void getForDecodingTakesBitmapLargeEnoughForTheSampledImage() {
+        Bitmap bitmap = createBitmap(100, 100);
+        mPool.put(bitmap);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.outWidth = 400;
+        options.outHeight = 400;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        options.inSampleSize = 2;
+        Assert.assertNull(mPool.get(options));
+        options.inSampleSize = 4;
+        Assert.assertSame(bitmap, mPool.get(options));
+    }
+
+    @Test
+    public void putRecyclesBitmapsThatCannotBeReused() {
+        Bitmap immutable = createBitmap(10, 10).copy(Bitmap.Config.ARGB_8888, false);
+        Bitmap oversized = createBitmap(150, 150);
+
+        Assert.assertFalse(mPool.put(immutable));
+        Assert.assertTrue(immutable.isRecycled());
+        Assert.assertFalse(mPool.put(oversized));
+        Assert.assertTrue(oversized.isRecycled());
+        Assert.assertEquals(0, mPool.getSize());
+    }
+
+    @Test
+    public void trimmingRecyclesTheLargestBitmapsFirst() {
+        BitmapPool pool = new BitmapPool(90 * 1000);
+        Bitmap large = createBitmap(100, 100);
+        Bitmap[] small = {createBitmap(70, 70), createBitmap(70, 70), createBitmap(70, 70)};
+        int smallSize = 70 * 70 * 4;
+        pool.put(large);
+        for (Bitmap bitmap : small) {
+            pool.put(bitmap);
+        }
+
+        Assert.assertTrue(large.isRecycled());
+        Assert.assertEquals(3 * smallSize, pool.getSize());
+
+        pool.setMaxSize(2 * smallSize);
+        Assert.assertEquals(2 * smallSize, pool.getSize());
+
+        pool.clear();
+        for (Bitmap bitmap : small) {
+            Assert.assertTrue(bitmap.isRecycled());
+        }
+        Assert.assertEquals(0, pool.getSize());
+    }
+
+    private static Bitmap createBitmap(int width, int height) {
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
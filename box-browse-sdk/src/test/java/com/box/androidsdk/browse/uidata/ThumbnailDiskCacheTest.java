@@ -0,0 +1,103 @@
+package com.box.androidsdk.browse.uidata;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+public class ThumbnailDiskCacheTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void journalIsReadOnStart() throws Exception {
+        File directory = mFolder.newFolder();
+        createFile(directory, "1_a.thumbnail", 10);
+        createFile(directory, "2_b.thumbnail", 20);
+        writeJournal(directory, "A 1_a.thumbnail 10\nA 2_b.thumbnail 20\nD 2_b.thumbnail\n");
+
+        ThumbnailDiskCache cache = ThumbnailDiskCache.forDirectory(directory);
+        awaitLoaded(cache);
+
+        Assert.assertTrue(cache.contains("1_a.thumbnail"));
+        Assert.assertFalse(cache.contains("2_b.thumbnail"));
+        Assert.assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    public void journalWithMalformedLineIsRebuiltFromDirectory() throws Exception {
+        File directory = mFolder.newFolder();
+        createFile(directory, "1_a.thumbnail", 10);
+        createFile(directory, "2_b.thumbnail", 20);
+        // The last line was cut short
+        writeJournal(directory, "A 1_a.thumbnail 10\nA 2_b.thumb");
+
+        ThumbnailDiskCache cache = ThumbnailDiskCache.forDirectory(directory);
+        awaitLoaded(cache);
+
+        Assert.assertTrue(cache.contains("1_a.thumbnail"));
+        Assert.assertTrue(cache.contains("2_b.thumbnail"));
+        Assert.assertEquals(30, cache.getSize());
+    }
+
+    @Test
+    public void clearDeletesFilesInTheBackgroundAndKeepsThumbnailsWrittenAfterIt() throws Exception {
+        File directory = mFolder.newFolder();
+        File old = createFile(directory, "1_a.thumbnail", 10);
+        ThumbnailDiskCache cache = ThumbnailDiskCache.forDirectory(directory);
+        awaitLoaded(cache);
+
+        cache.clear();
+        Assert.assertFalse(cache.contains("1_a.thumbnail"));
+        Assert.assertEquals(0, cache.getSize());
+        File written = createFile(directory, "2_b.thumbnail", 20);
+        cache.onFileWritten(written);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (old.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(old.exists());
+        Assert.assertTrue(written.exists());
+        Assert.assertTrue(cache.contains("2_b.thumbnail"));
+        Assert.assertEquals(20, cache.getSize());
+    }
+
+    private static void awaitLoaded(ThumbnailDiskCache cache) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!cache.isLoaded() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(cache.isLoaded());
+    }
+
+    private static File createFile(File directory, String name, int length) throws IOException {
+        File file = new File(directory, name);
+        Writer writer = new FileWriter(file);
+        try {
+            for (int i = 0; i < length; i++) {
+                writer.write('x');
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static void writeJournal(File directory, String ops) throws IOException {
+        Writer writer = new FileWriter(new File(directory, ThumbnailDiskCache.JOURNAL_FILE_NAME));
+        try {
+            writer.write("box-thumbnails 1\n" + ops);
+        } finally {
+            writer.close();
+        }
+    }
+}